@@ -10,7 +10,10 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.security.web.authentication.SimpleUrlAuthenticationSuccessHandler;
 import org.springframework.stereotype.Component;
+import org.yug.backend.model.auth.User;
+import org.yug.backend.repository.UserRepository;
 import org.yug.backend.service.JwtService;
+import org.yug.backend.service.auth.RefreshTokenService;
 
 
 import java.io.IOException;
@@ -20,6 +23,10 @@ public class OAuth2AuthenticationSuccessHandler extends SimpleUrlAuthenticationS
         private static final Logger logger = LoggerFactory.getLogger(OAuth2AuthenticationSuccessHandler.class);
     @Autowired
     private JwtService jwtService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RefreshTokenService refreshTokenService;
 
     @Override
     public void onAuthenticationSuccess(HttpServletRequest request, HttpServletResponse response, Authentication authentication) throws IOException, ServletException {
@@ -28,18 +35,21 @@ logger.info("OAuth2 User: "+oAuth2User);
         // Extract email from Google OAuth2 response
         String email = oAuth2User.getAttribute("email");
 
-        // Derive username from email (e.g., remove the domain part)
-        String username = extractUsernameFromEmail(email);
+        // The user row is created by CustomOAuth2UserService before this handler runs
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new IllegalStateException("OAuth2 user was not provisioned: " + extractUsernameFromEmail(email)));
 
-        // Generate the JWT token using the username
-        String token = jwtService.generateToken(username);
+        // Generate the JWT token carrying the user id and role, and a refresh token so the session slides
+        String token = jwtService.generateToken(user);
+        String refreshToken = refreshTokenService.issue(user);
 
         // Set the response content type to JSON
         response.setContentType("application/json");
         response.setCharacterEncoding("UTF-8");
 
-        // Redirect to the frontend with the token as a query parameter
-        String redirectUrl = "http://localhost:8084/dashboard.html?token=" + token;
+        // Redirect to the frontend with the tokens in the fragment, which the browser never sends to a server (js/api.js stores them)
+        String redirectUrl = "http://localhost:8084/dashboard.html#token=" + token
+                + "&refreshToken=" + refreshToken;
         response.sendRedirect(redirectUrl);
     }
 
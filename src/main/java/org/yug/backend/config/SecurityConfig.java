@@ -2,6 +2,7 @@
 package org.yug.backend.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
@@ -9,6 +10,7 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -17,8 +19,14 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.RequestHeaderRequestMatcher;
+import org.yug.backend.config.ratelimit.RateLimitFilter;
+import org.yug.backend.config.ratelimit.RateLimiter;
+import org.yug.backend.model.auth.User;
 import org.yug.backend.service.CustomOAuth2UserService;
+import org.yug.backend.service.MyUserDetailsService;
 
 // Removed: import java.util.List; // No longer needed for CORS config in this file
 
@@ -32,17 +40,27 @@ public class SecurityConfig {
     @Autowired
     private JwtFilter jwtFilter;
 
+    @Autowired
+    private RateLimiter rateLimiter;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http.csrf(customizer -> customizer.disable())
                 // CORS configuration removed - now managed solely by CorsConfig.java
                 .authorizeHttpRequests(auth -> auth
+                        .requestMatchers("/auth/logout", "/auth/logout-all").authenticated()
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasAuthority(User.UserRole.ADMIN.name()) // metrics expose endpoint names and latencies
                         .requestMatchers("/auth/**","/profile.html","/dashboard.html","/announcements.html","/css/**", "/js/**", "/images/**", "/static/**","Community.html", "/communities/**", "/index.html", "/login.html","SignIn.html", "/register.html").permitAll() // Allow public access to auth endpoints
-                        .requestMatchers("/admin/**").hasRole("ADMIN") // Admin-only endpoints
+                        .requestMatchers("/admin/**").hasAuthority(User.UserRole.ADMIN.name()) // Admin-only endpoints (authorities are bare role names)
                         // Secure all API endpoints
                         .anyRequest().authenticated() // Secure all other endpoints
                 )
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                // A rejected bearer token (usually expired) gets 401, which tells the page scripts to refresh it;
+                // only requests without one are redirected to the sign-in page
+                .exceptionHandling(exceptions -> exceptions.defaultAuthenticationEntryPointFor(
+                        new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED), new RequestHeaderRequestMatcher("Authorization")))
                 .oauth2Login(oauth2 -> oauth2
                         .loginPage("/SignIn.html") // ADD THIS LINE: Explicitly set the login page for OAuth2
                         .userInfoEndpoint(userInfo -> userInfo
@@ -50,7 +68,8 @@ public class SecurityConfig {
                         )
                         .successHandler(oAuth2AuthenticationSuccessHandler())
                 )
-                .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(new RateLimitFilter(rateLimiter), JwtFilter.class); // after JwtFilter so per-user limits see the caller
 
         return http.build();
     }
@@ -65,9 +84,18 @@ public class SecurityConfig {
         return new OAuth2AuthenticationSuccessHandler();
     }
 
+    // Single encoder for the whole app. Raising the strength re-hashes existing passwords on their next login.
+    @Bean
+    public PasswordEncoder passwordEncoder(@Value("${app.security.password.bcrypt-strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
+    }
+
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public AuthenticationProvider authenticationProvider(MyUserDetailsService myUserDetailsService, PasswordEncoder passwordEncoder) {
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(passwordEncoder);
+        provider.setUserDetailsService(myUserDetailsService);
+        provider.setUserDetailsPasswordService(myUserDetailsService); // transparent hash-cost upgrade
+        return provider;
     }
 
     @Bean
@@ -0,0 +1,83 @@
+package org.yug.backend.config.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outermost filter: opens the {@link RequestTimings} for the request and, once the response is written, publishes
+ * the per-stage breakdown as {@code http.server.stage} timers and the SQL statement count as the
+ * {@code http.server.queries} summary, both tagged with the matched endpoint. Meters are created once per endpoint
+ * and reused.
+ */
+public class LatencyMetricsFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, EndpointMeters> metersByEndpoint = new ConcurrentHashMap<>();
+
+    public LatencyMetricsFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        RequestTimings timings = RequestTimings.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestTimings.end();
+            publish(request, timings);
+        }
+    }
+
+    private void publish(HttpServletRequest request, RequestTimings timings) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNMAPPED";
+        String method = request.getMethod();
+        EndpointMeters meters = metersByEndpoint.computeIfAbsent(method + ' ' + uri, key -> createMeters(method, uri));
+        for (RequestTimings.Stage stage : RequestTimings.stages()) {
+            if (timings.calls(stage) > 0) {
+                meters.stageTimers[stage.ordinal()].record(timings.nanos(stage), TimeUnit.NANOSECONDS);
+            }
+        }
+        meters.queries.record(timings.statements());
+    }
+
+    private EndpointMeters createMeters(String method, String uri) {
+        RequestTimings.Stage[] stages = RequestTimings.stages();
+        Timer[] timers = new Timer[stages.length];
+        for (RequestTimings.Stage stage : stages) {
+            timers[stage.ordinal()] = Timer.builder("http.server.stage")
+                    .description("Time spent in one layer while serving a request")
+                    .tag("method", method)
+                    .tag("uri", uri)
+                    .tag("stage", stage.tag())
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofMillis(1))
+                    .maximumExpectedValue(Duration.ofSeconds(10))
+                    .register(meterRegistry);
+        }
+        DistributionSummary queries = DistributionSummary.builder("http.server.queries")
+                .description("SQL statements issued while serving a request")
+                .baseUnit("statements")
+                .tag("method", method)
+                .tag("uri", uri)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        return new EndpointMeters(timers, queries);
+    }
+
+    private record EndpointMeters(Timer[] stageTimers, DistributionSummary queries) {
+    }
+}
@@ -0,0 +1,74 @@
+package org.yug.backend.config.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times {@code CommunityService} and {@code ProfileService} methods ({@code service.method} timers) and adds service
+ * and repository time to the current request's {@link RequestTimings}. Per-repository-method timers already come from
+ * Spring Boot ({@code spring.data.repository.invocations}). The in-memory structures next to those services are left
+ * out: their calls take microseconds and happen many times per request, so a proxy and a timer would cost more than
+ * the call.
+ */
+@Aspect
+@Component
+public class LayerTimingAspect {
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<Method, Timer> serviceTimers = new ConcurrentHashMap<>();
+
+    public LayerTimingAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * *(..)) && (within(org.yug.backend.service.community.CommunityService) " +
+            "|| within(org.yug.backend.service.profile.ProfileService))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Timer timer = serviceTimers.computeIfAbsent(method, this::serviceTimer);
+        boolean outermost = RequestTimings.enter(RequestTimings.Stage.SERVICE);
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            RequestTimings.exit(RequestTimings.Stage.SERVICE);
+            timer.record(elapsed, TimeUnit.NANOSECONDS);
+            if (outermost) {
+                RequestTimings.record(RequestTimings.Stage.SERVICE, elapsed);
+            }
+        }
+    }
+
+    @Around("execution(public * org.springframework.data.repository.Repository+.*(..))")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        boolean outermost = RequestTimings.enter(RequestTimings.Stage.REPOSITORY);
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            RequestTimings.exit(RequestTimings.Stage.REPOSITORY);
+            if (outermost) {
+                RequestTimings.record(RequestTimings.Stage.REPOSITORY, System.nanoTime() - start);
+            }
+        }
+    }
+
+    private Timer serviceTimer(Method method) {
+        return Timer.builder("service.method")
+                .description("Time spent in a service method")
+                .tag("class", method.getDeclaringClass().getSimpleName())
+                .tag("method", method.getName())
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
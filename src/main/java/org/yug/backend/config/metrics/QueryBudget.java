@@ -0,0 +1,22 @@
+package org.yug.backend.config.metrics;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Maximum number of SQL statements a handler method may issue per request. The budget must not depend on the size
+ * of the result, so going over it almost always means an N+1 query crept in.
+ * <p>
+ * Exceeding the budget is counted in {@code http.server.queries.over.budget} and logged; with
+ * {@code app.metrics.query-budget.fail-on-exceed=true} (tests) the request fails instead.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+
+    int value();
+}
@@ -0,0 +1,8 @@
+package org.yug.backend.config.metrics;
+
+public class QueryBudgetExceededException extends IllegalStateException {
+
+    public QueryBudgetExceededException(String endpoint, int statements, int budget) {
+        super(endpoint + " issued " + statements + " SQL statements, budget is " + budget);
+    }
+}
@@ -0,0 +1,16 @@
+package org.yug.backend.config.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts every SQL statement Hibernate prepares against the current request's {@link RequestTimings}. The statement
+ * itself is passed through unchanged.
+ */
+public class QueryCountInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        RequestTimings.countStatement();
+        return sql;
+    }
+}
@@ -0,0 +1,65 @@
+package org.yug.backend.config.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Checks {@link QueryBudget}s once the handler has returned, and in dev adds the statement count so far as an
+ * {@value #QUERY_COUNT_HEADER} response header.
+ */
+@ControllerAdvice
+public class QueryCountResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String QUERY_COUNT_HEADER = "X-Query-Count";
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryCountResponseAdvice.class);
+
+    private final MeterRegistry meterRegistry;
+    private final boolean exposeHeader;
+    private final boolean failOnExceed;
+
+    public QueryCountResponseAdvice(MeterRegistry meterRegistry,
+                                    @Value("${app.metrics.query-count-header:false}") boolean exposeHeader,
+                                    @Value("${app.metrics.query-budget.fail-on-exceed:false}") boolean failOnExceed) {
+        this.meterRegistry = meterRegistry;
+        this.exposeHeader = exposeHeader;
+        this.failOnExceed = failOnExceed;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return exposeHeader || returnType.hasMethodAnnotation(QueryBudget.class);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        int statements = RequestTimings.currentStatementCount();
+        if (statements < 0) {
+            return body; // not inside LatencyMetricsFilter
+        }
+        if (exposeHeader) {
+            response.getHeaders().set(QUERY_COUNT_HEADER, Integer.toString(statements));
+        }
+        QueryBudget budget = returnType.getMethodAnnotation(QueryBudget.class);
+        if (budget != null && statements > budget.value()) {
+            String endpoint = returnType.getDeclaringClass().getSimpleName() + "." + returnType.getExecutable().getName();
+            meterRegistry.counter("http.server.queries.over.budget", "handler", endpoint).increment();
+            if (failOnExceed) {
+                throw new QueryBudgetExceededException(endpoint, statements, budget.value());
+            }
+            logger.warn("{} issued {} SQL statements, budget is {}", endpoint, statements, budget.value());
+        }
+        return body;
+    }
+}
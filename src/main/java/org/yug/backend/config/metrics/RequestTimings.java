@@ -0,0 +1,121 @@
+package org.yug.backend.config.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Per-request accumulator of time spent in each layer. One instance per thread is reused for every request, so
+ * recording a stage is an array add with no allocation. Outside a request (scheduled jobs, startup) recording is a
+ * no-op.
+ */
+public final class RequestTimings {
+
+    public enum Stage {
+        JWT_VERIFY("jwt"),
+        PRINCIPAL_LOAD("principal"),
+        SERVICE("service"),
+        REPOSITORY("repository"),
+        SERIALIZATION("serialization");
+
+        private final String tag;
+
+        Stage(String tag) {
+            this.tag = tag;
+        }
+
+        public String tag() {
+            return tag;
+        }
+    }
+
+    private static final Stage[] STAGES = Stage.values();
+    private static final ThreadLocal<RequestTimings> CURRENT = ThreadLocal.withInitial(RequestTimings::new);
+
+    private final long[] nanos = new long[STAGES.length];
+    private final int[] calls = new int[STAGES.length];
+    private int statements;
+    private boolean active;
+    private int serviceDepth;
+    private int repositoryDepth;
+
+    private RequestTimings() {
+    }
+
+    static RequestTimings begin() {
+        RequestTimings timings = CURRENT.get();
+        Arrays.fill(timings.nanos, 0L);
+        Arrays.fill(timings.calls, 0);
+        timings.statements = 0;
+        timings.serviceDepth = 0;
+        timings.repositoryDepth = 0;
+        timings.active = true;
+        return timings;
+    }
+
+    static void end() {
+        CURRENT.get().active = false;
+    }
+
+    public static void record(Stage stage, long elapsedNanos) {
+        RequestTimings timings = CURRENT.get();
+        if (timings.active) {
+            timings.nanos[stage.ordinal()] += elapsedNanos;
+            timings.calls[stage.ordinal()]++;
+        }
+    }
+
+    /**
+     * Counts one SQL statement prepared by Hibernate on this thread (see {@link QueryCountInspector}).
+     */
+    static void countStatement() {
+        RequestTimings timings = CURRENT.get();
+        if (timings.active) {
+            timings.statements++;
+        }
+    }
+
+    /**
+     * SQL statements issued so far by the current request, or -1 outside a request.
+     */
+    public static int currentStatementCount() {
+        RequestTimings timings = CURRENT.get();
+        return timings.active ? timings.statements : -1;
+    }
+
+    /**
+     * Marks entry into a layer that can nest (a service calling a service). Only the outermost call is recorded,
+     * so nested time is not counted twice. Returns true if the caller is the outermost one.
+     */
+    static boolean enter(Stage stage) {
+        RequestTimings timings = CURRENT.get();
+        return switch (stage) {
+            case SERVICE -> timings.serviceDepth++ == 0;
+            case REPOSITORY -> timings.repositoryDepth++ == 0;
+            default -> true;
+        };
+    }
+
+    static void exit(Stage stage) {
+        RequestTimings timings = CURRENT.get();
+        switch (stage) {
+            case SERVICE -> timings.serviceDepth--;
+            case REPOSITORY -> timings.repositoryDepth--;
+            default -> { }
+        }
+    }
+
+    long nanos(Stage stage) {
+        return nanos[stage.ordinal()];
+    }
+
+    int statements() {
+        return statements;
+    }
+
+    int calls(Stage stage) {
+        return calls[stage.ordinal()];
+    }
+
+    static Stage[] stages() {
+        return STAGES;
+    }
+}
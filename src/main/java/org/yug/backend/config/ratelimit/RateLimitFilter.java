@@ -0,0 +1,62 @@
+package org.yug.backend.config.ratelimit;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.yug.backend.model.auth.AuthenticatedUser;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies {@link RateLimiter} policies. Sits right after JwtFilter in the security chain so per-user policies can
+ * see the authenticated user. Rejected requests get 429 with a Retry-After header.
+ * <p>
+ * Not a Spring bean on purpose: as a bean it would also be registered as a plain servlet filter, ahead of security.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+
+    public RateLimitFilter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        if (rateLimiter.isEnabled()) {
+            String path = request.getRequestURI().substring(request.getContextPath().length());
+            RateLimiter.PolicyState policy = rateLimiter.match(request.getMethod(), path);
+            String key = policy != null ? clientKey(policy.policy.getKey(), request) : null;
+            if (key != null) {
+                long waitNanos = policy.tryAcquire(key);
+                if (waitNanos > 0) {
+                    long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+                    response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                    response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+                    response.setContentType("text/plain;charset=UTF-8");
+                    response.getWriter().write("Too many requests, retry in " + retryAfter + "s");
+                    return;
+                }
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private static String clientKey(RateLimitProperties.KeyType type, HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String user = authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser principal
+                ? "u:" + principal.getId() : null;
+        return switch (type) {
+            case USER -> user;
+            case USER_OR_IP -> user != null ? user : "ip:" + request.getRemoteAddr();
+            case IP -> "ip:" + request.getRemoteAddr();
+        };
+    }
+}
@@ -0,0 +1,63 @@
+package org.yug.backend.config.ratelimit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Route policies for {@link RateLimitFilter}, bound from {@code app.rate-limit}. The first policy whose method and
+ * path pattern match a request applies; requests matching no policy are not limited.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /** Buckets that have been full this long are evicted. */
+    private Duration idleEviction = Duration.ofMinutes(10);
+
+    private List<Policy> policies = defaultPolicies();
+
+    public enum KeyType {
+        IP,
+        USER,        // authenticated user id; anonymous requests are not limited by this policy
+        USER_OR_IP
+    }
+
+    @Data
+    public static class Policy {
+        private String name;
+        private String method;   // null matches any method
+        private String pattern;  // Ant-style, e.g. /communities/*/posts
+        private KeyType key = KeyType.USER_OR_IP;
+        private int capacity;    // burst size
+        private int refillTokens;
+        private Duration refillPeriod = Duration.ofMinutes(1);
+
+        public Policy() {
+        }
+
+        Policy(String name, String method, String pattern, KeyType key, int capacity, int refillTokens) {
+            this.name = name;
+            this.method = method;
+            this.pattern = pattern;
+            this.key = key;
+            this.capacity = capacity;
+            this.refillTokens = refillTokens;
+        }
+    }
+
+    // Login/register are keyed by IP and sized for a campus NAT, where many students share one address.
+    private static List<Policy> defaultPolicies() {
+        List<Policy> policies = new ArrayList<>();
+        policies.add(new Policy("auth-login", "POST", "/auth/login", KeyType.IP, 60, 120));
+        policies.add(new Policy("auth-register", "POST", "/auth/register", KeyType.IP, 20, 30));
+        policies.add(new Policy("auth-refresh", "POST", "/auth/refresh", KeyType.IP, 120, 300));
+        policies.add(new Policy("post-create", "POST", "/communities/*/posts", KeyType.USER_OR_IP, 10, 20));
+        return policies;
+    }
+}
@@ -0,0 +1,94 @@
+package org.yug.backend.config.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds one bucket per (policy, client key). The bucket maps are concurrent hash maps, so lookups on different keys
+ * do not contend, and the buckets themselves are lock-free.
+ */
+@Component
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimiter {
+
+    private final RateLimitProperties properties;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final List<PolicyState> policies = new ArrayList<>();
+
+    public RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        for (RateLimitProperties.Policy policy : properties.getPolicies()) {
+            PolicyState state = new PolicyState(policy,
+                    Counter.builder("ratelimit.rejected").tag("policy", policy.getName()).register(meterRegistry));
+            Gauge.builder("ratelimit.buckets", state.buckets, ConcurrentHashMap::size)
+                    .tag("policy", policy.getName())
+                    .register(meterRegistry);
+            policies.add(state);
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Returns the first policy matching the request, or null.
+     */
+    PolicyState match(String method, String path) {
+        for (PolicyState state : policies) {
+            RateLimitProperties.Policy policy = state.policy;
+            if ((policy.getMethod() == null || policy.getMethod().equalsIgnoreCase(method))
+                    && pathMatcher.match(policy.getPattern(), path)) {
+                return state;
+            }
+        }
+        return null;
+    }
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.eviction-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        long idle = properties.getIdleEviction().toNanos();
+        for (PolicyState state : policies) {
+            state.buckets.values().removeIf(bucket -> bucket.isIdle(now, idle));
+        }
+    }
+
+    static final class PolicyState {
+        final RateLimitProperties.Policy policy;
+        final Counter rejected;
+        final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+        private final long emissionIntervalNanos;
+
+        PolicyState(RateLimitProperties.Policy policy, Counter rejected) {
+            this.policy = policy;
+            this.rejected = rejected;
+            this.emissionIntervalNanos = policy.getRefillPeriod().toNanos() / Math.max(policy.getRefillTokens(), 1);
+        }
+
+        /**
+         * Returns 0 when the request may proceed, otherwise the nanoseconds to wait.
+         */
+        long tryAcquire(String key) {
+            long now = System.nanoTime();
+            TokenBucket bucket = buckets.get(key);
+            if (bucket == null) {
+                bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(emissionIntervalNanos, policy.getCapacity(), now));
+            }
+            long wait = bucket.tryAcquire(now);
+            if (wait > 0) {
+                rejected.increment();
+            }
+            return wait;
+        }
+    }
+}
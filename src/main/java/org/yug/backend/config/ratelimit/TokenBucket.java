@@ -0,0 +1,44 @@
+package org.yug.backend.config.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket in its GCRA form: the whole state is one "theoretical arrival time" updated by CAS,
+ * so concurrent requests on the same key never block each other and a bucket costs a single long.
+ */
+final class TokenBucket {
+
+    private final long emissionIntervalNanos; // time to earn one token
+    private final long burstToleranceNanos;   // how far ahead of now the bucket may be drawn (capacity - 1 tokens)
+    private final AtomicLong theoreticalArrival;
+
+    TokenBucket(long emissionIntervalNanos, int capacity, long nowNanos) {
+        this.emissionIntervalNanos = emissionIntervalNanos;
+        this.burstToleranceNanos = emissionIntervalNanos * (capacity - 1L);
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Takes one token. Returns 0 when allowed, otherwise the nanoseconds until a token becomes available.
+     */
+    long tryAcquire(long nowNanos) {
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long start = Math.max(tat, nowNanos);
+            long waitNanos = start - burstToleranceNanos - nowNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (theoreticalArrival.compareAndSet(tat, start + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * True once the bucket has been full for at least {@code idleNanos}; such buckets can be dropped safely.
+     */
+    boolean isIdle(long nowNanos, long idleNanos) {
+        return nowNanos - theoreticalArrival.get() > idleNanos;
+    }
+}
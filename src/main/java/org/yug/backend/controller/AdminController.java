@@ -0,0 +1,24 @@
+// src/main/java/org/yug/backend/controller/AdminController.java
+package org.yug.backend.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.yug.backend.service.AuthService;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/admin") // Admin-only, see SecurityConfig
+public class AdminController {
+
+    @Autowired
+    private AuthService authService;
+
+    // API: POST /admin/users/{userId}/revoke-tokens - force a user out of every session
+    @PostMapping("/users/{userId}/revoke-tokens")
+    public ResponseEntity<Void> revokeUserTokens(@PathVariable UUID userId) {
+        authService.logoutEverywhere(userId);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,68 @@
+// src/main/java/org/yug/backend/controller/AnnouncementController.java
+package org.yug.backend.controller;
+
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.yug.backend.config.metrics.QueryBudget;
+import org.yug.backend.dto.announcement.AnnouncementDto;
+import org.yug.backend.dto.announcement.BookmarkRequest;
+import org.yug.backend.dto.announcement.ReadStateRequest;
+import org.yug.backend.model.auth.AuthenticatedUser;
+import org.yug.backend.service.announcement.AnnouncementService;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/announcements") // The caller's announcements across campus and their communities
+public class AnnouncementController {
+
+    @Autowired
+    private AnnouncementService announcementService;
+
+    // API: GET /announcements (from announcements.js)
+    @GetMapping
+    @QueryBudget(5) // principal, announcements, watermarks, exceptions, bookmarks
+    public ResponseEntity<List<AnnouncementDto>> getAnnouncements(@AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(announcementService.getAnnouncements(user));
+    }
+
+    // API: GET /announcements/count - unread count for the dashboard badge
+    @GetMapping("/count")
+    @QueryBudget(3) // principal, watermarks, exceptions; the announcements themselves are counted in memory
+    public ResponseEntity<Map<String, Long>> countUnread(@AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(Map.of("count", announcementService.countUnread(user)));
+    }
+
+    // API: PUT /announcements/{announcementId}/read  body: { "read": true|false }
+    @PutMapping("/{announcementId}/read")
+    public ResponseEntity<Void> setRead(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @PathVariable UUID announcementId,
+            @Valid @RequestBody ReadStateRequest request) {
+        announcementService.setRead(user, announcementId, request.getRead());
+        return new ResponseEntity<>(HttpStatus.OK);
+    }
+
+    // API: PUT /announcements/read-all
+    @PutMapping("/read-all")
+    public ResponseEntity<Void> markAllRead(@AuthenticationPrincipal AuthenticatedUser user) {
+        announcementService.markAllRead(user);
+        return new ResponseEntity<>(HttpStatus.OK);
+    }
+
+    // API: PUT /announcements/{announcementId}/bookmark  body: { "bookmarked": true|false }
+    @PutMapping("/{announcementId}/bookmark")
+    public ResponseEntity<Void> setBookmarked(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @PathVariable UUID announcementId,
+            @Valid @RequestBody BookmarkRequest request) {
+        announcementService.setBookmarked(user, announcementId, request.getBookmarked());
+        return new ResponseEntity<>(HttpStatus.OK);
+    }
+}
@@ -3,15 +3,25 @@ package org.yug.backend.controller;
 
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.yug.backend.model.auth.AuthenticatedUser;
+import org.yug.backend.model.auth.User;
 import org.springframework.web.bind.annotation.*;
+import org.yug.backend.config.metrics.QueryBudget;
+import org.yug.backend.dto.CursorPage;
 import org.yug.backend.dto.community.*;
+import org.springframework.web.context.request.WebRequest;
+import org.yug.backend.service.community.CommunityCatalog;
 import org.yug.backend.service.community.CommunityService;
+import org.yug.backend.service.community.MemberSort;
 
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @RestController
@@ -21,81 +31,168 @@ public class CommunityController {
     @Autowired
     private CommunityService communityService;
 
+    @Autowired
+    private CommunityCatalog communityCatalog;
+
     // API: GET /communities/all
+    // Served from the in-memory catalog snapshot; a matching If-None-Match gets 304 with no body
     @GetMapping("/all")
-    public ResponseEntity<List<CommunityDto>> getAllCommunities() {
-        List<CommunityDto> communities = communityService.getAllCommunities();
-        return ResponseEntity.ok(communities);
+    @QueryBudget(1)
+    public ResponseEntity<byte[]> getAllCommunities(WebRequest webRequest) {
+        CommunityCatalog.Snapshot catalog = communityCatalog.current();
+        if (webRequest.checkNotModified(catalog.getEtag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache()) // browsers may keep it but must revalidate
+                .eTag(catalog.getEtag())
+                .body(catalog.getJson());
     }
 
     // API: GET /user/communities/joined (from profile.js, but related to communities)
     // This is handled in CommunityService for getting joined communities, might be better under /user path, but for now matching `community.js` structure
     @GetMapping("/user/communities/joined") // Although in community.js it's fetched from a different path
-    public ResponseEntity<List<CommunityDto>> getJoinedCommunities(@AuthenticationPrincipal UserDetails userDetails) {
-        List<CommunityDto> joinedCommunities = communityService.getJoinedCommunities(userDetails.getUsername());
+    @QueryBudget(2) // includes loading the principal when it is not cached yet
+    public ResponseEntity<List<CommunityDto>> getJoinedCommunities(@AuthenticationPrincipal AuthenticatedUser user) {
+        List<CommunityDto> joinedCommunities = communityService.getJoinedCommunities(user);
         return ResponseEntity.ok(joinedCommunities);
     }
 
+    // API: GET /communities/user/communities/joined/ids?communityIds={id},{id}
+    // The subset of the given communities the caller has joined, answered from memory
+    @GetMapping("/user/communities/joined/ids")
+    @QueryBudget(1) // loading the principal when it is not cached yet
+    public ResponseEntity<List<UUID>> getJoinedAmong(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @RequestParam List<UUID> communityIds) {
+        return ResponseEntity.ok(communityService.getJoinedAmong(user, communityIds));
+    }
+
     // API: POST /user/communities/join
     @PostMapping("/user/communities/join")
     public ResponseEntity<Void> joinCommunity(
-            @AuthenticationPrincipal UserDetails userDetails,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @Valid @RequestBody JoinCommunityRequest request) {
-        communityService.joinCommunity(userDetails.getUsername(), request.getCommunityId());
+        communityService.joinCommunity(user, request.getCommunityId());
         return new ResponseEntity<>(HttpStatus.OK);
     }
 
     // API: DELETE /user/communities/leave/{communityId}
     @DeleteMapping("/user/communities/leave/{communityId}")
     public ResponseEntity<Void> leaveCommunity(
-            @AuthenticationPrincipal UserDetails userDetails,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @PathVariable UUID communityId) {
-        communityService.leaveCommunity(userDetails.getUsername(), communityId);
+        communityService.leaveCommunity(user, communityId);
         return new ResponseEntity<>(HttpStatus.OK);
     }
 
-    // API: GET /communities/{communityId}/posts
+    // API: GET /communities/{communityId}/posts?sort={new|hot}&limit={limit}
+    // sort=hot returns the top posts by likes decayed with age, otherwise the newest posts; limit defaults to 20, at most 50.
+    // Use /posts/feed to page further
     @GetMapping("/{communityId}/posts")
-    public ResponseEntity<List<CommunityPostDto>> getPostsByCommunity(@PathVariable UUID communityId) {
-        List<CommunityPostDto> posts = communityService.getPostsByCommunity(communityId);
+    @QueryBudget(2)
+    public ResponseEntity<List<CommunityPostDto>> getPostsByCommunity(
+            @PathVariable UUID communityId,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) Integer limit) {
+        if (isHot(sort)) {
+            return ResponseEntity.ok(communityService.getHotPosts(communityId, null, limit).getItems());
+        }
+        List<CommunityPostDto> posts = communityService.getPostsByCommunity(communityId, limit);
         return ResponseEntity.ok(posts);
     }
 
+    // API: GET /communities/{communityId}/posts/feed?sort={new|hot}&cursor={cursor}&limit={limit}
+    // Newest first unless sort=hot; pass the returned nextCursor (with the same sort) to get the following page (null on the last one)
+    @GetMapping("/{communityId}/posts/feed")
+    @QueryBudget(2)
+    public ResponseEntity<CursorPage<CommunityPostDto>> getPostFeed(
+            @PathVariable UUID communityId,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        if (isHot(sort)) {
+            return ResponseEntity.ok(communityService.getHotPosts(communityId, cursor, limit));
+        }
+        return ResponseEntity.ok(communityService.getPostFeed(communityId, cursor, limit));
+    }
+
+    private static boolean isHot(String sort) {
+        if (sort == null || sort.isBlank() || sort.equalsIgnoreCase("new")) {
+            return false;
+        }
+        if (sort.equalsIgnoreCase("hot")) {
+            return true;
+        }
+        throw new IllegalArgumentException("Unknown sort '" + sort + "', expected new or hot");
+    }
+
     // API: POST /communities/{communityId}/posts
     @PostMapping("/{communityId}/posts")
     public ResponseEntity<CommunityPostDto> createPost(
-            @AuthenticationPrincipal UserDetails userDetails,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @PathVariable UUID communityId,
             @Valid @RequestBody PostCreateRequest request) {
-        CommunityPostDto newPost = communityService.createPost(userDetails.getUsername(), communityId, request);
+        CommunityPostDto newPost = communityService.createPost(user, communityId, request);
         return new ResponseEntity<>(newPost, HttpStatus.CREATED);
     }
 
     // API: GET /communities/{communityId}/announcements
     @GetMapping("/{communityId}/announcements")
+    @QueryBudget(2)
     public ResponseEntity<List<CommunityAnnouncementDto>> getAnnouncementsByCommunity(@PathVariable UUID communityId) {
         List<CommunityAnnouncementDto> announcements = communityService.getAnnouncementsByCommunity(communityId);
         return ResponseEntity.ok(announcements);
     }
 
-    // API: GET /communities/{communityId}/members
+    // API: GET /communities/{communityId}/members?limit={limit}
+    // The first members by name; limit defaults to 50, at most 200. Use /members/page to page further
     @GetMapping("/{communityId}/members")
-    public ResponseEntity<List<CommunityMemberDto>> getMembersByCommunity(@PathVariable UUID communityId) {
-        List<CommunityMemberDto> members = communityService.getMembersByCommunity(communityId);
+    @QueryBudget(2)
+    public ResponseEntity<List<CommunityMemberDto>> getMembersByCommunity(
+            @PathVariable UUID communityId,
+            @RequestParam(required = false) Integer limit) {
+        List<CommunityMemberDto> members = communityService.getMembersByCommunity(communityId, limit);
         return ResponseEntity.ok(members);
     }
 
-    // API: GET /communities/search?name={communityName} (from profile.js for joining new community)
+    // API: GET /communities/{communityId}/members/page?sort={name|joined}&role={role}&cursor={cursor}&limit={limit}
+    // Keyset-paginated; pass the returned nextCursor (with the same sort and role) for the following page
+    @GetMapping("/{communityId}/members/page")
+    @QueryBudget(2)
+    public ResponseEntity<CursorPage<CommunityMemberDto>> getMemberPage(
+            @PathVariable UUID communityId,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) User.UserRole role,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(communityService.getMemberPage(communityId, MemberSort.parse(sort), role, cursor, limit));
+    }
+
+    // API: GET /communities/{communityId}/members/count?role={role}
+    @GetMapping("/{communityId}/members/count")
+    @QueryBudget(2)
+    public ResponseEntity<Map<String, Long>> countMembers(
+            @PathVariable UUID communityId,
+            @RequestParam(required = false) User.UserRole role) {
+        return ResponseEntity.ok(Map.of("count", communityService.countMembers(communityId, role)));
+    }
+
+    // API: GET /communities/search?name={communityName}&limit={limit} (from profile.js for joining new community)
     // This is implicitly handled by the service and the JoinCommunity API above.
     // If a dedicated search endpoint for names is needed, you would add it here:
     @GetMapping("/search")
-    public ResponseEntity<List<CommunityDto>> searchCommunitiesByName(@RequestParam String name) {
+    @QueryBudget(1)
+    public ResponseEntity<List<CommunityDto>> searchCommunitiesByName(@RequestParam String name,
+                                                                      @RequestParam(required = false) Integer limit) {
         // This would require a new method in CommunityService like:
         // List<CommunityDto> communities = communityService.searchCommunities(name);
         // For now, let's assume `profile.js`'s search is just to find ONE by name for joining.
         // The `joinCommunity` method handles finding the community by ID after a potential frontend search.
         // A dedicated search method in service and controller would look like this:
-        List<CommunityDto> foundCommunities = communityService.findCommunitiesByName(name);
+        // Answered from an in-memory name index; ranked by match quality then member count, 10 results by default
+        List<CommunityDto> foundCommunities = communityService.findCommunitiesByName(name, limit);
         return ResponseEntity.ok(foundCommunities);
     }
 
@@ -0,0 +1,32 @@
+// src/main/java/org/yug/backend/controller/LiveEventController.java
+package org.yug.backend.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.yug.backend.config.JwtFilter;
+import org.yug.backend.model.auth.AuthenticatedUser;
+import org.yug.backend.service.auth.VerifiedToken;
+import org.yug.backend.service.live.LiveEventHub;
+
+@RestController
+public class LiveEventController {
+
+    @Autowired
+    private LiveEventHub liveEventHub;
+
+    // API: GET /events - Server-Sent Events for the caller's communities (read by js/live.js). Ends when the
+    //   access token expires or is revoked; reconnecting needs a valid token.
+    //   event: post          data: the post, as in the community feed
+    //   event: announcement  data: { id, communityId (null when campus-wide), createdAt }
+    //   event: resync        data: {} - events were dropped; reload what is shown
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@AuthenticationPrincipal AuthenticatedUser user,
+                             @RequestAttribute(name = JwtFilter.VERIFIED_TOKEN_ATTRIBUTE, required = false) VerifiedToken token) {
+        return liveEventHub.subscribe(user.getId(), token);
+    }
+}
@@ -0,0 +1,84 @@
+// src/main/java/org/yug/backend/controller/PostController.java
+package org.yug.backend.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.yug.backend.config.metrics.QueryBudget;
+import org.yug.backend.dto.CursorPage;
+import org.yug.backend.dto.community.CommunityPostDto;
+import org.yug.backend.model.auth.AuthenticatedUser;
+import org.yug.backend.service.community.CommunityService;
+import org.yug.backend.service.community.HomeFeedService;
+import org.yug.backend.service.community.PostLikeService;
+import org.yug.backend.service.search.PostSearchService;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/posts") // Cross-community post APIs
+public class PostController {
+
+    @Autowired
+    private PostSearchService postSearchService;
+
+    @Autowired
+    private HomeFeedService homeFeedService;
+
+    @Autowired
+    private PostLikeService postLikeService;
+
+    @Autowired
+    private CommunityService communityService;
+
+    // API: GET /posts/all?cursor={cursor}&limit={limit}
+    // Home feed: newest posts across the caller's communities; pass the returned nextCursor for the following page.
+    // No @QueryBudget: a community's first read costs one query, later pages of warm communities none
+    @GetMapping("/all")
+    public ResponseEntity<CursorPage<CommunityPostDto>> getHomeFeed(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(homeFeedService.getHomeFeed(user, cursor, limit));
+    }
+
+    // API: GET /posts/hot?cursor={cursor}&limit={limit}
+    // Hottest posts across all communities: likes decayed with age
+    @GetMapping("/hot")
+    @QueryBudget(2) // principal (when not cached) and the page's posts
+    public ResponseEntity<CursorPage<CommunityPostDto>> getHotPosts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(communityService.getHotPosts(null, cursor, limit));
+    }
+
+    // API: POST /posts/{postId}/like
+    @PostMapping("/{postId}/like")
+    public ResponseEntity<Map<String, Integer>> likePost(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @PathVariable UUID postId) {
+        return ResponseEntity.ok(Map.of("likesCount", postLikeService.like(user, postId)));
+    }
+
+    // API: DELETE /posts/{postId}/like
+    @DeleteMapping("/{postId}/like")
+    public ResponseEntity<Map<String, Integer>> unlikePost(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @PathVariable UUID postId) {
+        return ResponseEntity.ok(Map.of("likesCount", postLikeService.unlike(user, postId)));
+    }
+
+    // API: GET /posts/search?q={text}&communityId={optional}&limit={limit}
+    // Full-text search over titles and content, best match first
+    @GetMapping("/search")
+    @QueryBudget(2) // principal (when not cached) and the matching posts
+    public ResponseEntity<List<CommunityPostDto>> searchPosts(
+            @RequestParam String q,
+            @RequestParam(required = false) UUID communityId,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(postSearchService.search(q, communityId, limit));
+    }
+}
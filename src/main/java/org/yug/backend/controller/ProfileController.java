@@ -4,8 +4,9 @@ package org.yug.backend.controller;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.yug.backend.model.auth.AuthenticatedUser;
 import org.springframework.web.bind.annotation.*;
+import org.yug.backend.config.metrics.QueryBudget;
 import org.yug.backend.dto.profile.ProfileRequest;
 import org.yug.backend.dto.profile.ProfileResponse;
 import org.yug.backend.dto.profile.SocialLinksRequest;
@@ -19,25 +20,26 @@ public class ProfileController {
     private ProfileService profileService;
 
     @GetMapping("/profile")
-    public ResponseEntity<ProfileResponse> getUserProfile(@AuthenticationPrincipal UserDetails userDetails) {
-        // userDetails.getUsername() will provide the username extracted from the JWT token
-        ProfileResponse profile = profileService.getUserProfile(userDetails.getUsername());
+    @QueryBudget(2) // principal (when not cached) and the user with its profile
+    public ResponseEntity<ProfileResponse> getUserProfile(@AuthenticationPrincipal AuthenticatedUser user) {
+        // user carries the id and username established from the JWT token
+        ProfileResponse profile = profileService.getUserProfile(user);
         return ResponseEntity.ok(profile);
     }
 
     @PutMapping("/profile")
     public ResponseEntity<ProfileResponse> updatePersonalInfo(
-            @AuthenticationPrincipal UserDetails userDetails,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @RequestBody ProfileRequest request) {
-        ProfileResponse updatedProfile = profileService.updatePersonalInfo(userDetails.getUsername(), request);
+        ProfileResponse updatedProfile = profileService.updatePersonalInfo(user, request);
         return ResponseEntity.ok(updatedProfile);
     }
 
     @PutMapping("/social-links")
     public ResponseEntity<ProfileResponse> updateSocialLinks(
-            @AuthenticationPrincipal UserDetails userDetails,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @RequestBody SocialLinksRequest request) {
-        ProfileResponse updatedProfile = profileService.updateSocialLinks(userDetails.getUsername(), request);
+        ProfileResponse updatedProfile = profileService.updateSocialLinks(user, request);
         return ResponseEntity.ok(updatedProfile);
     }
 }
\ No newline at end of file
@@ -1,12 +1,16 @@
 package org.yug.backend.controller.auth;
 
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.yug.backend.model.auth.AuthenticatedUser;
 import org.springframework.web.bind.annotation.*;
 import org.yug.backend.dto.auth.AuthResponse;
 import org.yug.backend.dto.auth.LoginRequest;
+import org.yug.backend.dto.auth.LogoutRequest;
+import org.yug.backend.dto.auth.RefreshTokenRequest;
 import org.yug.backend.dto.auth.RegisterRequest;
 import org.yug.backend.service.AuthService;
 import org.yug.backend.service.profile.ProfileService;
@@ -32,10 +36,29 @@ public class AuthController {
         return ResponseEntity.ok(response); // Return JSON response with token
     }
 
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        AuthResponse response = authService.refresh(request);
+        return ResponseEntity.ok(response); // New access token plus the rotated refresh token
+    }
+
+    // Revokes the access token used for this call (and the given refresh session, if any)
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(HttpServletRequest httpRequest, @RequestBody(required = false) LogoutRequest request) {
+        authService.logout(httpRequest, request);
+        return ResponseEntity.noContent().build();
+    }
+
+    // Revokes every access and refresh token of the current user
+    @PostMapping("/logout-all")
+    public ResponseEntity<Void> logoutAll(@AuthenticationPrincipal AuthenticatedUser user) {
+        authService.logoutEverywhere(user.getId());
+        return ResponseEntity.noContent().build();
+    }
+
     // user profile get
      @GetMapping("/profile")
-    public ResponseEntity<?> getUserProfile(@AuthenticationPrincipal UserDetails userDetails) {
-         String username = userDetails.getUsername(); // Extract username from UserDetails
-         return ResponseEntity.ok(profileService.getUserProfile(username)); // Return user profile
+    public ResponseEntity<?> getUserProfile(@AuthenticationPrincipal AuthenticatedUser user) {
+         return ResponseEntity.ok(profileService.getUserProfile(user)); // Return user profile
      }
 }
\ No newline at end of file
@@ -0,0 +1,23 @@
+package org.yug.backend.dto.announcement;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor // used by constructor-expression queries; keep field order in sync with them
+public class AnnouncementDto {
+    private UUID id;
+    private UUID communityId;     // null for campus-wide announcements
+    private String communityName;
+    private String title;
+    private String content;
+    private String type;
+    private Instant date;
+    private boolean read;
+    private boolean bookmarked;
+}
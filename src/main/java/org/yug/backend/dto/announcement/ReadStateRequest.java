@@ -0,0 +1,10 @@
+package org.yug.backend.dto.announcement;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class ReadStateRequest {
+    @NotNull(message = "Read state is required")
+    private Boolean read;
+}
@@ -8,8 +8,16 @@ import lombok.Data;
 @Data
 public class AuthResponse {
     private String token;
+    private String refreshToken;
+    private long expiresIn; // access token lifetime in seconds
 
     public AuthResponse(String token) {
         this.token = token;
     }
+
+    public AuthResponse(String token, String refreshToken, long expiresIn) {
+        this.token = token;
+        this.refreshToken = refreshToken;
+        this.expiresIn = expiresIn;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package org.yug.backend.dto.auth;
+
+
+import lombok.Data;
+
+@Data
+public class LogoutRequest {
+
+    private String refreshToken; // Optional: also ends the refresh session on this device
+}
@@ -1,6 +1,7 @@
 // src/main/java/org/yug/backend/dto/community/CommunityAnnouncementDto.java
 package org.yug.backend.dto.community;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 
@@ -8,6 +9,7 @@ import java.util.UUID;
 
 @Data
 @Builder
+@AllArgsConstructor // used by constructor-expression queries; keep field order in sync with them
 public class CommunityAnnouncementDto {
     private UUID id;
     private String title;
@@ -1,16 +1,20 @@
 // src/main/java/org/yug/backend/dto/community/CommunityMemberDto.java
 package org.yug.backend.dto.community;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 
+import java.time.Instant;
 import java.util.UUID;
 
 @Data
 @Builder
+@AllArgsConstructor // used by constructor-expression queries; keep field order in sync with them
 public class CommunityMemberDto {
     private UUID userId;
     private String name;
     private String email;
     private String role; // e.g., Student, Teacher, Alumni, Admin
+    private Instant joinedAt;
 }
\ No newline at end of file
@@ -1,18 +1,23 @@
 // src/main/java/org/yug/backend/dto/community/CommunityPostDto.java
 package org.yug.backend.dto.community;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 
+import java.time.Instant;
 import java.util.UUID;
 
 @Data
 @Builder
+@AllArgsConstructor // used by constructor-expression queries; keep field order in sync with them
 public class CommunityPostDto {
     private UUID id;
+    private UUID communityId;
     private String title;
     private String content;
     private String imageUrl;
     private Integer likesCount;
     private String authorName; // Display author's name
+    private Instant createdAt;
 }
\ No newline at end of file
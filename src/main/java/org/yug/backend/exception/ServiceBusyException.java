@@ -0,0 +1,11 @@
+package org.yug.backend.exception;
+
+/**
+ * Thrown when a bounded worker pool is saturated; mapped to 503 so clients back off instead of queueing up.
+ */
+public class ServiceBusyException extends RuntimeException {
+
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+}
@@ -3,7 +3,10 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.CreationTimestamp;
 
+import java.time.Instant;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.UUID;
@@ -12,7 +15,7 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "announcements")
+@Table(name = "announcements", indexes = @Index(name = "idx_announcements_community_created", columnList = "community_id, created_at"))
 public class Announcement {
 
     @Id
@@ -33,6 +36,11 @@ public class Announcement {
     @JoinColumn(name = "community_id") // Nullable for general announcements
     private Community community;
 
+    @CreationTimestamp
+    @ColumnDefault("CURRENT_TIMESTAMP") // announcements are also inserted outside this application
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
     // --- Relationships ---
     @OneToMany(mappedBy = "announcement", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<UserAnnouncement> userAnnouncements = new HashSet<>();
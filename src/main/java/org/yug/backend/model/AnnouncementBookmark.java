@@ -0,0 +1,37 @@
+package org.yug.backend.model;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+class AnnouncementBookmarkId implements Serializable {
+    private UUID userId;
+    private UUID announcementId;
+}
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "announcement_bookmarks")
+@IdClass(AnnouncementBookmarkId.class)
+public class AnnouncementBookmark {
+
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Id
+    @Column(name = "announcement_id", nullable = false)
+    private UUID announcementId;
+
+    @Column(name = "bookmarked_at", nullable = false)
+    private Instant bookmarkedAt;
+}
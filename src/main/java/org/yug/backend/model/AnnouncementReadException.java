@@ -0,0 +1,38 @@
+package org.yug.backend.model;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+class AnnouncementReadExceptionId implements Serializable {
+    private UUID userId;
+    private UUID announcementId;
+}
+
+// An announcement whose read state is the opposite of what the user's watermark says: read although newer than
+// the watermark, or marked unread although older. Kept sparse by advancing the watermark over read runs.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "announcement_read_exceptions")
+@IdClass(AnnouncementReadExceptionId.class)
+public class AnnouncementReadException {
+
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Id
+    @Column(name = "announcement_id", nullable = false)
+    private UUID announcementId;
+
+    @Column(name = "stream_id", nullable = false)
+    private UUID streamId;
+}
@@ -0,0 +1,39 @@
+package org.yug.backend.model;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+class AnnouncementReadMarkId implements Serializable {
+    private UUID userId;
+    private UUID streamId;
+}
+
+// "Everything in this stream created up to readUpTo is read", one row per user per stream. A stream is a
+// community, or the campus-wide announcements (see AnnouncementSequence.GENERAL_STREAM).
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "announcement_read_marks")
+@IdClass(AnnouncementReadMarkId.class)
+public class AnnouncementReadMark {
+
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Id
+    @Column(name = "stream_id", nullable = false)
+    private UUID streamId;
+
+    @Column(name = "read_up_to", nullable = false)
+    private Instant readUpTo;
+}
@@ -29,6 +29,7 @@ public class Community {
     @Column(name = "image_url")
     private String imageUrl;
 
+    // Maintained by CommunityRepository.increment/decrementMemberCount, never by counting userCommunities
     @Column(name = "member_count")
     private Integer memberCount = 0;
 
@@ -52,13 +53,11 @@ public class Community {
     public void addUserCommunity(UserCommunity userCommunity) {
         this.userCommunities.add(userCommunity);
         userCommunity.setCommunity(this);
-        this.memberCount = this.userCommunities.size();
     }
 
     public void removeUserCommunity(UserCommunity userCommunity) {
         this.userCommunities.remove(userCommunity);
         userCommunity.setCommunity(null);
-        this.memberCount = this.userCommunities.size();
     }
 
     public void addPost(Post post) {
@@ -3,15 +3,18 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.CreationTimestamp;
 import org.yug.backend.model.auth.User;
 
+import java.time.Instant;
 import java.util.UUID;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "posts")
+@Table(name = "posts", indexes = @Index(name = "idx_posts_community_created", columnList = "community_id, created_at, id")) // keyset feed order
 public class Post {
 
     @Id
@@ -39,6 +42,12 @@ public class Post {
     @Column(name = "likes_count")
     private Integer likesCount = 0;
 
+    // The default fills the column for posts that predate it when the column is added
+    @CreationTimestamp
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
     public Post(Community community, User author, String title, String content, String imageUrl) {
         this.community = community;
         this.author = author;
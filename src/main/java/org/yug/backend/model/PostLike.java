@@ -0,0 +1,39 @@
+package org.yug.backend.model;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+class PostLikeId implements Serializable {
+    private UUID postId;
+    private UUID userId;
+}
+
+// One row per (post, user): the primary key is what stops a user liking a post twice.
+// Plain id columns rather than associations, so a like is written without loading or referencing either side.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "post_likes")
+@IdClass(PostLikeId.class)
+public class PostLike {
+
+    @Id
+    @Column(name = "post_id", nullable = false)
+    private UUID postId;
+
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "liked_at", nullable = false)
+    private Instant likedAt;
+}
@@ -18,6 +18,8 @@ class UserAnnouncementId implements Serializable {
     private UUID announcement;
 }
 
+// Legacy per-user, per-announcement row; no longer written. Read state is a watermark plus exceptions
+// (AnnouncementReadMark, AnnouncementReadException) and bookmarks are AnnouncementBookmark rows.
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -3,9 +3,12 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.CreationTimestamp;
 import org.yug.backend.model.auth.User;
 
 import java.io.Serializable;
+import java.time.Instant;
 import java.util.Objects;
 import java.util.UUID;
 
@@ -22,7 +25,11 @@ class UserCommunityId implements Serializable {
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "user_communities")
+@Table(name = "user_communities", indexes = {
+        // the PK leads with user_id; this one serves per-community lookups, counts and the newest-members page.
+        // A new name, as schema updates skip an index whose name already exists (the old one lacked joined_at)
+        @Index(name = "idx_user_communities_community_joined", columnList = "community_id, joined_at, user_id")
+})
 @IdClass(UserCommunityId.class)
 public class UserCommunity {
 
@@ -36,5 +43,14 @@ public class UserCommunity {
     @JoinColumn(name = "community_id", nullable = false)
     private Community community;
 
+    // The default fills the column for memberships that predate it when the column is added
+    @CreationTimestamp
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    @Column(name = "joined_at", nullable = false, updatable = false)
+    private Instant joinedAt;
 
+    public UserCommunity(User user, Community community) {
+        this.user = user;
+        this.community = community;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,56 @@
+package org.yug.backend.model.auth;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.UUID;
+
+/**
+ * Identity of the caller as established by JwtFilter. Controllers hand it straight to the services,
+ * which use the id instead of resolving the user again by username.
+ */
+public final class AuthenticatedUser implements UserDetails {
+
+    private static final long serialVersionUID = 1L;
+
+    private final UUID id;
+    private final String username;
+    private final User.UserRole role;
+
+    public AuthenticatedUser(UUID id, String username, User.UserRole role) {
+        this.id = id;
+        this.username = username;
+        this.role = role;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public User.UserRole getRole() {
+        return role;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return Collections.singletonList(new SimpleGrantedAuthority(role.name()));
+    }
+
+    @Override
+    public String getPassword() {
+        return null; // never carried past authentication
+    }
+
+    @Override
+    public String toString() {
+        return "AuthenticatedUser[" + username + "]";
+    }
+}
@@ -0,0 +1,30 @@
+package org.yug.backend.model.auth;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * "Log out everywhere" marker: every access token of the user issued before {@code issuedBefore} is rejected.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "token_watermarks", indexes = @Index(name = "idx_token_watermarks_updated_at", columnList = "updated_at"))
+public class TokenWatermark {
+
+    @Id
+    @Column(name = "user_id")
+    private UUID userId;
+
+    @Column(name = "issued_before", nullable = false)
+    private Instant issuedBefore;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
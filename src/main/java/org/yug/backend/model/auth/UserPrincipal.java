@@ -63,4 +63,12 @@ public Collection<? extends GrantedAuthority> getAuthorities() {
     public UUID getId() {
         return user.getId();
     }
+
+    public User getUser() {
+        return user;
+    }
+
+    public User.UserRole getRole() {
+        return user.getRole();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package org.yug.backend.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.yug.backend.model.AnnouncementBookmark;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface AnnouncementBookmarkRepository extends JpaRepository<AnnouncementBookmark, UUID> {
+    @Query("select b.announcementId from AnnouncementBookmark b where b.userId = :userId")
+    List<UUID> findAnnouncementIdsByUserId(@Param("userId") UUID userId);
+
+    List<AnnouncementBookmark> findByUserIdIn(Collection<UUID> userIds);
+}
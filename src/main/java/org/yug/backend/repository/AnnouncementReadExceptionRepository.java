@@ -0,0 +1,23 @@
+package org.yug.backend.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.yug.backend.model.AnnouncementReadException;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface AnnouncementReadExceptionRepository extends JpaRepository<AnnouncementReadException, UUID> {
+    List<AnnouncementReadException> findByUserId(UUID userId);
+
+    List<AnnouncementReadException> findByUserIdIn(Collection<UUID> userIds);
+
+    @Modifying
+    @Query("delete from AnnouncementReadException e where e.userId = :userId and e.streamId = :streamId")
+    int deleteStream(@Param("userId") UUID userId, @Param("streamId") UUID streamId);
+}
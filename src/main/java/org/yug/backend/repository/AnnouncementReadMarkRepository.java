@@ -0,0 +1,16 @@
+package org.yug.backend.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.yug.backend.model.AnnouncementReadMark;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface AnnouncementReadMarkRepository extends JpaRepository<AnnouncementReadMark, UUID> {
+    List<AnnouncementReadMark> findByUserId(UUID userId);
+
+    List<AnnouncementReadMark> findByUserIdIn(Collection<UUID> userIds);
+}
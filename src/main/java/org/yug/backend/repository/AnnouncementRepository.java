@@ -1,14 +1,45 @@
 // src/main/java/org/yug/backend/repository/AnnouncementRepository.java
 package org.yug.backend.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.yug.backend.dto.announcement.AnnouncementDto;
+import org.yug.backend.dto.community.CommunityAnnouncementDto;
 import org.yug.backend.model.Announcement;
+import org.yug.backend.repository.projection.AnnouncementKey;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface AnnouncementRepository extends JpaRepository<Announcement, UUID> {
     List<Announcement> findByCommunityId(UUID communityId);
+
+    @Query("select new org.yug.backend.dto.community.CommunityAnnouncementDto(a.id, a.title, a.content, a.type) " +
+            "from Announcement a where a.community.id = :communityId")
+    List<CommunityAnnouncementDto> findDtosByCommunityId(@Param("communityId") UUID communityId);
+
+    @Query("select a.id as id, a.community.id as communityId, a.createdAt as createdAt from Announcement a")
+    List<AnnouncementKey> findAllKeys();
+
+    @Query("select a.id as id, a.community.id as communityId, a.createdAt as createdAt from Announcement a where a.id = :id")
+    Optional<AnnouncementKey> findKeyById(@Param("id") UUID id);
+
+    // Rows inserted outside the application before created_at had a default
+    @Modifying
+    @Query("update Announcement a set a.createdAt = :createdAt where a.createdAt is null")
+    int backfillCreatedAt(@Param("createdAt") Instant createdAt);
+
+    // Campus-wide announcements plus those of the user's communities, newest first; read and bookmarked are filled in afterwards
+    @Query("select new org.yug.backend.dto.announcement.AnnouncementDto(a.id, c.id, c.name, a.title, a.content, a.type, a.createdAt, false, false) " +
+            "from Announcement a left join a.community c " +
+            "where c is null or exists (select 1 from UserCommunity uc where uc.user.id = :userId and uc.community = c) " +
+            "order by a.createdAt desc, a.id desc")
+    List<AnnouncementDto> findVisibleTo(@Param("userId") UUID userId, Limit limit);
 }
\ No newline at end of file
@@ -2,9 +2,14 @@
 package org.yug.backend.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.yug.backend.model.Community;
+import org.yug.backend.repository.projection.CommunitySummary;
 
+import java.util.Collection;
 import java.util.List; // Import List
 import java.util.Optional;
 import java.util.UUID;
@@ -13,4 +18,27 @@ import java.util.UUID;
 public interface CommunityRepository extends JpaRepository<Community, UUID> {
     Optional<Community> findByName(String name);
     List<Community> findByNameContainingIgnoreCase(String name); // New method for search
-}
\ No newline at end of file
+
+    List<CommunitySummary> findAllProjectedBy();
+
+    Optional<CommunitySummary> findSummaryById(UUID id);
+
+    List<CommunitySummary> findSummariesByNameContainingIgnoreCase(String name);
+
+    List<CommunitySummary> findSummariesByIdIn(Collection<UUID> ids);
+
+    // member_count is maintained in SQL so concurrent joins/leaves never lose an update
+    @Modifying
+    @Query("update Community c set c.memberCount = coalesce(c.memberCount, 0) + 1 where c.id = :id")
+    int incrementMemberCount(@Param("id") UUID id);
+
+    @Modifying
+    @Query("update Community c set c.memberCount = coalesce(c.memberCount, 0) - 1 where c.id = :id and c.memberCount > 0")
+    int decrementMemberCount(@Param("id") UUID id);
+
+    // Repair for drift (rows changed outside the app, failed deploys); only touches communities that are off
+    @Modifying
+    @Query("update Community c set c.memberCount = (select count(uc) from UserCommunity uc where uc.community = c) " +
+            "where c.memberCount is null or c.memberCount <> (select count(uc) from UserCommunity uc where uc.community = c)")
+    int reconcileMemberCounts();
+}
@@ -0,0 +1,25 @@
+package org.yug.backend.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.yug.backend.model.PostLike;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Repository
+public interface PostLikeRepository extends JpaRepository<PostLike, UUID> {
+
+    // One statement that also checks the post exists; 0 rows means a missing post or an existing like
+    @Modifying
+    @Query("insert into PostLike (postId, userId, likedAt) select p.id, :userId, :likedAt from Post p " +
+            "where p.id = :postId and not exists (select 1 from PostLike l where l.postId = :postId and l.userId = :userId)")
+    int insertLike(@Param("postId") UUID postId, @Param("userId") UUID userId, @Param("likedAt") Instant likedAt);
+
+    @Modifying
+    @Query("delete from PostLike l where l.postId = :postId and l.userId = :userId")
+    int deleteLike(@Param("postId") UUID postId, @Param("userId") UUID userId);
+}
@@ -1,15 +1,82 @@
 // src/main/java/org/yug/backend/repository/PostRepository.java
 package org.yug.backend.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.yug.backend.dto.community.CommunityPostDto;
 import org.yug.backend.model.Post;
+import org.yug.backend.repository.projection.PostLikeCount;
+import org.yug.backend.repository.projection.PostRankRow;
+import org.yug.backend.repository.projection.PostText;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface PostRepository extends JpaRepository<Post, UUID> {
-    List<Post> findByCommunityId(UUID communityId);
     List<Post> findByAuthorId(UUID authorId); // For fetching user's posts on profile page
-}
\ No newline at end of file
+
+    @Query("select p.likesCount from Post p where p.id = :id")
+    Optional<Integer> findLikesCountById(@Param("id") UUID id);
+
+    @Query("select p.id as id, p.likesCount as likesCount from Post p where p.id in :ids")
+    List<PostLikeCount> findLikeCountsByIds(@Param("ids") Collection<UUID> ids);
+
+    // Applies flushed like deltas: every post in ids gained the same delta, so one statement covers them all
+    @Modifying
+    @Query("update Post p set p.likesCount = coalesce(p.likesCount, 0) + :delta where p.id in :ids")
+    int addLikes(@Param("delta") int delta, @Param("ids") Collection<UUID> ids);
+
+    @Query("select p.id as id, p.community.id as communityId, p.likesCount as likesCount, p.createdAt as createdAt from Post p")
+    List<PostRankRow> findAllRankRows();
+
+    // Posts from before created_at had a default: null, or MySQL's zero date, which sorts before the floor
+    @Modifying
+    @Query("update Post p set p.createdAt = :createdAt where p.createdAt is null or p.createdAt < :floor")
+    int backfillCreatedAt(@Param("createdAt") Instant createdAt, @Param("floor") Instant floor);
+
+    @Query("select p.id from Post p")
+    List<UUID> findAllIds();
+
+    @Query("select p.id as id, p.community.id as communityId, p.title as title, p.content as content from Post p where p.id in :ids")
+    List<PostText> findTextsByIds(@Param("ids") Collection<UUID> ids);
+
+    // Newest-first feed, selected straight into the DTO. Both queries walk idx_posts_community_created, so a deep
+    // page costs the same as the first.
+    String FEED_SELECT = "select new org.yug.backend.dto.community.CommunityPostDto(" +
+            "p.id, p.community.id, p.title, p.content, p.imageUrl, p.likesCount, a.username, p.createdAt) " +
+            "from Post p join p.author a ";
+
+    @Query(FEED_SELECT + "where p.community.id = :communityId order by p.createdAt desc, p.id desc")
+    List<CommunityPostDto> findFeed(@Param("communityId") UUID communityId, Limit limit);
+
+    @Query(FEED_SELECT + "where p.community.id = :communityId " +
+            "and (p.createdAt < :createdAt or (p.createdAt = :createdAt and p.id < :id)) " +
+            "order by p.createdAt desc, p.id desc")
+    List<CommunityPostDto> findFeedAfter(@Param("communityId") UUID communityId,
+                                         @Param("createdAt") Instant createdAt,
+                                         @Param("id") UUID id,
+                                         Limit limit);
+
+    // The newest posts across several communities, for home feed pages: one query however many communities
+    @Query(FEED_SELECT + "where p.community.id in :communityIds order by p.createdAt desc, p.id desc")
+    List<CommunityPostDto> findFeedIn(@Param("communityIds") Collection<UUID> communityIds, Limit limit);
+
+    @Query(FEED_SELECT + "where p.community.id in :communityIds " +
+            "and (p.createdAt < :createdAt or (p.createdAt = :createdAt and p.id < :id)) " +
+            "order by p.createdAt desc, p.id desc")
+    List<CommunityPostDto> findFeedAfterIn(@Param("communityIds") Collection<UUID> communityIds,
+                                           @Param("createdAt") Instant createdAt,
+                                           @Param("id") UUID id,
+                                           Limit limit);
+
+    @Query(FEED_SELECT + "where p.id in :ids")
+    List<CommunityPostDto> findDtosByIds(@Param("ids") Collection<UUID> ids);
+}
@@ -0,0 +1,38 @@
+// src/main/java/org/yug/backend/repository/RefreshTokenRepository.java
+package org.yug.backend.repository;
+
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.yug.backend.model.auth.RefreshToken;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, UUID> {
+
+    @EntityGraph(attributePaths = "user")
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    // Compare-and-set so two concurrent refreshes with the same token cannot both succeed
+    @Modifying
+    @Query("update RefreshToken r set r.usedAt = :now where r.id = :id and r.usedAt is null and r.revoked = false")
+    int markUsed(@Param("id") UUID id, @Param("now") Instant now);
+
+    @Modifying
+    @Query("update RefreshToken r set r.revoked = true where r.familyId = :familyId")
+    int revokeFamily(@Param("familyId") UUID familyId);
+
+    @Modifying
+    @Query("update RefreshToken r set r.revoked = true where r.user.id = :userId and r.revoked = false")
+    int revokeAllForUser(@Param("userId") UUID userId);
+
+    @Modifying
+    @Query("delete from RefreshToken r where r.expiresAt < :cutoff or r.familyExpiresAt < :cutoff")
+    int deleteExpired(@Param("cutoff") Instant cutoff);
+}
@@ -0,0 +1,22 @@
+// src/main/java/org/yug/backend/repository/RevokedTokenRepository.java
+package org.yug.backend.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.yug.backend.model.auth.RevokedToken;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+    List<RevokedToken> findByExpiresAtAfter(Instant now);
+    List<RevokedToken> findByRevokedAtAfter(Instant since);
+
+    @Modifying
+    @Query("delete from RevokedToken r where r.expiresAt < :cutoff")
+    int deleteExpired(@Param("cutoff") Instant cutoff);
+}
@@ -0,0 +1,15 @@
+// src/main/java/org/yug/backend/repository/TokenWatermarkRepository.java
+package org.yug.backend.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.yug.backend.model.auth.TokenWatermark;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface TokenWatermarkRepository extends JpaRepository<TokenWatermark, UUID> {
+    List<TokenWatermark> findByUpdatedAtAfter(Instant since);
+}
@@ -1,12 +1,19 @@
 // src/main/java/org/yug/backend/repository/UserCommunityRepository.java
 package org.yug.backend.repository;
 
-import org.apache.catalina.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.yug.backend.dto.community.CommunityMemberDto;
 import org.yug.backend.model.UserCommunity;
+import org.yug.backend.model.auth.User;
+import org.yug.backend.repository.projection.MembershipKey;
  // Import the composite key
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -15,7 +22,61 @@ import java.util.UUID;
 public interface UserCommunityRepository extends JpaRepository<UserCommunity, User> {
     List<UserCommunity> findByUser_Id(UUID userId);
     List<UserCommunity> findByCommunity_Id(UUID communityId);
-    Optional<UserCommunity> findByUser_IdAndCommunity_Id(UUID userId, UUID communityId);
 
+    // Member names prefer the profile name; one join instead of a user and a profile load per member
+    String MEMBER_SELECT = "select new org.yug.backend.dto.community.CommunityMemberDto(" +
+            "u.id, coalesce(pr.name, u.username), u.email, cast(u.role as String), uc.joinedAt) " +
+            "from UserCommunity uc join uc.user u left join u.profile pr " +
+            "where uc.community.id = :communityId and (:role is null or u.role = :role) ";
+
+    @Query(MEMBER_SELECT + "order by coalesce(pr.name, u.username), u.id")
+    List<CommunityMemberDto> findMembersByName(@Param("communityId") UUID communityId,
+                                               @Param("role") User.UserRole role,
+                                               Limit limit);
+
+    // The display name spans two tables, so no index can serve this order; the community's rows are sorted per page
+    @Query(MEMBER_SELECT + "and (coalesce(pr.name, u.username) > :name or (coalesce(pr.name, u.username) = :name and u.id > :id)) " +
+            "order by coalesce(pr.name, u.username), u.id")
+    List<CommunityMemberDto> findMembersByNameAfter(@Param("communityId") UUID communityId,
+                                                    @Param("role") User.UserRole role,
+                                                    @Param("name") String name,
+                                                    @Param("id") UUID id,
+                                                    Limit limit);
+
+    // Newest members first, straight off idx_user_communities_community
+    @Query(MEMBER_SELECT + "order by uc.joinedAt desc, u.id desc")
+    List<CommunityMemberDto> findMembersByJoined(@Param("communityId") UUID communityId,
+                                                 @Param("role") User.UserRole role,
+                                                 Limit limit);
+
+    @Query(MEMBER_SELECT + "and (uc.joinedAt < :joinedAt or (uc.joinedAt = :joinedAt and u.id < :id)) " +
+            "order by uc.joinedAt desc, u.id desc")
+    List<CommunityMemberDto> findMembersByJoinedAfter(@Param("communityId") UUID communityId,
+                                                      @Param("role") User.UserRole role,
+                                                      @Param("joinedAt") Instant joinedAt,
+                                                      @Param("id") UUID id,
+                                                      Limit limit);
+
+    @Query("select count(uc) from UserCommunity uc where uc.community.id = :communityId and uc.user.role = :role")
+    long countMembersWithRole(@Param("communityId") UUID communityId, @Param("role") User.UserRole role);
+
+    @Query("select uc.user.id as userId, uc.community.id as communityId from UserCommunity uc")
+    List<MembershipKey> findAllKeys();
+
+    Optional<UserCommunity> findByUser_IdAndCommunity_Id(UUID userId, UUID communityId);
     boolean existsByUser_IdAndCommunity_Id(UUID userId, UUID communityId);
-}
\ No newline at end of file
+
+    // A plain insert, no select first: the primary key rejects a membership that already exists
+    @Modifying
+    @Query("insert into UserCommunity (user.id, community.id, joinedAt) values (:userId, :communityId, :joinedAt)")
+    int insertMembership(@Param("userId") UUID userId, @Param("communityId") UUID communityId, @Param("joinedAt") Instant joinedAt);
+
+    // Returns the number of rows removed, so only one of two concurrent leaves decrements the counter
+    @Modifying
+    @Query("delete from UserCommunity uc where uc.user.id = :userId and uc.community.id = :communityId")
+    int deleteMembership(@Param("userId") UUID userId, @Param("communityId") UUID communityId);
+
+    @Modifying
+    @Query("update UserCommunity uc set uc.joinedAt = :joinedAt where uc.joinedAt is null")
+    int backfillJoinedAt(@Param("joinedAt") Instant joinedAt);
+}
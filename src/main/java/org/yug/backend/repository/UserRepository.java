@@ -2,13 +2,27 @@ package org.yug.backend.repository;
 
 import org.springframework.stereotype.Repository;
 import org.yug.backend.model.auth.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.util.Optional;
 import java.util.UUID;
 @Repository
 public interface UserRepository extends JpaRepository<User, UUID> {
+    // User.profile is the inverse side of a one-to-one and is always loaded; join it rather than select it separately
+    @EntityGraph(attributePaths = "profile")
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
 
+    @EntityGraph(attributePaths = "profile")
     User findByUsername(String username);
+
+    @EntityGraph(attributePaths = "profile")
+    Optional<User> findWithProfileById(UUID id);
+
+    @Modifying
+    @Query("update User u set u.password = :password where u.id = :id")
+    int updatePassword(@Param("id") UUID id, @Param("password") String password);
 }
\ No newline at end of file
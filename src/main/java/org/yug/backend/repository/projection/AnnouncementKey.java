@@ -0,0 +1,13 @@
+package org.yug.backend.repository.projection;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Where an announcement sits in its stream, for loading the in-memory announcement sequence.
+ */
+public interface AnnouncementKey {
+    UUID getId();
+    UUID getCommunityId();
+    Instant getCreatedAt();
+}
@@ -0,0 +1,15 @@
+package org.yug.backend.repository.projection;
+
+import java.util.UUID;
+
+/**
+ * Read-only view of a community for list endpoints: only the columns a {@code CommunityDto} needs, with no
+ * association to initialize.
+ */
+public interface CommunitySummary {
+    UUID getId();
+    String getName();
+    String getDescription();
+    String getImageUrl();
+    Integer getMemberCount();
+}
@@ -0,0 +1,11 @@
+package org.yug.backend.repository.projection;
+
+import java.util.UUID;
+
+/**
+ * One membership row reduced to its two keys, for loading the in-memory membership index.
+ */
+public interface MembershipKey {
+    UUID getUserId();
+    UUID getCommunityId();
+}
@@ -0,0 +1,11 @@
+package org.yug.backend.repository.projection;
+
+import java.util.UUID;
+
+/**
+ * A post's persisted like count, for refreshing counts on posts served from memory.
+ */
+public interface PostLikeCount {
+    UUID getId();
+    Integer getLikesCount();
+}
@@ -0,0 +1,14 @@
+package org.yug.backend.repository.projection;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * The columns the hot-post ranking is rebuilt from.
+ */
+public interface PostRankRow {
+    UUID getId();
+    UUID getCommunityId();
+    Integer getLikesCount();
+    Instant getCreatedAt();
+}
@@ -0,0 +1,13 @@
+package org.yug.backend.repository.projection;
+
+import java.util.UUID;
+
+/**
+ * The columns the post search index needs.
+ */
+public interface PostText {
+    UUID getId();
+    UUID getCommunityId();
+    String getTitle();
+    String getContent();
+}
@@ -1,5 +1,6 @@
 package org.yug.backend.service;
 
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,13 +10,23 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.yug.backend.dto.auth.AuthResponse;
+import org.yug.backend.config.JwtFilter;
 import org.yug.backend.dto.auth.LoginRequest;
+import org.yug.backend.dto.auth.LogoutRequest;
+import org.yug.backend.dto.auth.RefreshTokenRequest;
 import org.yug.backend.dto.auth.RegisterRequest;
 import org.yug.backend.model.auth.User;
+import org.yug.backend.model.auth.UserPrincipal;
 import org.yug.backend.model.Profile; // Import Profile
 
 import org.yug.backend.repository.UserRepository;
 
+import java.util.UUID;
+import org.yug.backend.service.auth.PasswordHashingExecutor;
+import org.yug.backend.service.auth.RefreshTokenService;
+import org.yug.backend.service.auth.TokenRevocationService;
+import org.yug.backend.service.auth.VerifiedToken;
+
 // import java.util.UUID; // Not needed if JPA generates UUID
 
 @Service
@@ -35,6 +46,15 @@ public class AuthService {
     @Autowired
     private JwtService jwtService;
 
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private PasswordHashingExecutor hashingExecutor;
+
+    @Autowired
+    private TokenRevocationService revocationService;
+
     public AuthResponse register(RegisterRequest request) {
         logger.info("Registering user with email: {}", request.getEmail());
 
@@ -44,7 +64,7 @@ public class AuthService {
 
         User user = new User();
         user.setEmail(request.getEmail());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(hashingExecutor.run(() -> passwordEncoder.encode(request.getPassword())));
         user.setUsername(request.getUsername());
         user.setRole(User.UserRole.STUDENT); //default role, can be changed later
 
@@ -56,26 +76,53 @@ public class AuthService {
 
         userRepository.save(user); // Now save the user, which will cascade to save the profile
 
-        String token = jwtService.generateToken(user.getUsername());
-        return new AuthResponse(token);
+        return issueTokens(user, refreshTokenService.issue(user));
     }
 
     public AuthResponse login(LoginRequest request) {
         logger.info("Logging in user with email: {}", request.getEmail());
 
-        Authentication authentication = authenticationManager.authenticate(
+        // BCrypt runs on the bounded hashing pool, not on the servlet thread's budget
+        Authentication authentication = hashingExecutor.run(() -> authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
-        );
+        ));
 logger.info("Authentication successful for user: {}", request.getEmail());
         if (authentication.isAuthenticated()) {
             logger.info("User logged in: {}", request.getEmail());
-            User user = userRepository.findByEmail(request.getEmail())
-                    .orElseThrow(() -> new RuntimeException("User not found!"));
-            logger.info("User logged in: {}", request.getEmail());
-            String token = jwtService.generateToken(user.getUsername());
-            return new AuthResponse(token);
+            // The provider already loaded the user; no second lookup by email
+            User user = ((UserPrincipal) authentication.getPrincipal()).getUser();
+            return issueTokens(user, refreshTokenService.issue(user));
         }
 
         throw new RuntimeException("Login failed: Invalid credentials");
     }
+
+    /**
+     * Renews an expired access token without re-checking the password. The presented refresh token is
+     * rotated, so the response carries a new one that replaces it.
+     */
+    public AuthResponse refresh(RefreshTokenRequest request) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(request.getRefreshToken());
+        return issueTokens(rotation.getUser(), rotation.getRefreshToken());
+    }
+
+    public void logout(HttpServletRequest httpRequest, LogoutRequest request) {
+        VerifiedToken token = (VerifiedToken) httpRequest.getAttribute(JwtFilter.VERIFIED_TOKEN_ATTRIBUTE);
+        if (token != null) {
+            revocationService.revoke(token);
+        }
+        if (request != null && request.getRefreshToken() != null) {
+            refreshTokenService.revokeSession(request.getRefreshToken());
+        }
+    }
+
+    public void logoutEverywhere(UUID userId) {
+        logger.info("Revoking all tokens of user {}", userId);
+        revocationService.revokeAll(userId);
+    }
+
+    private AuthResponse issueTokens(User user, String refreshToken) {
+        String token = jwtService.generateToken(user);
+        return new AuthResponse(token, refreshToken, jwtService.getAccessTokenTtl().toSeconds());
+    }
 }
\ No newline at end of file
@@ -1,101 +1,134 @@
 package org.yug.backend.service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.security.SignatureException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
-import org.yug.backend.config.JwtFilter;
+import org.yug.backend.model.auth.User;
+import org.yug.backend.service.auth.SigningKeyRing;
+import org.yug.backend.service.auth.VerifiedToken;
+import org.yug.backend.service.auth.VerifiedTokenCache;
 
-import javax.crypto.KeyGenerator;
-import javax.crypto.SecretKey;
 import java.security.Key;
-import java.security.NoSuchAlgorithmException;
-import java.util.Base64;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.Optional;
+import java.util.UUID;
 
 @Service
 public class JwtService {
     private static final Logger logger = LoggerFactory.getLogger(JwtService.class);
-    private static final String SECRET = "TmV3U2VjcmV0S2V5Rm9ySldUU2lnbmluZ1B1cnBvc2VzMTIzNDU2Nzg=\r\n";
-
-    private String secretKey;
-
-    public JwtService(){
-        secretKey = generateSecretKey();
-    }
-
-    public String generateSecretKey() {
-        try {
-            KeyGenerator keyGen = KeyGenerator.getInstance("HmacSHA256");
-            SecretKey secretKey = keyGen.generateKey();
-            System.out.println("Secret Key : " + secretKey.toString());
-            return Base64.getEncoder().encodeToString(secretKey.getEncoded());
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("Error generating secret key", e);
-        }
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String ROLE_CLAIM = "role";
+
+    private final SigningKeyRing keyRing;
+    private final VerifiedTokenCache tokenCache;
+    private final JwtParser parser;
+    private final Duration accessTokenTtl;
+
+    public JwtService(SigningKeyRing keyRing, VerifiedTokenCache tokenCache,
+                      @Value("${app.security.jwt.access-token-ttl:15m}") Duration accessTokenTtl){
+        this.keyRing = keyRing;
+        this.tokenCache = tokenCache;
+        this.accessTokenTtl = accessTokenTtl;
+        // The parser picks the pre-built Key for the token's kid header; nothing is decoded per call.
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        Key key = keyRing.verificationKey(header.getKeyId());
+                        if (key == null) {
+                            throw new SignatureException("Unknown or retired signing key: " + header.getKeyId());
+                        }
+                        return key;
+                    }
+                })
+                .build();
     }
 
-    public String generateToken(String username) {
-
+    /**
+     * Issues a token that carries the user id and role, so requests can be served without resolving
+     * the user by username again.
+     */
+    public String generateToken(User user) {
         Map<String, Object> claims = new HashMap<>();
+        claims.put(USER_ID_CLAIM, user.getId().toString());
+        claims.put(ROLE_CLAIM, user.getRole().name());
+        return buildToken(claims, user.getUsername());
+    }
 
+    private String buildToken(Map<String, Object> claims, String username) {
+        SigningKeyRing.SigningKey signingKey = keyRing.activeKey();
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, signingKey.getKid())
                 .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(username)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + 1000*60*30))
-                .signWith(getKey(), SignatureAlgorithm.HS256).compact();
+                .setExpiration(new Date(System.currentTimeMillis() + accessTokenTtl.toMillis()))
+                .signWith(signingKey.getKey(), SignatureAlgorithm.HS256).compact();
 
     }
 
-    private Key getKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    public Duration getAccessTokenTtl() {
+        return accessTokenTtl;
     }
 
-    public String extractUserName(String token) {
-        // extract the username from jwt token
-        logger.info("inside extractUserName");
-        return extractClaim(token, Claims::getSubject);
+    /**
+     * Verifies the token at most once: a repeat bearer token is answered from the cache without any crypto.
+     * Returns empty for tokens that are malformed, badly signed, expired or signed with a retired key.
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        String digest = VerifiedTokenCache.digest(token);
+        VerifiedToken cached = tokenCache.get(digest);
+        if (cached != null) {
+            boolean usable = !cached.isExpired(Instant.now()) && keyRing.verificationKey(cached.getKeyId()) != null;
+            return usable ? Optional.of(cached) : Optional.empty();
+        }
+        try {
+            VerifiedToken verified = parse(token);
+            tokenCache.put(digest, verified);
+            return Optional.of(verified);
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.debug("Rejected JWT: {}", e.getMessage());
+            return Optional.empty();
+        }
     }
 
-    private <T> T extractClaim(String token, Function<Claims, T> claimResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimResolver.apply(claims);
+    private VerifiedToken parse(String token) {
+        var jws = parser.parseClaimsJws(token);
+        Claims claims = jws.getBody();
+        String userId = claims.get(USER_ID_CLAIM, String.class);
+        return new VerifiedToken(
+                claims.getId(),
+                claims.getSubject(),
+                userId != null ? UUID.fromString(userId) : null,
+                claims.get(ROLE_CLAIM, String.class),
+                jws.getHeader().getKeyId(),
+                claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                claims.getExpiration() != null ? claims.getExpiration().toInstant() : null);
     }
 
-    private Claims extractAllClaims(String token) {
-        logger.info("inside extractAllClaims");
-        return Jwts.parserBuilder()
-                .setSigningKey(getKey())
-                .build().parseClaimsJws(token).getBody();
+    public String extractUserName(String token) {
+        // extract the username from jwt token
+        return verify(token).map(VerifiedToken::getSubject).orElse(null);
     }
 
-
     public boolean validateToken(String token, UserDetails userDetails) {
-
-        final String userName = extractUserName(token);
-        logger.info("Username: "+userName);
-        logger.info("UserDetails: "+userDetails.getUsername());
-        return (userName.equals(userDetails.getUsername()) && !isTokenExpired(token));
-    }
-
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        return verify(token)
+                .map(verified -> verified.getSubject().equals(userDetails.getUsername()))
+                .orElse(false);
     }
-
-
-
-}
\ No newline at end of file
+}
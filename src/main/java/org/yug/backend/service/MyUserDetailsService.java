@@ -4,27 +4,35 @@ import org.springframework.beans.factory.annotation.Autowired;
 
 
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.yug.backend.model.auth.User;
 import org.yug.backend.model.auth.UserPrincipal;
 import org.yug.backend.repository.UserRepository;
+import org.yug.backend.service.auth.PrincipalCache;
 
 import java.util.Optional;
 
 
 @Service
-public class MyUserDetailsService implements UserDetailsService {
+public class MyUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     @Autowired
     private UserRepository repo;
 
+    @Autowired
+    private PrincipalCache principalCache;
 
-    public UserDetails loadUserByUsername2(String username) throws UsernameNotFoundException {
+    public UserPrincipal loadUserByUsername2(String username) throws UsernameNotFoundException {
+        return principalCache.get(username, this::loadPrincipal);
+    }
 
-User user = repo.findByUsername(username);
-if(user == null) {
+    private UserPrincipal loadPrincipal(String username) {
+        User user = repo.findByUsername(username);
+        if(user == null) {
             System.out.println("User 404");
             throw new UsernameNotFoundException("User 404");
         }
@@ -44,4 +52,17 @@ if(user == null) {
         return new UserPrincipal(user.orElse(null));
     }
 
-}
\ No newline at end of file
+    /**
+     * Called by the authentication provider after a successful login when the stored hash uses a weaker
+     * cost than the configured encoder; {@code newPassword} is already encoded.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        UserPrincipal principal = (UserPrincipal) user;
+        repo.updatePassword(principal.getId(), newPassword);
+        principal.getUser().setPassword(newPassword);
+        principalCache.invalidate(principal.getUsername());
+        return principal;
+    }
+}
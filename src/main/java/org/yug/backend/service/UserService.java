@@ -1,23 +1,32 @@
 package org.yug.backend.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.yug.backend.model.auth.User;
 
 import org.yug.backend.repository.UserRepository;
+import org.yug.backend.service.auth.PasswordHashingExecutor;
+import org.yug.backend.service.auth.PrincipalCache;
 
 @Service
 public class UserService {
 
     @Autowired
     private UserRepository repo;
-    private BCryptPasswordEncoder encoder=new BCryptPasswordEncoder(12);
+    @Autowired
+    private PrincipalCache principalCache;
+    @Autowired
+    private PasswordEncoder encoder; // the shared, configurable encoder from SecurityConfig
+    @Autowired
+    private PasswordHashingExecutor hashingExecutor;
 
     public User saveUser(User user) {
-        user.setPassword(encoder.encode(user.getPassword()));
-        System.out.println(user.getPassword());
-        return repo.save(user) ;
+        String rawPassword = user.getPassword();
+        user.setPassword(hashingExecutor.run(() -> encoder.encode(rawPassword)));
+        User saved = repo.save(user);
+        principalCache.invalidate(saved.getId()); // role, credentials or the username itself may have changed
+        return saved;
 
     }
 }
\ No newline at end of file
@@ -0,0 +1,243 @@
+package org.yug.backend.service.announcement;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.yug.backend.repository.AnnouncementRepository;
+import org.yug.backend.repository.projection.AnnouncementKey;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Every announcement's position in its stream, in memory: per stream (a community, or {@link #GENERAL_STREAM} for
+ * campus-wide announcements) the creation times in ascending order. "How many announcements in this stream are newer
+ * than the user's watermark" is then a binary search, whatever the number of users or announcements.
+ * <p>
+ * Announcements are created outside this application, so the sequence is reloaded periodically rather than
+ * maintained from events. The loaded sequence is immutable and swapped in whole. A reload that finds announcements
+ * the previous one did not have publishes them as an {@link AnnouncementsAddedEvent}. A request that meets an
+ * announcement the sequence does not know yet asks for a reload with {@link #refreshSoon} rather than waiting for one.
+ * <p>
+ * Rows inserted without {@code created_at} (before the column had a default) cannot be placed; a reload that finds
+ * any sets them to the current time and reads again, and leaves out any that are still missing one.
+ */
+@Component
+public class AnnouncementSequence {
+
+    /** Stream key for announcements without a community. */
+    public static final UUID GENERAL_STREAM = new UUID(0L, 0L);
+
+    private static final Logger logger = LoggerFactory.getLogger(AnnouncementSequence.class);
+
+    @Autowired
+    private AnnouncementRepository announcementRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    private final Set<UUID> awaited = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean reloadQueued = new AtomicBoolean();
+    private volatile Snapshot snapshot;
+
+    public AnnouncementSequence(MeterRegistry meterRegistry) {
+        Gauge.builder("announcements.sequence.size", this, sequence -> sequence.snapshot == null ? 0 : sequence.snapshot.positions.size())
+                .register(meterRegistry);
+    }
+
+    /**
+     * Where {@code announcementId} sits, or null if it is not (yet) known.
+     */
+    public Position positionOf(UUID announcementId) {
+        return current().positions.get(announcementId);
+    }
+
+    /**
+     * Number of announcements in the stream created after {@code watermark} (all of them when it is null).
+     */
+    public int countAfter(UUID streamId, Instant watermark) {
+        Stream stream = current().streams.get(streamId);
+        return stream == null ? 0 : stream.times.length - stream.firstAfter(watermark);
+    }
+
+    /**
+     * The announcements in the stream created after {@code watermark}, oldest first.
+     */
+    public List<Position> after(UUID streamId, Instant watermark) {
+        Stream stream = current().streams.get(streamId);
+        if (stream == null) {
+            return List.of();
+        }
+        return Arrays.asList(stream.positions).subList(stream.firstAfter(watermark), stream.positions.length);
+    }
+
+    /**
+     * Creation time of the newest announcement in the stream, or null if it has none.
+     */
+    public Instant latest(UUID streamId) {
+        Stream stream = current().streams.get(streamId);
+        return stream == null ? null : stream.positions[stream.positions.length - 1].createdAt();
+    }
+
+    // Loaded at startup so the first count does not pay for the full read
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    @Scheduled(initialDelayString = "${app.announcements.refresh-interval-ms:30000}",
+            fixedDelayString = "${app.announcements.refresh-interval-ms:30000}")
+    public void refresh() {
+        reload();
+    }
+
+    /**
+     * Schedules a reload for an announcement that exists but is not in the sequence yet. Until that reload has run,
+     * {@link #isAwaited} tells changes to it apart from changes to a deleted announcement.
+     */
+    public void refreshSoon(UUID announcementId) {
+        awaited.add(announcementId);
+        if (reloadQueued.compareAndSet(false, true)) {
+            taskScheduler.schedule(() -> {
+                reloadQueued.set(false);
+                reload();
+            }, Instant.now());
+        }
+    }
+
+    public boolean isAwaited(UUID announcementId) {
+        return awaited.contains(announcementId);
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        return current != null ? current : reload();
+    }
+
+    private Snapshot reload() {
+        reloadLock.lock(); // JDBC under a monitor would pin a virtual thread
+        try {
+            Set<UUID> requested = Set.copyOf(awaited); // requested before the read, so loaded below if they exist
+            Map<UUID, List<Position>> byStream = new HashMap<>();
+            Map<UUID, Position> positions = new HashMap<>();
+            List<AnnouncementKey> keys = announcementRepository.findAllKeys();
+            if (keys.stream().anyMatch(key -> key.getCreatedAt() == null)) {
+                Integer filled = transactionTemplate.execute(status -> announcementRepository.backfillCreatedAt(Instant.now()));
+                logger.warn("Set created_at on {} announcements that had none", filled);
+                keys = announcementRepository.findAllKeys();
+            }
+            Set<UUID> unplaced = new HashSet<>();
+            for (AnnouncementKey key : keys) {
+                if (key.getCreatedAt() == null) {
+                    unplaced.add(key.getId()); // inserted since the backfill; placed by the next reload
+                    continue;
+                }
+                UUID streamId = key.getCommunityId() != null ? key.getCommunityId() : GENERAL_STREAM;
+                Position position = new Position(key.getId(), streamId, key.getCreatedAt());
+                byStream.computeIfAbsent(streamId, id -> new ArrayList<>()).add(position);
+                positions.put(key.getId(), position);
+            }
+            Map<UUID, Stream> streams = new HashMap<>(byStream.size() * 2);
+            byStream.forEach((streamId, list) -> streams.put(streamId, Stream.of(list)));
+            Snapshot previous = snapshot;
+            Snapshot next = new Snapshot(streams, positions);
+            snapshot = next;
+            requested.stream().filter(id -> !unplaced.contains(id)).forEach(awaited::remove);
+            logger.debug("Announcement sequence loaded: {} announcements in {} streams ({} without created_at)",
+                    positions.size(), streams.size(), unplaced.size());
+            if (previous != null) {
+                List<Position> added = new ArrayList<>();
+                positions.forEach((id, position) -> {
+                    if (!previous.positions.containsKey(id)) {
+                        added.add(position);
+                    }
+                });
+                if (!added.isEmpty()) {
+                    added.sort(Stream.ORDER);
+                    eventPublisher.publishEvent(new AnnouncementsAddedEvent(added));
+                }
+            }
+            return next;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    static long micros(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000L + instant.getNano() / 1_000;
+    }
+
+    public record Position(UUID announcementId, UUID streamId, Instant createdAt) {
+    }
+
+    private record Snapshot(Map<UUID, Stream> streams, Map<UUID, Position> positions) {
+    }
+
+    private static final class Stream {
+        private static final Comparator<Position> ORDER =
+                Comparator.comparing(Position::createdAt).thenComparing(Position::announcementId);
+
+        final Position[] positions; // ascending creation time
+        final long[] times;         // the same, as epoch microseconds, for the binary search
+
+        private Stream(Position[] positions) {
+            this.positions = positions;
+            this.times = new long[positions.length];
+            for (int i = 0; i < positions.length; i++) {
+                times[i] = micros(positions[i].createdAt());
+            }
+        }
+
+        static Stream of(List<Position> positions) {
+            Position[] sorted = positions.toArray(new Position[0]);
+            Arrays.sort(sorted, ORDER);
+            return new Stream(sorted);
+        }
+
+        // Index of the first announcement created strictly after the watermark
+        int firstAfter(Instant watermark) {
+            if (watermark == null) {
+                return 0;
+            }
+            long key = micros(watermark);
+            int low = 0;
+            int high = times.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (times[mid] <= key) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package org.yug.backend.service.announcement;
+
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.yug.backend.dto.announcement.AnnouncementDto;
+import org.yug.backend.model.AnnouncementReadMark;
+import org.yug.backend.model.auth.AuthenticatedUser;
+import org.yug.backend.repository.AnnouncementBookmarkRepository;
+import org.yug.backend.repository.AnnouncementReadExceptionRepository;
+import org.yug.backend.repository.AnnouncementReadMarkRepository;
+import org.yug.backend.repository.AnnouncementRepository;
+import org.yug.backend.repository.projection.AnnouncementKey;
+import org.yug.backend.service.community.MembershipIndex;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Announcement read and bookmark state, stored without a row per user per announcement.
+ * <p>
+ * For each stream (a community, or campus-wide) a user has a watermark: everything created up to it is read.
+ * Announcements whose state differs from what the watermark says are listed as exceptions, so reading one out of
+ * order or marking an old one unread costs one row. Marking the oldest unread announcement read moves the watermark
+ * over it and any read exceptions after it, which keeps the exception list short. The unread count is the number
+ * of announcements after each watermark, from {@link AnnouncementSequence}, corrected by the exceptions.
+ * <p>
+ * Toggles are not written on the request: they are coalesced in {@link AnnouncementWriteBuffer} and written in
+ * batches by {@link AnnouncementStateFlusher}. Reads apply the pending toggles over what is stored, so a user always
+ * sees their own changes.
+ */
+@Service
+public class AnnouncementService {
+
+    private static final int MAX_LISTED = 200;
+
+    @Autowired
+    private AnnouncementRepository announcementRepository;
+
+    @Autowired
+    private AnnouncementReadMarkRepository readMarkRepository;
+
+    @Autowired
+    private AnnouncementReadExceptionRepository readExceptionRepository;
+
+    @Autowired
+    private AnnouncementBookmarkRepository bookmarkRepository;
+
+    @Autowired
+    private AnnouncementSequence sequence;
+
+    @Autowired
+    private MembershipIndex membershipIndex;
+
+    @Autowired
+    private AnnouncementWriteBuffer writeBuffer;
+
+    @Autowired
+    private AnnouncementStateFlusher flusher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Campus-wide announcements and those of the user's communities, newest first, with the user's read and bookmark
+     * state, including toggles not yet flushed.
+     */
+    @Transactional(readOnly = true)
+    public List<AnnouncementDto> getAnnouncements(AuthenticatedUser user) {
+        List<AnnouncementDto> announcements = announcementRepository.findVisibleTo(user.getId(), Limit.of(MAX_LISTED));
+        ReadState state = loadReadState(user.getId());
+        Set<UUID> bookmarks = new HashSet<>(bookmarkRepository.findAnnouncementIdsByUserId(user.getId()));
+        writeBuffer.pendingBookmarks(user.getId()).forEach((announcementId, bookmarked) -> {
+            if (bookmarked) {
+                bookmarks.add(announcementId);
+            } else {
+                bookmarks.remove(announcementId);
+            }
+        });
+        for (AnnouncementDto announcement : announcements) {
+            UUID streamId = announcement.getCommunityId() != null ? announcement.getCommunityId() : AnnouncementSequence.GENERAL_STREAM;
+            announcement.setRead(state.isRead(announcement.getId(), streamId, announcement.getDate()));
+            announcement.setBookmarked(bookmarks.contains(announcement.getId()));
+        }
+        return announcements;
+    }
+
+    /**
+     * Unread announcements across the user's streams: one binary search per joined community plus one per exception.
+     */
+    @Transactional(readOnly = true)
+    public long countUnread(AuthenticatedUser user) {
+        return loadReadState(user.getId()).unread(visibleStreams(user.getId()), sequence);
+    }
+
+    /**
+     * Queues the change; {@link AnnouncementStateFlusher} writes it within a fraction of a second.
+     */
+    public void setRead(AuthenticatedUser user, UUID announcementId, boolean read) {
+        requireVisible(user, announcementId);
+        writeBuffer.enqueueRead(user.getId(), announcementId, read);
+    }
+
+    /**
+     * Marks everything in the user's streams read: one watermark per stream, and their exceptions dropped. Pending
+     * read toggles are superseded, so they are discarded rather than written.
+     */
+    public void markAllRead(AuthenticatedUser user) {
+        writeBuffer.discardReads(user.getId());
+        flusher.exclusively(() -> transactionTemplate.executeWithoutResult(status -> {
+            Map<UUID, Instant> watermarks = loadReadState(user.getId()).watermarks;
+            for (UUID streamId : visibleStreams(user.getId())) {
+                Instant latest = sequence.latest(streamId);
+                if (latest == null) {
+                    continue;
+                }
+                Instant current = watermarks.get(streamId);
+                if (current == null || current.isBefore(latest)) {
+                    readMarkRepository.save(new AnnouncementReadMark(user.getId(), streamId, latest));
+                }
+                readExceptionRepository.deleteStream(user.getId(), streamId);
+            }
+        }));
+    }
+
+    public void setBookmarked(AuthenticatedUser user, UUID announcementId, boolean bookmarked) {
+        requireVisible(user, announcementId);
+        writeBuffer.enqueueBookmark(user.getId(), announcementId, bookmarked);
+    }
+
+    private void requireVisible(AuthenticatedUser user, UUID announcementId) {
+        AnnouncementSequence.Position position = sequence.positionOf(announcementId);
+        UUID streamId;
+        if (position != null) {
+            streamId = position.streamId();
+        } else {
+            // Created since the last reload: read its stream here and let the sequence catch up in the background
+            AnnouncementKey key = announcementRepository.findKeyById(announcementId)
+                    .orElseThrow(() -> new EntityNotFoundException("Announcement not found with ID: " + announcementId));
+            streamId = key.getCommunityId() != null ? key.getCommunityId() : AnnouncementSequence.GENERAL_STREAM;
+            sequence.refreshSoon(announcementId);
+        }
+        if (!streamId.equals(AnnouncementSequence.GENERAL_STREAM) && !membershipIndex.isMember(user.getId(), streamId)) {
+            throw new RuntimeException("User must be a member to see this community's announcements.");
+        }
+    }
+
+    private Set<UUID> visibleStreams(UUID userId) {
+        Set<UUID> streams = new HashSet<>(membershipIndex.joinedBy(userId));
+        streams.add(AnnouncementSequence.GENERAL_STREAM);
+        return streams;
+    }
+
+    // Committed state with the pending toggles applied on top
+    private ReadState loadReadState(UUID userId) {
+        ReadState state = ReadState.of(readMarkRepository.findByUserId(userId), readExceptionRepository.findByUserId(userId));
+        writeBuffer.pendingReads(userId).forEach((announcementId, read) -> {
+            AnnouncementSequence.Position position = sequence.positionOf(announcementId);
+            if (position != null) {
+                state.set(position, read);
+            }
+        });
+        return state;
+    }
+}
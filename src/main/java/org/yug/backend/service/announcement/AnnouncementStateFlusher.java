@@ -0,0 +1,246 @@
+package org.yug.backend.service.announcement;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.yug.backend.model.AnnouncementBookmark;
+import org.yug.backend.model.AnnouncementReadException;
+import org.yug.backend.model.AnnouncementReadMark;
+import org.yug.backend.repository.AnnouncementBookmarkRepository;
+import org.yug.backend.repository.AnnouncementReadExceptionRepository;
+import org.yug.backend.repository.AnnouncementReadMarkRepository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Writes the {@link AnnouncementWriteBuffer} to the database on a short interval.
+ * <p>
+ * A flush writes the users with pending changes in chunks of {@code users-per-transaction}, one transaction each:
+ * the chunk's current rows are read with one query per table, the changes are applied in memory (see
+ * {@link ReadState}), and only the resulting differences are written. A chunk that fails is written again one user
+ * per transaction, so a bad row holds back only its own user. That user's changes are retried on the next flushes
+ * and dropped after {@value #MAX_ATTEMPTS} failures in a row.
+ * The inserts, updates and deletes go through the persistence context, so Hibernate sends them as JDBC batches
+ * ({@code hibernate.jdbc.batch_size}).
+ */
+@Component
+public class AnnouncementStateFlusher {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnnouncementStateFlusher.class);
+    private static final int MAX_ATTEMPTS = 3;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private AnnouncementWriteBuffer buffer;
+
+    @Autowired
+    private AnnouncementSequence sequence;
+
+    @Autowired
+    private AnnouncementReadMarkRepository readMarkRepository;
+
+    @Autowired
+    private AnnouncementReadExceptionRepository readExceptionRepository;
+
+    @Autowired
+    private AnnouncementBookmarkRepository bookmarkRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${app.announcements.write-behind.users-per-transaction:50}")
+    private int usersPerTransaction;
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Map<UUID, Integer> failedAttempts = new HashMap<>(); // consecutive failed flushes per user; guarded by flushLock
+
+    @Scheduled(fixedDelayString = "${app.announcements.write-behind.flush-interval-ms:250}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            AnnouncementWriteBuffer.Batch batch = buffer.drain();
+            if (batch.isEmpty()) {
+                return;
+            }
+            Set<UUID> userIds = new LinkedHashSet<>(batch.reads().keySet());
+            userIds.addAll(batch.bookmarks().keySet());
+            List<UUID> users = new ArrayList<>(userIds);
+            Map<UUID, Map<UUID, Boolean>> deferred = new HashMap<>();
+            Set<UUID> failed = new HashSet<>();
+            for (int from = 0; from < users.size(); from += usersPerTransaction) {
+                List<UUID> chunk = users.subList(from, Math.min(from + usersPerTransaction, users.size()));
+                if (write(batch, chunk, deferred)) {
+                    continue;
+                }
+                if (chunk.size() == 1) {
+                    failed.add(chunk.get(0));
+                    continue;
+                }
+                // Find the users whose rows fail, so the rest of the chunk is still written
+                for (UUID userId : chunk) {
+                    if (!write(batch, List.of(userId), deferred)) {
+                        failed.add(userId);
+                    }
+                }
+            }
+
+            Set<UUID> retry = new HashSet<>();
+            for (UUID userId : users) {
+                if (!failed.contains(userId)) {
+                    failedAttempts.remove(userId);
+                } else if (failedAttempts.merge(userId, 1, Integer::sum) < MAX_ATTEMPTS) {
+                    retry.add(userId);
+                } else {
+                    failedAttempts.remove(userId);
+                    logger.error("Dropping announcement state changes of user {} after {} failed flushes", userId, MAX_ATTEMPTS);
+                }
+            }
+            buffer.failed(new AnnouncementWriteBuffer.Batch(deferred, Map.of()));
+            buffer.failed(new AnnouncementWriteBuffer.Batch(only(batch.reads(), retry), only(batch.bookmarks(), retry)));
+            buffer.completed();
+            logger.debug("Flushed announcement state for {} users, {} failed", users.size() - failed.size(), failed.size());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Runs {@code work} with no flush in progress, after writing everything pending; for operations that replace a
+     * user's state wholesale.
+     */
+    public void exclusively(Runnable work) {
+        flushLock.lock();
+        try {
+            flush();
+            work.run();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void drainOnShutdown() {
+        flush();
+    }
+
+    // Changes to announcements the sequence is still loading go to `deferred` instead
+    // One transaction for these users' changes; false if it rolled back
+    private boolean write(AnnouncementWriteBuffer.Batch batch, List<UUID> userIds, Map<UUID, Map<UUID, Boolean>> deferred) {
+        Map<UUID, Map<UUID, Boolean>> chunkDeferred = new HashMap<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                writeReads(only(batch.reads(), userIds), chunkDeferred);
+                writeBookmarks(only(batch.bookmarks(), userIds));
+            });
+            deferred.putAll(chunkDeferred);
+            return true;
+        } catch (RuntimeException e) {
+            logger.warn("Announcement state flush failed for {} users: {}", userIds.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    private static Map<UUID, Map<UUID, Boolean>> only(Map<UUID, Map<UUID, Boolean>> changes, Collection<UUID> userIds) {
+        Map<UUID, Map<UUID, Boolean>> selected = new HashMap<>();
+        for (UUID userId : userIds) {
+            Map<UUID, Boolean> userChanges = changes.get(userId);
+            if (userChanges != null) {
+                selected.put(userId, userChanges);
+            }
+        }
+        return selected;
+    }
+
+    private void writeReads(Map<UUID, Map<UUID, Boolean>> changes, Map<UUID, Map<UUID, Boolean>> deferred) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        Map<UUID, List<AnnouncementReadMark>> marksByUser = new HashMap<>();
+        readMarkRepository.findByUserIdIn(changes.keySet())
+                .forEach(mark -> marksByUser.computeIfAbsent(mark.getUserId(), id -> new ArrayList<>()).add(mark));
+        Map<UUID, List<AnnouncementReadException>> exceptionsByUser = new HashMap<>();
+        readExceptionRepository.findByUserIdIn(changes.keySet())
+                .forEach(e -> exceptionsByUser.computeIfAbsent(e.getUserId(), id -> new ArrayList<>()).add(e));
+
+        changes.forEach((userId, userChanges) -> {
+            List<AnnouncementReadMark> marks = marksByUser.getOrDefault(userId, List.of());
+            List<AnnouncementReadException> exceptions = exceptionsByUser.getOrDefault(userId, List.of());
+            ReadState state = ReadState.of(marks, exceptions);
+            Set<UUID> streams = new HashSet<>();
+            userChanges.forEach((announcementId, read) -> {
+                AnnouncementSequence.Position position = sequence.positionOf(announcementId);
+                if (position != null) {
+                    state.set(position, read);
+                    streams.add(position.streamId());
+                } else if (sequence.isAwaited(announcementId)) {
+                    deferred.computeIfAbsent(userId, id -> new HashMap<>()).put(announcementId, read);
+                } // otherwise deleted since it was toggled
+            });
+            streams.forEach(streamId -> state.compact(streamId, sequence));
+
+            // Write only what changed: loaded rows are managed, so updating or removing them is enough
+            Map<UUID, AnnouncementReadMark> markByStream = new HashMap<>();
+            marks.forEach(mark -> markByStream.put(mark.getStreamId(), mark));
+            for (UUID streamId : streams) {
+                Instant watermark = state.watermarks.get(streamId);
+                AnnouncementReadMark mark = markByStream.get(streamId);
+                if (mark == null && watermark != null) {
+                    entityManager.persist(new AnnouncementReadMark(userId, streamId, watermark));
+                } else if (mark != null && !mark.getReadUpTo().equals(watermark)) {
+                    mark.setReadUpTo(watermark);
+                }
+            }
+            Set<UUID> persisted = new HashSet<>();
+            for (AnnouncementReadException exception : exceptions) {
+                persisted.add(exception.getAnnouncementId());
+                if (streams.contains(exception.getStreamId()) && !state.exceptions.containsKey(exception.getAnnouncementId())) {
+                    entityManager.remove(exception);
+                }
+            }
+            for (UUID streamId : streams) {
+                for (UUID announcementId : state.exceptionsIn(streamId)) {
+                    if (!persisted.contains(announcementId)) {
+                        entityManager.persist(new AnnouncementReadException(userId, announcementId, streamId));
+                    }
+                }
+            }
+        });
+    }
+
+    private void writeBookmarks(Map<UUID, Map<UUID, Boolean>> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        Map<UUID, Map<UUID, AnnouncementBookmark>> existing = new HashMap<>();
+        bookmarkRepository.findByUserIdIn(changes.keySet())
+                .forEach(b -> existing.computeIfAbsent(b.getUserId(), id -> new HashMap<>()).put(b.getAnnouncementId(), b));
+        Instant now = Instant.now();
+        changes.forEach((userId, userChanges) -> userChanges.forEach((announcementId, bookmarked) -> {
+            AnnouncementBookmark current = existing.getOrDefault(userId, Map.of()).get(announcementId);
+            if (bookmarked && current == null) {
+                entityManager.persist(new AnnouncementBookmark(userId, announcementId, now));
+            } else if (!bookmarked && current != null) {
+                entityManager.remove(current);
+            }
+        }));
+    }
+}
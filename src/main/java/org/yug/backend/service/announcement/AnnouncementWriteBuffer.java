@@ -0,0 +1,131 @@
+package org.yug.backend.service.announcement;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read and bookmark toggles waiting to be written, coalesced per (user, announcement): scrolling through a list
+ * and toggling the same announcement back and forth leaves one pending value, the last.
+ * <p>
+ * Each user's changes are a small map that is only touched inside {@link ConcurrentHashMap#compute} on that user's
+ * entry, so users never contend with each other. {@link #drain} moves everything to an in-flight batch, which stays
+ * visible to {@link #pendingReads}/{@link #pendingBookmarks} until the flush has committed it.
+ */
+@Component
+public class AnnouncementWriteBuffer {
+
+    private final ConcurrentHashMap<UUID, Map<UUID, Boolean>> reads = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UUID, Map<UUID, Boolean>> bookmarks = new ConcurrentHashMap<>();
+    private final Map<UUID, Map<UUID, Boolean>> flushingReads = new ConcurrentHashMap<>();
+    private final Map<UUID, Map<UUID, Boolean>> flushingBookmarks = new ConcurrentHashMap<>();
+
+    public AnnouncementWriteBuffer(MeterRegistry meterRegistry) {
+        Gauge.builder("announcements.write-behind.pending-users", this, buffer -> buffer.reads.size() + buffer.bookmarks.size())
+                .description("Users with announcement read/bookmark changes waiting to be flushed")
+                .register(meterRegistry);
+    }
+
+    public void enqueueRead(UUID userId, UUID announcementId, boolean read) {
+        put(reads, userId, announcementId, read);
+    }
+
+    public void enqueueBookmark(UUID userId, UUID announcementId, boolean bookmarked) {
+        put(bookmarks, userId, announcementId, bookmarked);
+    }
+
+    /**
+     * The user's read changes not yet committed, newest value per announcement.
+     */
+    public Map<UUID, Boolean> pendingReads(UUID userId) {
+        return merged(reads, flushingReads, userId);
+    }
+
+    public Map<UUID, Boolean> pendingBookmarks(UUID userId) {
+        return merged(bookmarks, flushingBookmarks, userId);
+    }
+
+    /**
+     * Drops the user's pending read changes, e.g. because everything was just marked read.
+     */
+    public void discardReads(UUID userId) {
+        reads.remove(userId);
+    }
+
+    /**
+     * Takes every pending change for writing. Only the flusher calls this, and it must call {@link #completed}
+     * (after putting back whatever it did not write) before draining again.
+     */
+    Batch drain() {
+        return new Batch(moveAll(reads, flushingReads), moveAll(bookmarks, flushingBookmarks));
+    }
+
+    void completed() {
+        flushingReads.clear();
+        flushingBookmarks.clear();
+    }
+
+    /**
+     * Puts changes that could not be written back, behind any change made since they were drained. Called before
+     * {@link #completed}, so they never disappear from {@link #pendingReads}/{@link #pendingBookmarks}.
+     */
+    void failed(Batch batch) {
+        batch.reads().forEach((userId, changes) -> changes.forEach((id, value) -> putIfAbsent(reads, userId, id, value)));
+        batch.bookmarks().forEach((userId, changes) -> changes.forEach((id, value) -> putIfAbsent(bookmarks, userId, id, value)));
+    }
+
+    private static void put(ConcurrentHashMap<UUID, Map<UUID, Boolean>> pending, UUID userId, UUID announcementId, boolean value) {
+        pending.compute(userId, (id, changes) -> {
+            Map<UUID, Boolean> next = changes != null ? changes : new HashMap<>();
+            next.put(announcementId, value);
+            return next;
+        });
+    }
+
+    private static void putIfAbsent(ConcurrentHashMap<UUID, Map<UUID, Boolean>> pending, UUID userId, UUID announcementId, boolean value) {
+        pending.compute(userId, (id, changes) -> {
+            Map<UUID, Boolean> next = changes != null ? changes : new HashMap<>();
+            next.putIfAbsent(announcementId, value);
+            return next;
+        });
+    }
+
+    private static Map<UUID, Map<UUID, Boolean>> moveAll(ConcurrentHashMap<UUID, Map<UUID, Boolean>> pending,
+                                                        Map<UUID, Map<UUID, Boolean>> flushing) {
+        Map<UUID, Map<UUID, Boolean>> taken = new HashMap<>();
+        for (UUID userId : pending.keySet()) {
+            // Under the entry's lock: a concurrent change either made it into this map or starts a fresh one
+            pending.computeIfPresent(userId, (id, changes) -> {
+                flushing.put(id, changes);
+                taken.put(id, changes);
+                return null;
+            });
+        }
+        return taken;
+    }
+
+    // Read pending before in-flight: a map moved in between is then seen in flight rather than missed
+    private static Map<UUID, Boolean> merged(ConcurrentHashMap<UUID, Map<UUID, Boolean>> pending,
+                                             Map<UUID, Map<UUID, Boolean>> flushing, UUID userId) {
+        Map<UUID, Boolean> newest = new HashMap<>();
+        pending.computeIfPresent(userId, (id, changes) -> {
+            newest.putAll(changes);
+            return changes;
+        });
+        Map<UUID, Boolean> result = new HashMap<>(flushing.getOrDefault(userId, Map.of()));
+        result.putAll(newest);
+        return result;
+    }
+
+    record Batch(Map<UUID, Map<UUID, Boolean>> reads, Map<UUID, Map<UUID, Boolean>> bookmarks) {
+
+        boolean isEmpty() {
+            return reads.isEmpty() && bookmarks.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package org.yug.backend.service.announcement;
+
+import java.util.List;
+
+/**
+ * Published by {@link AnnouncementSequence} when a reload finds announcements it had not seen before.
+ */
+public record AnnouncementsAddedEvent(List<AnnouncementSequence.Position> added) {
+}
@@ -0,0 +1,108 @@
+package org.yug.backend.service.announcement;
+
+import org.yug.backend.model.AnnouncementReadException;
+import org.yug.backend.model.AnnouncementReadMark;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * One user's announcement read state: a watermark per stream and the exceptions to it (announcement id to stream).
+ * An exception after its stream's watermark is a read announcement; one before it, an unread one. Mutable, and only
+ * ever used by one thread.
+ */
+final class ReadState {
+
+    final Map<UUID, Instant> watermarks = new HashMap<>();
+    final Map<UUID, UUID> exceptions = new HashMap<>();
+
+    static ReadState of(List<AnnouncementReadMark> marks, List<AnnouncementReadException> exceptions) {
+        ReadState state = new ReadState();
+        marks.forEach(mark -> state.watermarks.put(mark.getStreamId(), mark.getReadUpTo()));
+        exceptions.forEach(e -> state.exceptions.put(e.getAnnouncementId(), e.getStreamId()));
+        return state;
+    }
+
+    boolean isRead(UUID announcementId, UUID streamId, Instant createdAt) {
+        return isAfter(createdAt, watermarks.get(streamId)) == exceptions.containsKey(announcementId);
+    }
+
+    /**
+     * Sets one announcement's state by adding or removing its exception. Applying the same change twice is harmless.
+     */
+    void set(AnnouncementSequence.Position position, boolean read) {
+        boolean exception = exceptions.containsKey(position.announcementId());
+        boolean impliedRead = !isAfter(position.createdAt(), watermarks.get(position.streamId()));
+        if (read == (impliedRead != exception)) {
+            return;
+        }
+        if (exception) {
+            exceptions.remove(position.announcementId());
+        } else {
+            exceptions.put(position.announcementId(), position.streamId());
+        }
+    }
+
+    /**
+     * Moves the stream's watermark over the run of read announcements directly after it, dropping their exceptions.
+     * Changes the representation only, never which announcements are read.
+     */
+    void compact(UUID streamId, AnnouncementSequence sequence) {
+        List<AnnouncementSequence.Position> newer = sequence.after(streamId, watermarks.get(streamId));
+        int run = 0;
+        while (run < newer.size() && exceptions.containsKey(newer.get(run).announcementId())) {
+            run++;
+        }
+        // The watermark covers whole timestamps: stop before a time the first unread announcement shares
+        if (run < newer.size()) {
+            Instant firstUnread = newer.get(run).createdAt();
+            while (run > 0 && !newer.get(run - 1).createdAt().isBefore(firstUnread)) {
+                run--;
+            }
+        }
+        if (run == 0) {
+            return;
+        }
+        for (int i = 0; i < run; i++) {
+            exceptions.remove(newer.get(i).announcementId());
+        }
+        watermarks.put(streamId, newer.get(run - 1).createdAt());
+    }
+
+    /**
+     * Unread announcements across {@code streams}: one binary search per stream plus one lookup per exception.
+     */
+    long unread(Set<UUID> streams, AnnouncementSequence sequence) {
+        long count = 0;
+        for (UUID streamId : streams) {
+            count += sequence.countAfter(streamId, watermarks.get(streamId));
+        }
+        for (UUID announcementId : exceptions.keySet()) {
+            AnnouncementSequence.Position position = sequence.positionOf(announcementId);
+            if (position == null || !streams.contains(position.streamId())) {
+                continue; // deleted, or a community the user has since left
+            }
+            count += isAfter(position.createdAt(), watermarks.get(position.streamId())) ? -1 : 1;
+        }
+        return Math.max(0, count);
+    }
+
+    List<UUID> exceptionsIn(UUID streamId) {
+        List<UUID> ids = new ArrayList<>();
+        exceptions.forEach((id, stream) -> {
+            if (stream.equals(streamId)) {
+                ids.add(id);
+            }
+        });
+        return ids;
+    }
+
+    static boolean isAfter(Instant createdAt, Instant watermark) {
+        return watermark == null || AnnouncementSequence.micros(createdAt) > AnnouncementSequence.micros(watermark);
+    }
+}
@@ -0,0 +1,107 @@
+package org.yug.backend.service.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.yug.backend.model.auth.UserPrincipal;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Short-lived cache of {@link UserPrincipal}s keyed by username, so JwtFilter does not hit the users table on
+ * every authenticated request. Entries are dropped whenever the user's role or profile changes.
+ * Disable with {@code app.security.principal-cache.enabled=false}.
+ */
+@Component
+public class PrincipalCache {
+
+    private final boolean enabled;
+    private final Cache<String, UserPrincipal> cache;
+    private final Map<UUID, String> usernames = new ConcurrentHashMap<>(); // user id -> key it was cached under
+
+    public PrincipalCache(@Value("${app.security.principal-cache.enabled:true}") boolean enabled,
+                          @Value("${app.security.principal-cache.ttl:5m}") Duration ttl,
+                          @Value("${app.security.principal-cache.max-size:50000}") long maxSize,
+                          MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .evictionListener((String username, UserPrincipal principal, RemovalCause cause) -> {
+                    if (principal != null) {
+                        usernames.remove(principal.getId(), username);
+                    }
+                })
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "auth.principal");
+    }
+
+    /**
+     * Returns the cached principal or loads it. The loader may throw; nothing is cached in that case.
+     */
+    public UserPrincipal get(String username, Function<String, UserPrincipal> loader) {
+        if (!enabled) {
+            return loader.apply(username);
+        }
+        return cache.get(username, key -> {
+            UserPrincipal principal = loader.apply(key);
+            usernames.put(principal.getId(), key);
+            return principal;
+        });
+    }
+
+    /**
+     * Drops the entry, and its user id's mapping to this name, now and, inside a transaction, once more after it
+     * completes so a concurrent request cannot re-cache the pre-commit state.
+     */
+    public void invalidate(String username) {
+        drop(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    drop(username);
+                }
+            });
+        }
+    }
+
+    /**
+     * Like {@link #invalidate(String)}, for callers that may have changed the username itself: the entry is found by
+     * id, under whatever name it was cached.
+     */
+    public void invalidate(UUID userId) {
+        String username = usernames.remove(userId);
+        if (username != null) {
+            invalidate(username);
+        }
+    }
+
+    // The eviction listener only sees size and expiry evictions, so explicit removals clear the mapping here
+    private void drop(String username) {
+        UserPrincipal removed = cache.asMap().remove(username);
+        if (removed != null) {
+            usernames.remove(removed.getId(), username);
+        }
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+        usernames.clear();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+}
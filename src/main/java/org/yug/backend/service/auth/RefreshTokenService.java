@@ -0,0 +1,131 @@
+package org.yug.backend.service.auth;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.yug.backend.exception.InvalidRefreshTokenException;
+import org.yug.backend.model.auth.RefreshToken;
+import org.yug.backend.model.auth.User;
+import org.yug.backend.repository.RefreshTokenRepository;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Issues and rotates opaque refresh tokens. A refresh is one indexed lookup plus two small writes, instead of the
+ * BCrypt check a full login costs.
+ * <p>
+ * Sessions slide: each rotation extends the expiry by the idle timeout, capped by the absolute session lifetime.
+ * A rotated token can only be used once; presenting it again is treated as theft and revokes the whole family.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private final SecureRandom random = new SecureRandom();
+    private final Duration idleTimeout;
+    private final Duration maxLifetime;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    public RefreshTokenService(@Value("${app.security.refresh-token.idle-timeout:7d}") Duration idleTimeout,
+                               @Value("${app.security.refresh-token.max-lifetime:30d}") Duration maxLifetime) {
+        this.idleTimeout = idleTimeout;
+        this.maxLifetime = maxLifetime;
+    }
+
+    /**
+     * Starts a new session (token family) for a user who has just proven their credentials.
+     */
+    @Transactional
+    public String issue(User user) {
+        Instant now = Instant.now();
+        return store(user, UUID.randomUUID(), now, now.plus(maxLifetime));
+    }
+
+    /**
+     * Exchanges a refresh token for a new one in the same family.
+     */
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public Rotation rotate(String rawToken) {
+        RefreshToken current = refreshTokenRepository.findByTokenHash(VerifiedTokenCache.digest(rawToken))
+                .orElseThrow(() -> new InvalidRefreshTokenException("Invalid refresh token"));
+        Instant now = Instant.now();
+
+        if (current.isRevoked()) {
+            throw new InvalidRefreshTokenException("Refresh token has been revoked");
+        }
+        if (current.getUsedAt() != null || refreshTokenRepository.markUsed(current.getId(), now) == 0) {
+            // Either we saw it used or a concurrent request just used it: someone replayed the token.
+            logger.warn("Refresh token reuse detected for user {}; revoking session {}", current.getUser().getId(), current.getFamilyId());
+            refreshTokenRepository.revokeFamily(current.getFamilyId());
+            throw new InvalidRefreshTokenException("Refresh token has already been used");
+        }
+        if (!now.isBefore(current.getExpiresAt()) || !now.isBefore(current.getFamilyExpiresAt())) {
+            throw new InvalidRefreshTokenException("Refresh token has expired");
+        }
+
+        User user = current.getUser();
+        String next = store(user, current.getFamilyId(), now, current.getFamilyExpiresAt());
+        return new Rotation(user, next);
+    }
+
+    /**
+     * Ends the session the given refresh token belongs to. Unknown tokens are ignored.
+     */
+    @Transactional
+    public void revokeSession(String rawToken) {
+        refreshTokenRepository.findByTokenHash(VerifiedTokenCache.digest(rawToken))
+                .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamilyId()));
+    }
+
+    @Transactional
+    public void revokeAll(UUID userId) {
+        refreshTokenRepository.revokeAllForUser(userId);
+    }
+
+    @Scheduled(cron = "${app.security.refresh-token.purge-cron:0 30 3 * * *}")
+    @Transactional
+    public void purgeExpired() {
+        int removed = refreshTokenRepository.deleteExpired(Instant.now());
+        if (removed > 0) {
+            logger.info("Purged {} expired refresh tokens", removed);
+        }
+    }
+
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    private String store(User user, UUID familyId, Instant now, Instant familyExpiresAt) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String raw = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken token = new RefreshToken();
+        token.setTokenHash(VerifiedTokenCache.digest(raw));
+        token.setUser(user);
+        token.setFamilyId(familyId);
+        token.setCreatedAt(now);
+        Instant sliding = now.plus(idleTimeout);
+        token.setExpiresAt(sliding.isBefore(familyExpiresAt) ? sliding : familyExpiresAt);
+        token.setFamilyExpiresAt(familyExpiresAt);
+        refreshTokenRepository.save(token);
+        return raw;
+    }
+
+    @lombok.Value
+    public static class Rotation {
+        User user;
+        String refreshToken;
+    }
+}
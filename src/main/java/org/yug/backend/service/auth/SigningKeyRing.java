@@ -0,0 +1,210 @@
+package org.yug.backend.service.auth;
+
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.KeyGenerator;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.Key;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * HMAC signing keys shared by every node, identified by a {@code kid} that is written into each token header.
+ * <p>
+ * Keys come from a properties file ({@code app.security.jwt.keyring.path}) with one block per key:
+ * <pre>
+ * keys.2026-10.secret=&lt;base64, at least 256 bits&gt;
+ * keys.2026-10.not-before=2026-10-01T00:00:00Z   # optional: start signing with this key
+ * keys.2026-10.expires=2027-01-01T00:00:00Z      # optional: stop accepting tokens signed with it
+ * </pre>
+ * The newest key whose {@code not-before} has passed signs new tokens; every key that has not expired still
+ * verifies. Rotating is therefore: publish the next key with a future {@code not-before}, and give the old key an
+ * {@code expires} later than that plus the access-token lifetime. The file is re-read when it changes.
+ * <p>
+ * Without a file, {@code app.security.jwt.secret} is used as a single key; without either, a random key is
+ * generated, which only works for a single node and does not survive restarts.
+ */
+@Component
+public class SigningKeyRing {
+
+    private static final Logger logger = LoggerFactory.getLogger(SigningKeyRing.class);
+    private static final String FALLBACK_KID = "default";
+
+    private final String keyRingPath;
+    private final String secret;
+    private final VerifiedTokenCache tokenCache;
+    private final Clock clock = Clock.systemUTC();
+
+    private volatile Snapshot snapshot;
+    private volatile long loadedModifiedTime = -1;
+
+    public SigningKeyRing(@Value("${app.security.jwt.keyring.path:}") String keyRingPath,
+                          @Value("${app.security.jwt.secret:}") String secret,
+                          VerifiedTokenCache tokenCache) {
+        this.keyRingPath = keyRingPath;
+        this.secret = secret;
+        this.tokenCache = tokenCache;
+        load();
+    }
+
+    private void load() {
+        if (!keyRingPath.isBlank()) {
+            reloadFromFile();
+            if (snapshot == null) {
+                throw new IllegalStateException("No usable signing keys in " + keyRingPath);
+            }
+        } else if (!secret.isBlank()) {
+            snapshot = Snapshot.of(Map.of(FALLBACK_KID, new SigningKey(FALLBACK_KID, hmacKey(secret), null, null)));
+        } else {
+            logger.warn("No JWT key ring or secret configured; using a random key. Tokens will not be accepted by other nodes or after a restart.");
+            snapshot = Snapshot.of(Map.of(FALLBACK_KID, new SigningKey(FALLBACK_KID, randomKey(), null, null)));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.jwt.keyring.reload-interval-ms:60000}")
+    public void reloadIfChanged() {
+        if (keyRingPath.isBlank()) {
+            return;
+        }
+        try {
+            if (Files.getLastModifiedTime(Path.of(keyRingPath)).toMillis() != loadedModifiedTime) {
+                reloadFromFile();
+            }
+        } catch (IOException e) {
+            logger.warn("Cannot stat JWT key ring {}: {}", keyRingPath, e.getMessage());
+        }
+    }
+
+    private synchronized void reloadFromFile() {
+        Path path = Path.of(keyRingPath);
+        Properties props = new Properties();
+        long modified;
+        try (Reader reader = Files.newBufferedReader(path)) {
+            modified = Files.getLastModifiedTime(path).toMillis();
+            props.load(reader);
+        } catch (IOException e) {
+            logger.error("Cannot read JWT key ring {}: {}", keyRingPath, e.getMessage());
+            return;
+        }
+
+        Map<String, SigningKey> keys = new HashMap<>();
+        for (String name : props.stringPropertyNames()) {
+            if (!name.startsWith("keys.") || !name.endsWith(".secret")) {
+                continue;
+            }
+            String kid = name.substring("keys.".length(), name.length() - ".secret".length());
+            try {
+                keys.put(kid, new SigningKey(kid,
+                        hmacKey(props.getProperty(name)),
+                        instant(props.getProperty("keys." + kid + ".not-before")),
+                        instant(props.getProperty("keys." + kid + ".expires"))));
+            } catch (RuntimeException e) {
+                logger.error("Skipping JWT key '{}': {}", kid, e.getMessage());
+            }
+        }
+        if (keys.isEmpty()) {
+            logger.error("JWT key ring {} contains no keys; keeping the previous ones", keyRingPath);
+            return;
+        }
+
+        Snapshot previous = snapshot;
+        snapshot = Snapshot.of(keys);
+        loadedModifiedTime = modified;
+        if (previous != null && !keys.keySet().containsAll(previous.keys.keySet())) {
+            tokenCache.invalidateAll(); // a key was withdrawn; tokens it signed must be re-verified
+        }
+        logger.info("Loaded {} JWT signing keys from {}", keys.size(), keyRingPath);
+    }
+
+    /**
+     * The key new tokens are signed with: the most recently activated key that is currently valid.
+     */
+    public SigningKey activeKey() {
+        Instant now = clock.instant();
+        SigningKey active = null;
+        for (SigningKey key : snapshot.keys.values()) {
+            if (!key.canSign(now)) {
+                continue;
+            }
+            if (active == null || activationOf(key).isAfter(activationOf(active))) {
+                active = key;
+            }
+        }
+        if (active == null) {
+            throw new IllegalStateException("No active JWT signing key");
+        }
+        return active;
+    }
+
+    /**
+     * Returns the verification key for {@code kid}, or null if it is unknown or has expired.
+     */
+    public Key verificationKey(String kid) {
+        SigningKey key = kid != null ? snapshot.keys.get(kid) : null;
+        return key != null && key.canVerify(clock.instant()) ? key.getKey() : null;
+    }
+
+    private static Instant activationOf(SigningKey key) {
+        return key.getNotBefore() != null ? key.getNotBefore() : Instant.EPOCH;
+    }
+
+    private static Instant instant(String value) {
+        return value == null || value.isBlank() ? null : Instant.parse(value.trim());
+    }
+
+    private static Key hmacKey(String base64) {
+        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64.trim()));
+    }
+
+    private static Key randomKey() {
+        try {
+            byte[] bytes = KeyGenerator.getInstance("HmacSHA256").generateKey().getEncoded();
+            return hmacKey(Base64.getEncoder().encodeToString(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("Error generating secret key", e);
+        }
+    }
+
+    private static final class Snapshot {
+        final Map<String, SigningKey> keys;
+
+        private Snapshot(Map<String, SigningKey> keys) {
+            this.keys = keys;
+        }
+
+        static Snapshot of(Map<String, SigningKey> keys) {
+            return new Snapshot(Collections.unmodifiableMap(new HashMap<>(keys)));
+        }
+    }
+
+    @lombok.Value
+    public static class SigningKey {
+        String kid;
+        Key key;
+        Instant notBefore;
+        Instant expires;
+
+        boolean canSign(Instant now) {
+            return (notBefore == null || !now.isBefore(notBefore)) && canVerify(now);
+        }
+
+        boolean canVerify(Instant now) {
+            return expires == null || now.isBefore(expires);
+        }
+    }
+}
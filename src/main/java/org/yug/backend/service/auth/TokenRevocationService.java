@@ -0,0 +1,145 @@
+package org.yug.backend.service.auth;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.yug.backend.model.auth.RevokedToken;
+import org.yug.backend.model.auth.TokenWatermark;
+import org.yug.backend.repository.RevokedTokenRepository;
+import org.yug.backend.repository.TokenWatermarkRepository;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Access-token revocation with a hot-path check that never touches the database.
+ * <p>
+ * Two stores back it: single tokens by {@code jti} (logout, admin revoke) and a per-user "issued before" watermark
+ * (log out everywhere). {@link #isRevoked} is a map lookup for the watermark plus a Bloom filter probe; only a
+ * Bloom hit consults the exact set. Both stores are persisted and polled, so a revocation on one node reaches the
+ * others within the sync interval.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private final int expectedRevocations;
+
+    private final Map<String, Instant> revokedTokens = new ConcurrentHashMap<>(); // jti -> token expiry
+    private final Map<UUID, Instant> watermarks = new ConcurrentHashMap<>();
+    private volatile ConcurrentBloomFilter bloomFilter;
+    private volatile Instant lastSync = Instant.EPOCH;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private TokenWatermarkRepository watermarkRepository;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    public TokenRevocationService(@Value("${app.security.revocation.expected-revocations:100000}") int expectedRevocations,
+                                  MeterRegistry meterRegistry) {
+        this.expectedRevocations = expectedRevocations;
+        this.bloomFilter = new ConcurrentBloomFilter(expectedRevocations, 0.01);
+        Gauge.builder("auth.revocation.tokens", revokedTokens, Map::size).register(meterRegistry);
+        Gauge.builder("auth.revocation.watermarks", watermarks, Map::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    void load() {
+        Instant now = Instant.now();
+        revokedTokenRepository.findByExpiresAtAfter(now).forEach(this::remember);
+        watermarkRepository.findAll().forEach(w -> watermarks.merge(w.getUserId(), w.getIssuedBefore(), TokenRevocationService::later));
+        lastSync = now;
+    }
+
+    /**
+     * Hot path, called by JwtFilter for every authenticated request.
+     */
+    public boolean isRevoked(VerifiedToken token) {
+        if (token.getUserId() != null && token.getIssuedAt() != null) {
+            Instant watermark = watermarks.get(token.getUserId());
+            if (watermark != null && token.getIssuedAt().isBefore(watermark)) {
+                return true;
+            }
+        }
+        String tokenId = token.getTokenId();
+        return tokenId != null && bloomFilter.mightContain(tokenId) && revokedTokens.containsKey(tokenId);
+    }
+
+    @Transactional
+    public void revoke(VerifiedToken token) {
+        if (token.getTokenId() == null) {
+            return; // issued before tokens carried a jti; it expires on its own
+        }
+        RevokedToken revoked = new RevokedToken(token.getTokenId(), token.getUserId(), token.getExpiresAt(), Instant.now());
+        revokedTokenRepository.save(revoked);
+        remember(revoked);
+    }
+
+    /**
+     * Invalidates every access and refresh token the user currently holds.
+     */
+    @Transactional
+    public void revokeAll(UUID userId) {
+        // iat has second precision, so a token issued earlier in this second carries the same iat as one issued
+        // after: cover the whole current second. A login in the rest of this second has to be repeated.
+        Instant issuedBefore = Instant.now().truncatedTo(ChronoUnit.SECONDS).plusSeconds(1);
+        watermarkRepository.save(new TokenWatermark(userId, issuedBefore, Instant.now()));
+        watermarks.merge(userId, issuedBefore, TokenRevocationService::later);
+        refreshTokenService.revokeAll(userId);
+    }
+
+    /**
+     * Picks up revocations made on other nodes.
+     */
+    @Scheduled(fixedDelayString = "${app.security.revocation.sync-interval-ms:5000}")
+    public void sync() {
+        // Overlap the window slightly so rows committed while the previous poll ran are not missed
+        Instant since = lastSync.minusSeconds(2);
+        Instant now = Instant.now();
+        revokedTokenRepository.findByRevokedAtAfter(since).forEach(this::remember);
+        watermarkRepository.findByUpdatedAtAfter(since)
+                .forEach(w -> watermarks.merge(w.getUserId(), w.getIssuedBefore(), TokenRevocationService::later));
+        lastSync = now;
+    }
+
+    /**
+     * Drops revocations of tokens that have expired anyway and rebuilds the Bloom filter without them.
+     */
+    @Scheduled(fixedDelayString = "${app.security.revocation.prune-interval-ms:3600000}")
+    @Transactional
+    public void prune() {
+        Instant now = Instant.now();
+        revokedTokens.values().removeIf(expiresAt -> expiresAt.isBefore(now));
+        ConcurrentBloomFilter rebuilt = new ConcurrentBloomFilter(Math.max(expectedRevocations, revokedTokens.size() * 2), 0.01);
+        revokedTokens.keySet().forEach(rebuilt::add);
+        bloomFilter = rebuilt;
+        // A token added between the rebuild and the swap is still in the exact set; add it again to be safe
+        revokedTokens.keySet().forEach(rebuilt::add);
+        int removed = revokedTokenRepository.deleteExpired(now);
+        logger.debug("Pruned {} expired token revocations", removed);
+    }
+
+    private void remember(RevokedToken revoked) {
+        bloomFilter.add(revoked.getTokenId());
+        revokedTokens.put(revoked.getTokenId(), revoked.getExpiresAt());
+    }
+
+    private static Instant later(Instant a, Instant b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
@@ -0,0 +1,25 @@
+package org.yug.backend.service.auth;
+
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Immutable view of a JWT whose signature has already been verified.
+ * Built once per token by {@link org.yug.backend.service.JwtService} and shared through the {@link VerifiedTokenCache}.
+ */
+@Value
+public class VerifiedToken {
+    String tokenId;
+    String subject;
+    UUID userId;   // null for tokens issued before the uid claim existed
+    String role;
+    String keyId;
+    Instant issuedAt;
+    Instant expiresAt;
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !expiresAt.isAfter(now);
+    }
+}
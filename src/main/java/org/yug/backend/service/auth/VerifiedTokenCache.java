@@ -0,0 +1,93 @@
+package org.yug.backend.service.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Bounded cache of verified tokens keyed by a SHA-256 digest of the raw token, so a bearer token
+ * seen again skips base64/JSON parsing and the HMAC check. Entries expire together with the token itself.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final Cache<String, VerifiedToken> cache;
+
+    public VerifiedTokenCache(@Value("${app.security.jwt.cache.max-size:10000}") long maxSize,
+                              MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.verified");
+        Gauge.builder("jwt.verified.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Share of bearer tokens served from the verified-token cache")
+                .register(meterRegistry);
+    }
+
+    public VerifiedToken get(String digest) {
+        return cache.getIfPresent(digest);
+    }
+
+    public void put(String digest, VerifiedToken token) {
+        cache.put(digest, token);
+    }
+
+    public void invalidate(String digest) {
+        cache.invalidate(digest);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public double hitRate() {
+        return cache.stats().hitRate();
+    }
+
+    /**
+     * SHA-256 of the token, base64url: the key here, and what is stored instead of raw refresh tokens.
+     */
+    public static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class TokenExpiry implements Expiry<String, VerifiedToken> {
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+            if (token.getExpiresAt() == null) {
+                return Long.MAX_VALUE;
+            }
+            long nanos = Duration.between(Instant.now(), token.getExpiresAt()).toNanos();
+            return Math.max(nanos, 0);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, token, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package org.yug.backend.service.community;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.yug.backend.dto.community.CommunityDto;
+import org.yug.backend.repository.CommunityRepository;
+import org.yug.backend.repository.projection.CommunitySummary;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory copy of the community catalog behind {@code GET /communities/all}.
+ * <p>
+ * The catalog is held as an immutable {@link Snapshot}: the list, its JSON encoding, a strong ETag derived from
+ * that encoding, a by-id lookup and a {@link CommunityNameIndex} for search. Readers take the current snapshot from
+ * a volatile field and never wait. Writers (commit events, the periodic refresh) build a new snapshot under a lock
+ * and swap it in. The periodic refresh picks up changes made on other nodes.
+ * <p>
+ * A change event only queues the community id. Whichever thread holds the lock re-reads every queued row in one
+ * query, so a burst of joins is applied in a few passes rather than one per event, and rows are always read under
+ * the lock, so an older read can never overwrite a newer one. A changed row that keeps its name keeps its place:
+ * the snapshot is patched (one JSON fragment, one hash term, the name index shares its structures) instead of
+ * re-sorted, re-serialized and re-hashed. New, renamed and deleted communities rebuild the snapshot.
+ */
+@Component
+public class CommunityCatalog {
+
+    private static final Logger logger = LoggerFactory.getLogger(CommunityCatalog.class);
+    private static final Comparator<CommunityDto> ORDER =
+            Comparator.comparing(CommunityDto::getName, String.CASE_INSENSITIVE_ORDER).thenComparing(CommunityDto::getName);
+
+    @Autowired
+    private CommunityRepository communityRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final ReentrantLock writeLock = new ReentrantLock(); // not a monitor, as writers query while holding it
+    private final Set<UUID> changed = ConcurrentHashMap.newKeySet();
+    private volatile Snapshot snapshot;
+
+    public CommunityCatalog(MeterRegistry meterRegistry) {
+        Gauge.builder("community.catalog.version", this, catalog -> catalog.snapshot == null ? 0 : catalog.snapshot.getVersion())
+                .register(meterRegistry);
+    }
+
+    public Snapshot current() {
+        Snapshot current = snapshot;
+        return current != null ? current : reload();
+    }
+
+    @Scheduled(initialDelayString = "${app.community.catalog.refresh-interval-ms:300000}",
+            fixedDelayString = "${app.community.catalog.refresh-interval-ms:300000}")
+    public void refresh() {
+        reload();
+    }
+
+    private Snapshot reload() {
+        writeLock.lock();
+        try {
+            changed.clear(); // committed before they were queued, so the full read below sees them
+            List<CommunityDto> items = new ArrayList<>();
+            for (CommunitySummary summary : communityRepository.findAllProjectedBy()) {
+                items.add(CommunityService.toDto(summary));
+            }
+            return install(build(items));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommunityChanged(CommunityChangedEvent event) {
+        if (snapshot == null) {
+            return; // nothing served yet; the first read loads everything
+        }
+        changed.add(event.communityId());
+        // A thread that finds the lock taken leaves its id to the holder, which looks again after unlocking
+        while (!changed.isEmpty() && writeLock.tryLock()) {
+            try {
+                applyChanges();
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    // Caller holds writeLock
+    private void applyChanges() {
+        List<UUID> ids = new ArrayList<>();
+        for (UUID id : changed) {
+            if (changed.remove(id)) {
+                ids.add(id);
+            }
+        }
+        if (ids.isEmpty() || snapshot == null) {
+            return;
+        }
+        Map<UUID, CommunityDto> rows = new HashMap<>();
+        communityRepository.findSummariesByIdIn(ids).forEach(summary -> rows.put(summary.getId(), CommunityService.toDto(summary)));
+
+        Snapshot current = snapshot;
+        boolean reorder = false;
+        for (UUID id : ids) {
+            CommunityDto row = rows.get(id);
+            CommunityDto old = current.find(id);
+            reorder |= row == null || old == null || !row.getName().equals(old.getName()); // added, deleted or renamed
+        }
+        install(reorder ? rebuild(current, ids, rows) : patch(current, rows));
+    }
+
+    private Snapshot rebuild(Snapshot base, List<UUID> ids, Map<UUID, CommunityDto> rows) {
+        List<CommunityDto> items = new ArrayList<>(base.getItems());
+        Set<UUID> removed = Set.copyOf(ids);
+        items.removeIf(dto -> removed.contains(dto.getId()));
+        items.addAll(rows.values());
+        return build(items);
+    }
+
+    // Caller holds writeLock
+    private Snapshot install(Snapshot next) {
+        snapshot = next;
+        logger.debug("Community catalog version {} ({} communities)", next.getVersion(), next.getItems().size());
+        return next;
+    }
+
+    private Snapshot build(List<CommunityDto> items) {
+        items.sort(ORDER);
+        int size = items.size();
+        Map<UUID, Integer> positions = new HashMap<>(size * 2);
+        byte[][] fragments = new byte[size][];
+        long[] hashes = new long[size * 2];
+        for (int i = 0; i < size; i++) {
+            positions.put(items.get(i).getId(), i);
+            fragments[i] = toJson(items.get(i));
+            hashInto(fragments[i], hashes, i);
+        }
+        return new Snapshot(nextVersion(), Collections.unmodifiableList(items), Collections.unmodifiableMap(positions),
+                fragments, hashes, CommunityNameIndex.build(items));
+    }
+
+    // Every row keeps its name, so every row keeps its position
+    private Snapshot patch(Snapshot base, Map<UUID, CommunityDto> rows) {
+        CommunityDto[] items = base.getItems().toArray(new CommunityDto[0]);
+        byte[][] fragments = base.fragments.clone();
+        long[] hashes = base.hashes.clone();
+        rows.forEach((id, row) -> {
+            int position = base.positions.get(id);
+            items[position] = row;
+            fragments[position] = toJson(row);
+            hashInto(fragments[position], hashes, position);
+        });
+        return new Snapshot(nextVersion(), Collections.unmodifiableList(Arrays.asList(items)), base.positions,
+                fragments, hashes, base.getNameIndex().withCommunities(items));
+    }
+
+    private long nextVersion() {
+        return snapshot == null ? 1 : snapshot.getVersion() + 1;
+    }
+
+    private byte[] toJson(CommunityDto dto) {
+        try {
+            return objectMapper.writeValueAsBytes(dto);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize community " + dto.getId(), e);
+        }
+    }
+
+    private static void hashInto(byte[] fragment, long[] hashes, int position) {
+        try {
+            ByteBuffer hash = ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(fragment));
+            hashes[position * 2] = hash.getLong();
+            hashes[position * 2 + 1] = hash.getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    @Getter
+    public static final class Snapshot {
+        private final long version;
+        private final List<CommunityDto> items;
+        private final byte[] json;
+        private final String etag;
+        private final CommunityNameIndex nameIndex;
+        @Getter(AccessLevel.NONE)
+        private final Map<UUID, Integer> positions; // shared by patched snapshots, whose order does not change
+        @Getter(AccessLevel.NONE)
+        private final byte[][] fragments; // JSON of each item
+        @Getter(AccessLevel.NONE)
+        private final long[] hashes; // 128 bits of SHA-256 per fragment
+
+        private Snapshot(long version, List<CommunityDto> items, Map<UUID, Integer> positions, byte[][] fragments,
+                         long[] hashes, CommunityNameIndex nameIndex) {
+            this.version = version;
+            this.items = items;
+            this.positions = positions;
+            this.fragments = fragments;
+            this.hashes = hashes;
+            this.nameIndex = nameIndex;
+            this.json = assemble(fragments);
+            this.etag = etagOf(hashes);
+        }
+
+        public CommunityDto find(UUID communityId) {
+            Integer position = positions.get(communityId);
+            return position != null ? items.get(position) : null;
+        }
+
+        private static byte[] assemble(byte[][] fragments) {
+            int length = 2 + Math.max(0, fragments.length - 1);
+            for (byte[] fragment : fragments) {
+                length += fragment.length;
+            }
+            ByteBuffer json = ByteBuffer.allocate(length).put((byte) '[');
+            for (int i = 0; i < fragments.length; i++) {
+                if (i > 0) {
+                    json.put((byte) ',');
+                }
+                json.put(fragments[i]);
+            }
+            return json.put((byte) ']').array();
+        }
+
+        // Strong validator: equal bytes, equal tag, on every node. The items are in a fixed order, so a sum of
+        // per-item hashes identifies the encoding and a patch does not have to hash the whole catalog again.
+        private static String etagOf(long[] hashes) {
+            long high = hashes.length / 2;
+            long low = 0;
+            for (int i = 0; i < hashes.length; i += 2) {
+                high += hashes[i];
+                low += hashes[i + 1];
+            }
+            byte[] tag = ByteBuffer.allocate(16).putLong(high).putLong(low).array();
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(tag) + "\"";
+        }
+    }
+}
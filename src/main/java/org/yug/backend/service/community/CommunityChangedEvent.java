@@ -0,0 +1,10 @@
+package org.yug.backend.service.community;
+
+import java.util.UUID;
+
+/**
+ * Published when a community's catalog entry changes (created, joined, left). Handled after commit, so listeners
+ * only ever see committed state.
+ */
+public record CommunityChangedEvent(UUID communityId) {
+}
@@ -0,0 +1,263 @@
+package org.yug.backend.service.community;
+
+import org.yug.backend.dto.community.CommunityDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable typeahead index over community names, built alongside each catalog snapshot.
+ * <p>
+ * Queries of three or more characters intersect trigram posting lists and then confirm the substring, so only
+ * communities that really contain the query are touched. Shorter queries binary-search a sorted array of name
+ * words for the prefix. Matches rank by quality (exact, name prefix, word prefix, anywhere), then member count,
+ * then name.
+ */
+public final class CommunityNameIndex {
+
+    private static final int EXACT = 0;
+    private static final int NAME_PREFIX = 1;
+    private static final int WORD_PREFIX = 2;
+    private static final int SUBSTRING = 3;
+    private static final int[] NO_POSTINGS = new int[0];
+    private static final int MAX_RANKED_MEMBERS = (1 << 30) - 1;
+
+    private final CommunityDto[] communities;
+    private final String[] names; // normalized, same order as communities
+    private final int[] nameRank; // position of each community in name order, the last ranking tie-break
+    private final int[] byNameRank; // inverse of nameRank
+    private final Map<Long, int[]> trigrams;
+    private final String[] words; // every normalized word of every name, sorted
+    private final int[] wordOwners; // communities ordinal for words[i]
+
+    private CommunityNameIndex(CommunityDto[] communities, String[] names, Map<Long, int[]> trigrams, String[] words, int[] wordOwners) {
+        this.communities = communities;
+        this.names = names;
+        this.byNameRank = IntStream.range(0, names.length).boxed()
+                .sorted(Comparator.comparing(ordinal -> names[ordinal]))
+                .mapToInt(Integer::intValue).toArray();
+        this.nameRank = new int[names.length];
+        for (int rank = 0; rank < byNameRank.length; rank++) {
+            nameRank[byNameRank[rank]] = rank;
+        }
+        this.trigrams = trigrams;
+        this.words = words;
+        this.wordOwners = wordOwners;
+    }
+
+    private CommunityNameIndex(CommunityNameIndex base, CommunityDto[] communities) {
+        this.communities = communities;
+        this.names = base.names;
+        this.nameRank = base.nameRank;
+        this.byNameRank = base.byNameRank;
+        this.trigrams = base.trigrams;
+        this.words = base.words;
+        this.wordOwners = base.wordOwners;
+    }
+
+    public static CommunityNameIndex build(List<CommunityDto> items) {
+        CommunityDto[] communities = items.toArray(new CommunityDto[0]);
+        String[] names = new String[communities.length];
+        Map<Long, IntList> postings = new HashMap<>();
+        List<Word> wordList = new ArrayList<>();
+
+        for (int ordinal = 0; ordinal < communities.length; ordinal++) {
+            String name = normalize(communities[ordinal].getName());
+            names[ordinal] = name;
+            for (int i = 0; i + 3 <= name.length(); i++) {
+                IntList list = postings.computeIfAbsent(trigram(name, i), key -> new IntList());
+                if (list.last() != ordinal) { // ordinals ascend, so each list stays sorted and duplicate-free
+                    list.add(ordinal);
+                }
+            }
+            int start = -1;
+            for (int i = 0; i <= name.length(); i++) {
+                boolean wordChar = i < name.length() && Character.isLetterOrDigit(name.charAt(i));
+                if (wordChar && start < 0) {
+                    start = i;
+                } else if (!wordChar && start >= 0) {
+                    wordList.add(new Word(name.substring(start), ordinal)); // rest of the name, so "web d" still matches
+                    start = -1;
+                }
+            }
+        }
+
+        Map<Long, int[]> trigrams = new HashMap<>(postings.size() * 2);
+        postings.forEach((key, list) -> trigrams.put(key, list.toArray()));
+        wordList.sort(Comparator.comparing(Word::text));
+        String[] words = new String[wordList.size()];
+        int[] wordOwners = new int[wordList.size()];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = wordList.get(i).text();
+            wordOwners[i] = wordList.get(i).ordinal();
+        }
+        return new CommunityNameIndex(communities, names, trigrams, words, wordOwners);
+    }
+
+    /**
+     * This index over updated copies of the same communities, which must have the same names in the same order
+     * (new member counts, say). Shares every structure derived from names instead of rebuilding them.
+     */
+    public CommunityNameIndex withCommunities(CommunityDto[] communities) {
+        if (communities.length != names.length) {
+            throw new IllegalArgumentException("Expected " + names.length + " communities, got " + communities.length);
+        }
+        return new CommunityNameIndex(this, communities);
+    }
+
+    /**
+     * Best {@code limit} communities whose name contains {@code query}, case-insensitively.
+     */
+    public List<CommunityDto> search(String query, int limit) {
+        String q = normalize(query);
+        if (q.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        int[] candidates = q.length() >= 3 ? trigramCandidates(q) : prefixCandidates(q);
+
+        // Rank with one primitive sort: quality, then more members, then name, packed into a long per match
+        long[] keys = new long[candidates.length];
+        int n = 0;
+        for (int ordinal : candidates) {
+            int quality = quality(names[ordinal], q);
+            if (quality >= 0) {
+                int members = Math.min(memberCount(communities[ordinal]), MAX_RANKED_MEMBERS);
+                keys[n++] = ((long) quality << 61) | ((long) (MAX_RANKED_MEMBERS - members) << 31) | nameRank[ordinal];
+            }
+        }
+        Arrays.sort(keys, 0, n);
+
+        List<CommunityDto> result = new ArrayList<>(Math.min(limit, n));
+        for (int i = 0; i < n && i < limit; i++) {
+            result.add(communities[byNameRank[(int) (keys[i] & Integer.MAX_VALUE)]]);
+        }
+        return result;
+    }
+
+    private int[] trigramCandidates(String q) {
+        int count = q.length() - 2;
+        int[][] lists = new int[count][];
+        for (int i = 0; i < count; i++) {
+            lists[i] = trigrams.getOrDefault(trigram(q, i), NO_POSTINGS);
+            if (lists[i].length == 0) {
+                return NO_POSTINGS;
+            }
+        }
+        Arrays.sort(lists, Comparator.comparingInt(list -> list.length)); // intersect from the rarest trigram
+        int[] result = lists[0];
+        for (int i = 1; i < lists.length && result.length > 0; i++) {
+            result = intersect(result, lists[i]);
+        }
+        return result;
+    }
+
+    private int[] prefixCandidates(String q) {
+        int from = lowerBound(q);
+        IntList owners = new IntList();
+        for (int i = from; i < words.length && words[i].startsWith(q); i++) {
+            owners.add(wordOwners[i]);
+        }
+        int[] result = owners.toArray();
+        Arrays.sort(result);
+        return dedupe(result);
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = words.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (words[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int quality(String name, String q) {
+        if (name.equals(q)) {
+            return EXACT;
+        }
+        if (name.startsWith(q)) {
+            return NAME_PREFIX;
+        }
+        int best = -1;
+        for (int at = name.indexOf(q); at >= 0; at = name.indexOf(q, at + 1)) {
+            if (!Character.isLetterOrDigit(name.charAt(at - 1))) {
+                return WORD_PREFIX;
+            }
+            best = SUBSTRING;
+        }
+        return best;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int n = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static int[] dedupe(int[] sorted) {
+        int n = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (n == 0 || sorted[n - 1] != sorted[i]) {
+                sorted[n++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, n);
+    }
+
+    private static long trigram(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+
+    static String normalize(String s) {
+        return s == null ? "" : s.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static int memberCount(CommunityDto community) {
+        return community.getMemberCount() != null ? community.getMemberCount() : 0;
+    }
+
+    private record Word(String text, int ordinal) {
+    }
+
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int last() {
+            return size == 0 ? -1 : values[size - 1];
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
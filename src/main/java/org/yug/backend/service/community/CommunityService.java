@@ -2,23 +2,39 @@
 package org.yug.backend.service.community;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.yug.backend.dto.CursorPage;
 import org.yug.backend.dto.community.*;
 import org.yug.backend.model.*;
+import org.yug.backend.model.auth.AuthenticatedUser;
 import org.yug.backend.model.auth.User;
 import org.yug.backend.repository.*;
+import org.yug.backend.repository.projection.CommunitySummary;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import jakarta.persistence.EntityNotFoundException;
 
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Service
 public class CommunityService {
 
+    private static final int DEFAULT_FEED_PAGE_SIZE = 20;
+    private static final int MAX_FEED_PAGE_SIZE = 50;
+    private static final int DEFAULT_MEMBER_PAGE_SIZE = 50;
+    private static final int MAX_MEMBER_PAGE_SIZE = 200;
+    private static final int DEFAULT_SEARCH_LIMIT = 10;
+    private static final int MAX_SEARCH_LIMIT = 50;
+
     @Autowired
     private CommunityRepository communityRepository;
 
@@ -34,110 +50,176 @@ public class CommunityService {
     @Autowired
     private UserCommunityRepository userCommunityRepository;
 
+    @Autowired
+    private CommunityCatalog communityCatalog;
+
+    @Autowired
+    private MembershipIndex membershipIndex;
+
+    @Autowired
+    private PostLikeCounter likeCounter;
+
+    @Autowired
+    private HotPostRanking hotPostRanking;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     // --- Community Management ---
 
-    @Transactional(readOnly = true)
     public List<CommunityDto> getAllCommunities() {
-        return communityRepository.findAll().stream()
-                .map(community -> CommunityDto.builder()
-                        .id(community.getId())
-                        .name(community.getName())
-                        .description(community.getDescription())
-                        .imageUrl(community.getImageUrl())
-                        .memberCount(community.getUserCommunities().size()) // Dynamically calculate member count
-                        .build())
-                .collect(Collectors.toList());
+        return communityCatalog.current().getItems();
     }
 
+    /**
+     * The user's communities, from the membership index and the catalog. Only communities the catalog has not
+     * picked up yet (created on another node since its last refresh) are read from the database.
+     */
     @Transactional(readOnly = true)
-    public List<CommunityDto> getJoinedCommunities(String username) {
-        User user = userRepository.findByUsername(username);
-
+    public List<CommunityDto> getJoinedCommunities(AuthenticatedUser user) {
+        CommunityCatalog.Snapshot catalog = communityCatalog.current();
+        List<CommunityDto> joined = new ArrayList<>();
+        List<UUID> missing = new ArrayList<>();
+        for (UUID communityId : membershipIndex.joinedBy(user.getId())) {
+            CommunityDto dto = catalog.find(communityId);
+            if (dto != null) {
+                joined.add(dto);
+            } else {
+                missing.add(communityId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            communityRepository.findSummariesByIdIn(missing).forEach(summary -> joined.add(toDto(summary)));
+        }
+        return joined;
+    }
 
-        return userCommunityRepository.findByUser_Id(user.getId()).stream()
-                .map(UserCommunity::getCommunity) // Get the Community object from UserCommunity
-                .map(community -> CommunityDto.builder()
-                        .id(community.getId())
-                        .name(community.getName())
-                        .description(community.getDescription())
-                        .imageUrl(community.getImageUrl())
-                        .memberCount(community.getUserCommunities().size())
-                        .build())
-                .collect(Collectors.toList());
+    /**
+     * Which of {@code communityIds} the user has joined, answered from memory; for marking community cards.
+     */
+    public List<UUID> getJoinedAmong(AuthenticatedUser user, List<UUID> communityIds) {
+        return membershipIndex.joinedAmong(user.getId(), communityIds);
     }
 
 
     // --- Join/Leave Community ---
 
     @Transactional
-    public void joinCommunity(String username, UUID communityId) {
-        User user = userRepository.findByUsername(username);
-
-
-        Community community = communityRepository.findById(communityId)
-                .orElseThrow(() -> new EntityNotFoundException("Community not found with ID: " + communityId));
-
-        if (userCommunityRepository.existsByUser_IdAndCommunity_Id(user.getId(), communityId)) {
+    public void joinCommunity(AuthenticatedUser principal, UUID communityId) {
+        // Answered from memory. A membership the index holds may have ended on another node, so only that (rare)
+        // answer is confirmed in the database; a membership the index misses is rejected by the primary key below
+        if (membershipIndex.holds(principal.getId(), communityId)
+                && userCommunityRepository.existsByUser_IdAndCommunity_Id(principal.getId(), communityId)) {
             throw new RuntimeException("User already a member of this community.");
         }
-
-        UserCommunity userCommunity = new UserCommunity(user, community);
-        userCommunityRepository.save(userCommunity);
-
-        // Update member count in Community entity (bi-directional relationship handling)
-        community.addUserCommunity(userCommunity); // This internally updates memberCount
-        communityRepository.save(community);
+        // Bumping the counter first also checks that the community exists; a failed insert rolls it back
+        if (communityRepository.incrementMemberCount(communityId) == 0) {
+            throw new EntityNotFoundException("Community not found with ID: " + communityId);
+        }
+        try {
+            userCommunityRepository.insertMembership(principal.getId(), communityId, Instant.now());
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException("User already a member of this community."); // joined elsewhere, or concurrently
+        }
+        eventPublisher.publishEvent(new CommunityChangedEvent(communityId));
+        eventPublisher.publishEvent(new MembershipChangedEvent(principal.getId(), communityId, true));
     }
 
     @Transactional
-    public void leaveCommunity(String username, UUID communityId) {
-        User user = userRepository.findByUsername(username);
-
-
-        Community community = communityRepository.findById(communityId)
-                .orElseThrow(() -> new EntityNotFoundException("Community not found with ID: " + communityId));
-
-        UserCommunity userCommunity = userCommunityRepository.findByUser_IdAndCommunity_Id(user.getId(), communityId)
-                .orElseThrow(() -> new RuntimeException("User is not a member of this community."));
-
-        userCommunityRepository.delete(userCommunity);
-
-        // Update member count in Community entity (bi-directional relationship handling)
-        community.removeUserCommunity(userCommunity); // This internally updates memberCount
-        communityRepository.save(community);
+    public void leaveCommunity(AuthenticatedUser user, UUID communityId) {
+        if (!communityRepository.existsById(communityId)) {
+            throw new EntityNotFoundException("Community not found with ID: " + communityId);
+        }
+        if (userCommunityRepository.deleteMembership(user.getId(), communityId) == 0) {
+            throw new RuntimeException("User is not a member of this community.");
+        }
+        communityRepository.decrementMemberCount(communityId);
+        eventPublisher.publishEvent(new CommunityChangedEvent(communityId));
+        eventPublisher.publishEvent(new MembershipChangedEvent(user.getId(), communityId, false));
     }
 
     // --- Posts within a Community ---
 
+    /**
+     * The newest posts, without a cursor. Kept for existing clients; new ones should page with {@link #getPostFeed}.
+     */
     @Transactional(readOnly = true)
-    public List<CommunityPostDto> getPostsByCommunity(UUID communityId) {
-        Community community = communityRepository.findById(communityId)
-                .orElseThrow(() -> new EntityNotFoundException("Community not found with ID: " + communityId));
-
-        return postRepository.findByCommunityId(communityId).stream()
-                .map(post -> CommunityPostDto.builder()
-                        .id(post.getId())
-                        .title(post.getTitle())
-                        .content(post.getContent())
-                        .imageUrl(post.getImageUrl())
-                        .likesCount(post.getLikesCount())
-                        .authorName(post.getAuthor() != null ? post.getAuthor().getUsername() : "Unknown") // Get author's username
-                        .build())
-                .collect(Collectors.toList());
+    public List<CommunityPostDto> getPostsByCommunity(UUID communityId, Integer limit) {
+        return getPostFeed(communityId, null, limit).getItems();
     }
 
-    @Transactional
-    public CommunityPostDto createPost(String username, UUID communityId, PostCreateRequest request) {
-        User author = userRepository.findByUsername(username);
+    /**
+     * One page of the newest-first post feed, continuing after {@code cursor} (null for the first page).
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<CommunityPostDto> getPostFeed(UUID communityId, String cursor, Integer limit) {
+        requireCommunity(communityId);
+        int pageSize = limit == null ? DEFAULT_FEED_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_FEED_PAGE_SIZE));
+
+        // One extra row tells us whether there is a next page without a count query
+        Limit fetch = Limit.of(pageSize + 1);
+        List<CommunityPostDto> posts;
+        if (cursor == null || cursor.isBlank()) {
+            posts = postRepository.findFeed(communityId, fetch);
+        } else {
+            PostCursor after = PostCursor.decode(cursor);
+            posts = postRepository.findFeedAfter(communityId, after.createdAt(), after.id(), fetch);
+        }
+
+        String nextCursor = null;
+        if (posts.size() > pageSize) {
+            posts = posts.subList(0, pageSize);
+            CommunityPostDto last = posts.get(pageSize - 1);
+            nextCursor = new PostCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPage<>(likeCounter.applyPending(posts), nextCursor);
+    }
 
+    /**
+     * One page of posts in hot order (see {@link HotPostRanking}): within {@code communityId}, or across every
+     * community when it is null. The ranking is in memory; the page's posts are loaded in one query.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<CommunityPostDto> getHotPosts(UUID communityId, String cursor, Integer limit) {
+        if (communityId != null) {
+            requireCommunity(communityId);
+        }
+        int pageSize = limit == null ? DEFAULT_FEED_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_FEED_PAGE_SIZE));
+        HotCursor after = cursor == null || cursor.isBlank() ? null : HotCursor.decode(cursor);
+        List<HotPostRanking.Entry> ranked = hotPostRanking.top(communityId, after, pageSize + 1);
+
+        String nextCursor = null;
+        if (ranked.size() > pageSize) {
+            ranked = ranked.subList(0, pageSize);
+            HotPostRanking.Entry last = ranked.get(pageSize - 1);
+            nextCursor = new HotCursor(last.score(), last.postId()).encode();
+        }
+        if (ranked.isEmpty()) {
+            return new CursorPage<>(List.of(), nextCursor);
+        }
 
-        Community community = communityRepository.findById(communityId)
-                .orElseThrow(() -> new EntityNotFoundException("Community not found with ID: " + communityId));
+        Map<UUID, CommunityPostDto> byId = new HashMap<>();
+        postRepository.findDtosByIds(ranked.stream().map(HotPostRanking.Entry::postId).toList())
+                .forEach(post -> byId.put(post.getId(), post));
+        List<CommunityPostDto> posts = new ArrayList<>(ranked.size());
+        for (HotPostRanking.Entry entry : ranked) {
+            CommunityPostDto post = byId.get(entry.postId());
+            if (post != null) { // deleted since the ranking was built
+                posts.add(post);
+            }
+        }
+        return new CursorPage<>(likeCounter.applyPending(posts), nextCursor);
+    }
 
-        // Optional: Add a check if the user is actually a member of the community before allowing them to post
-        if (!userCommunityRepository.existsByUser_IdAndCommunity_Id(author.getId(), communityId)) {
+    @Transactional
+    public CommunityPostDto createPost(AuthenticatedUser principal, UUID communityId, PostCreateRequest request) {
+        // Membership implies the community exists, so the happy path is a memory lookup; references avoid loading either side
+        if (!membershipIndex.isMember(principal.getId(), communityId)) {
+            requireCommunity(communityId);
             throw new RuntimeException("User must be a member to post in this community.");
         }
+        User author = userRepository.getReferenceById(principal.getId());
+        Community community = communityRepository.getReferenceById(communityId);
 
         Post newPost = new Post();
         newPost.setTitle(request.getTitle());
@@ -148,68 +230,95 @@ public class CommunityService {
 
         Post savedPost = postRepository.save(newPost);
 
-        return CommunityPostDto.builder()
+        CommunityPostDto created = CommunityPostDto.builder()
                 .id(savedPost.getId())
+                .communityId(communityId)
                 .title(savedPost.getTitle())
                 .content(savedPost.getContent())
                 .imageUrl(savedPost.getImageUrl())
                 .likesCount(savedPost.getLikesCount())
-                .authorName(savedPost.getAuthor().getUsername())
+                .authorName(principal.getUsername())
+                .createdAt(savedPost.getCreatedAt())
                 .build();
+        eventPublisher.publishEvent(new PostCreatedEvent(created));
+        return created;
     }
 
     // --- Announcements within a Community ---
 
     @Transactional(readOnly = true)
     public List<CommunityAnnouncementDto> getAnnouncementsByCommunity(UUID communityId) {
-        Community community = communityRepository.findById(communityId)
-                .orElseThrow(() -> new EntityNotFoundException("Community not found with ID: " + communityId));
-
-        return announcementRepository.findByCommunityId(communityId).stream()
-                .map(announcement -> CommunityAnnouncementDto.builder()
-                        .id(announcement.getId())
-                        .title(announcement.getTitle())
-                        .content(announcement.getContent())
-                        .type(announcement.getType())
-                        .build())
-                .collect(Collectors.toList());
+        requireCommunity(communityId);
+        return announcementRepository.findDtosByCommunityId(communityId);
     }
 
     // --- Members of a Community ---
 
+    /**
+     * The first members by name, without a cursor. Kept for existing clients; new ones should page with {@link #getMemberPage}.
+     */
     @Transactional(readOnly = true)
-    public List<CommunityMemberDto> getMembersByCommunity(UUID communityId) {
-        Community community = communityRepository.findById(communityId)
-                .orElseThrow(() -> new EntityNotFoundException("Community not found with ID: " + communityId));
+    public List<CommunityMemberDto> getMembersByCommunity(UUID communityId, Integer limit) {
+        return getMemberPage(communityId, MemberSort.NAME, null, null, limit).getItems();
+    }
+
+    /**
+     * One page of members in {@code sort} order, optionally only those with {@code role}.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<CommunityMemberDto> getMemberPage(UUID communityId, MemberSort sort, User.UserRole role, String cursor, Integer limit) {
+        requireCommunity(communityId);
+        int pageSize = limit == null ? DEFAULT_MEMBER_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_MEMBER_PAGE_SIZE));
+        Limit fetch = Limit.of(pageSize + 1);
+        MemberCursor after = cursor == null || cursor.isBlank() ? null : MemberCursor.decode(cursor, sort);
+
+        List<CommunityMemberDto> members;
+        if (sort == MemberSort.JOINED) {
+            members = after == null
+                    ? userCommunityRepository.findMembersByJoined(communityId, role, fetch)
+                    : userCommunityRepository.findMembersByJoinedAfter(communityId, role, Instant.parse(after.key()), after.userId(), fetch);
+        } else {
+            members = after == null
+                    ? userCommunityRepository.findMembersByName(communityId, role, fetch)
+                    : userCommunityRepository.findMembersByNameAfter(communityId, role, after.key(), after.userId(), fetch);
+        }
 
-        return userCommunityRepository.findByCommunity_Id(communityId).stream()
-                .map(UserCommunity::getUser) // Get the User object from UserCommunity
-                .map(user -> CommunityMemberDto.builder()
-                        .userId(user.getId())
-                        .name(user.getProfile() != null ? user.getProfile().getName() : user.getUsername()) // Prefer profile name, fallback to username
-                        .email(user.getEmail())
-                        .role(user.getRole().name())
-                        .build())
-                .collect(Collectors.toList());
+        String nextCursor = null;
+        if (members.size() > pageSize) {
+            members = members.subList(0, pageSize);
+            CommunityMemberDto last = members.get(pageSize - 1);
+            String key = sort == MemberSort.JOINED ? last.getJoinedAt().toString() : last.getName();
+            nextCursor = new MemberCursor(sort, key, last.getUserId()).encode();
+        }
+        return new CursorPage<>(members, nextCursor);
+    }
+
+    /**
+     * Member total: the maintained counter when unfiltered, otherwise an index-backed count.
+     */
+    @Transactional(readOnly = true)
+    public long countMembers(UUID communityId, User.UserRole role) {
+        if (role == null) {
+            return communityRepository.findSummaryById(communityId)
+                    .map(community -> community.getMemberCount() != null ? community.getMemberCount() : 0)
+                    .orElseThrow(() -> new EntityNotFoundException("Community not found with ID: " + communityId));
+        }
+        requireCommunity(communityId);
+        return userCommunityRepository.countMembersWithRole(communityId, role);
     }
 
     // Add this method to your existing CommunityService.java
 // src/main/java/org/yug/backend/service/CommunityService.java
 
-    @Transactional(readOnly = true)
-    public List<CommunityDto> findCommunitiesByName(String name) {
-        return communityRepository.findByNameContainingIgnoreCase(name).stream()
-                .map(community -> CommunityDto.builder()
-                        .id(community.getId())
-                        .name(community.getName())
-                        .description(community.getDescription())
-                        .imageUrl(community.getImageUrl())
-                        .memberCount(community.getUserCommunities().size())
-                        .build())
-                .collect(Collectors.toList());
+    /**
+     * Typeahead search over the in-memory catalog, best matches first (see {@link CommunityNameIndex}).
+     */
+    public List<CommunityDto> findCommunitiesByName(String name, Integer limit) {
+        int max = limit == null ? DEFAULT_SEARCH_LIMIT : Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT));
+        return communityCatalog.current().getNameIndex().search(name, max);
     }
 
-
+    @Transactional
     public CommunityDto createCommunity(CommunityDto req) {
         Community community = new Community();
         community.setName(req.getName());
@@ -218,14 +327,31 @@ public class CommunityService {
 
 
         Community savedCommunity = communityRepository.save(community);
+        eventPublisher.publishEvent(new CommunityChangedEvent(savedCommunity.getId()));
 
         return CommunityDto.builder()
                 .id(savedCommunity.getId())
                 .name(savedCommunity.getName())
                 .description(savedCommunity.getDescription())
                 .imageUrl(savedCommunity.getImageUrl())
-                .memberCount(savedCommunity.getUserCommunities().size())
+                .memberCount(savedCommunity.getMemberCount())
                 .build();
     }
 
-}
\ No newline at end of file
+    static CommunityDto toDto(CommunitySummary community) {
+        return CommunityDto.builder()
+                .id(community.getId())
+                .name(community.getName())
+                .description(community.getDescription())
+                .imageUrl(community.getImageUrl())
+                .memberCount(community.getMemberCount() != null ? community.getMemberCount() : 0)
+                .build();
+    }
+
+    private void requireCommunity(UUID communityId) {
+        if (!communityRepository.existsById(communityId)) {
+            throw new EntityNotFoundException("Community not found with ID: " + communityId);
+        }
+    }
+
+}
@@ -0,0 +1,274 @@
+package org.yug.backend.service.community;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.yug.backend.dto.CursorPage;
+import org.yug.backend.dto.community.CommunityPostDto;
+import org.yug.backend.model.auth.AuthenticatedUser;
+import org.yug.backend.repository.PostRepository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.UUID;
+
+/**
+ * The home feed: newest posts across every community the user has joined.
+ * <p>
+ * Each community's newest posts are kept in memory as a {@link Window}, extended as posts are created here. A page
+ * is a k-way merge of the user's windows: a heap holding one head per community, popped {@code limit + 1} times, and
+ * no query ever lists the user's communities. Posts that are not in memory are stood for by a sentinel keyed by the
+ * position they are known to be older than (a window's last post, or the cursor). Only a sentinel that reaches the
+ * top of the heap is read from the database, and sentinels with the same key are read together in one query, so
+ * communities without a window or whose window ends before the cursor cost one query between them rather than one
+ * each. Reading from the top seeds windows for the communities it covered. Windows expire after a short time so
+ * posts created on other nodes show up. Like counts are not taken from the windows: each page reads them afresh.
+ */
+@Service
+public class HomeFeedService {
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 50;
+
+    // Newest first, in the same order as the feed queries (see PostCursor.ID_ORDER)
+    static final Comparator<CommunityPostDto> NEWEST_FIRST = Comparator.comparing(PostCursor::of, PostCursor.NEWEST_FIRST);
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private MembershipIndex membershipIndex;
+
+    @Autowired
+    private PostLikeCounter likeCounter;
+
+    private final int windowSize;
+    private final Cache<UUID, Window> windows;
+
+    public HomeFeedService(@Value("${app.feed.window-size:100}") int windowSize,
+                           @Value("${app.feed.max-communities:5000}") long maxCommunities,
+                           @Value("${app.feed.window-ttl:60s}") Duration windowTtl,
+                           MeterRegistry meterRegistry) {
+        this.windowSize = windowSize;
+        this.windows = Caffeine.newBuilder()
+                .maximumSize(maxCommunities)
+                .expireAfterWrite(windowTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, windows, "feed.windows");
+    }
+
+    /**
+     * One page of the user's home feed, continuing after {@code cursor} (null for the first page).
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<CommunityPostDto> getHomeFeed(AuthenticatedUser user, String cursor, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        PostCursor after = cursor == null || cursor.isBlank() ? null : PostCursor.decode(cursor);
+
+        // A sentinel's key is its bound; null (the top of the feed) sorts before every post
+        PriorityQueue<Source> heap = new PriorityQueue<>(Comparator.comparing(Source::key, Comparator.nullsFirst(PostCursor.NEWEST_FIRST)));
+        List<UUID> unread = new ArrayList<>();
+        for (UUID communityId : membershipIndex.joinedBy(user.getId())) {
+            Window window = windows.getIfPresent(communityId);
+            if (window == null) {
+                unread.add(communityId);
+            } else {
+                Source source = window.after(communityId, after);
+                if (source != null) {
+                    heap.add(source);
+                }
+            }
+        }
+        if (!unread.isEmpty()) {
+            heap.add(new Source(unread, List.of(), after));
+        }
+
+        // One extra post tells us whether there is a next page
+        List<CommunityPostDto> posts = new ArrayList<>(pageSize + 1);
+        while (posts.size() <= pageSize && !heap.isEmpty()) {
+            Source source = heap.poll();
+            if (source.head() == null) {
+                // Nothing in memory is newer than what this sentinel stands for: read it, with every sentinel sharing its bound
+                List<UUID> communityIds = new ArrayList<>(source.communityIds);
+                while (!heap.isEmpty() && heap.peek().head() == null && Objects.equals(heap.peek().bound, source.bound)) {
+                    communityIds.addAll(heap.poll().communityIds);
+                }
+                Source read = read(communityIds, source.bound, pageSize + 1 - posts.size());
+                if (read != null) {
+                    heap.add(read);
+                }
+                continue;
+            }
+            posts.add(source.head());
+            if (source.advance()) {
+                heap.add(source);
+            }
+        }
+
+        String nextCursor = null;
+        if (posts.size() > pageSize) {
+            posts = posts.subList(0, pageSize);
+            nextCursor = PostCursor.of(posts.get(pageSize - 1)).encode();
+        }
+        return new CursorPage<>(withCurrentLikes(posts), nextCursor);
+    }
+
+    // The newest `needed` posts of these communities older than `bound` (null: from the top), as a source
+    private Source read(List<UUID> communityIds, PostCursor bound, int needed) {
+        List<CommunityPostDto> rows;
+        int limit;
+        if (bound == null) {
+            limit = Math.max(needed, windowSize); // read enough to be worth keeping as windows
+            rows = postRepository.findFeedIn(communityIds, Limit.of(limit));
+            seedWindows(communityIds, rows, rows.size() >= limit);
+        } else {
+            limit = needed;
+            rows = postRepository.findFeedAfterIn(communityIds, bound.createdAt(), bound.id(), Limit.of(limit));
+        }
+        if (rows.isEmpty()) {
+            return null;
+        }
+        return new Source(communityIds, rows, rows.size() >= limit ? PostCursor.of(rows.get(rows.size() - 1)) : null);
+    }
+
+    // Each community's rows from a read from the top are its newest posts, and any it has beyond them are older than
+    // the last row read: a valid window even when the community got no rows at all.
+    private void seedWindows(List<UUID> communityIds, List<CommunityPostDto> rows, boolean truncated) {
+        PostCursor end = truncated ? PostCursor.of(rows.get(rows.size() - 1)) : null;
+        Map<UUID, List<CommunityPostDto>> byCommunity = new HashMap<>();
+        communityIds.forEach(id -> byCommunity.put(id, new ArrayList<>()));
+        rows.forEach(row -> byCommunity.computeIfAbsent(row.getCommunityId(), id -> new ArrayList<>()).add(row));
+        byCommunity.forEach((id, posts) ->
+                windows.asMap().putIfAbsent(id, new Window(Collections.unmodifiableList(posts), !truncated, end)));
+    }
+
+    // Windows hold like counts from when they were loaded; the page gets fresh copies with the current counts
+    private List<CommunityPostDto> withCurrentLikes(List<CommunityPostDto> posts) {
+        if (posts.isEmpty()) {
+            return posts;
+        }
+        Map<UUID, Integer> persisted = new HashMap<>();
+        postRepository.findLikeCountsByIds(posts.stream().map(CommunityPostDto::getId).toList())
+                .forEach(row -> persisted.put(row.getId(), row.getLikesCount()));
+        List<CommunityPostDto> current = new ArrayList<>(posts.size());
+        for (CommunityPostDto post : posts) {
+            int likes = likeCounter.effectiveCount(post.getId(), persisted.getOrDefault(post.getId(), post.getLikesCount()));
+            current.add(new CommunityPostDto(post.getId(), post.getCommunityId(), post.getTitle(), post.getContent(),
+                    post.getImageUrl(), likes, post.getAuthorName(), post.getCreatedAt()));
+        }
+        return current;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostCreated(PostCreatedEvent event) {
+        CommunityPostDto post = event.post();
+        if (post.getCreatedAt() == null) {
+            windows.invalidate(post.getCommunityId());
+            return;
+        }
+        // Only a window already in memory is extended; otherwise the next read loads it with this post included
+        windows.asMap().computeIfPresent(post.getCommunityId(), (id, window) -> window.prepend(post, windowSize));
+    }
+
+    /**
+     * A community's newest posts, newest first. {@code complete} means there are no other posts in the database;
+     * otherwise all the others are older than {@code end}. Never modified; a new post produces a new window.
+     */
+    record Window(List<CommunityPostDto> posts, boolean complete, PostCursor end) {
+
+        Window prepend(CommunityPostDto post, int maxSize) {
+            if (posts.stream().anyMatch(existing -> existing.getId().equals(post.getId()))) {
+                return this;
+            }
+            List<CommunityPostDto> next = new ArrayList<>(Math.min(posts.size() + 1, maxSize));
+            next.add(post);
+            next.addAll(posts);
+            next.sort(NEWEST_FIRST);
+            if (next.size() <= maxSize) {
+                return new Window(Collections.unmodifiableList(next), complete, end);
+            }
+            next = new ArrayList<>(next.subList(0, maxSize));
+            return new Window(Collections.unmodifiableList(next), false, PostCursor.of(next.get(maxSize - 1)));
+        }
+
+        // This window's posts older than the cursor, or null if it has none and the database has none either
+        Source after(UUID communityId, PostCursor cursor) {
+            int from = firstAfter(cursor);
+            if (complete) {
+                return from < posts.size() ? new Source(List.of(communityId), posts.subList(from, posts.size()), null) : null;
+            }
+            // Anything not in the window is older than both the window's end and the cursor
+            PostCursor bound = cursor == null || PostCursor.NEWEST_FIRST.compare(end, cursor) > 0 ? end : cursor;
+            return new Source(List.of(communityId), posts.subList(from, posts.size()), bound);
+        }
+
+        // Index of the first post strictly older than the cursor position
+        int firstAfter(PostCursor cursor) {
+            if (cursor == null) {
+                return 0;
+            }
+            int low = 0;
+            int high = posts.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (PostCursor.NEWEST_FIRST.compare(PostCursor.of(posts.get(mid)), cursor) <= 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * Posts of one or more communities, newest first, then (if {@code more}) a sentinel: every other post of these
+     * communities that can appear on the page is older than {@code bound}, and is read when the sentinel reaches the
+     * top of the heap. A sentinel with a null bound stands for the communities' newest posts.
+     */
+    private static final class Source {
+        private final List<UUID> communityIds;
+        private final List<CommunityPostDto> posts;
+        private final PostCursor bound;
+        private final boolean more;
+        private int position;
+
+        // No bound and no posts: the newest posts of communities not read yet. No bound otherwise: nothing more
+        Source(List<UUID> communityIds, List<CommunityPostDto> posts, PostCursor bound) {
+            this.communityIds = communityIds;
+            this.posts = posts;
+            this.bound = bound;
+            this.more = bound != null || posts.isEmpty();
+        }
+
+        CommunityPostDto head() {
+            return position < posts.size() ? posts.get(position) : null;
+        }
+
+        PostCursor key() {
+            CommunityPostDto head = head();
+            return head != null ? PostCursor.of(head) : bound;
+        }
+
+        // Moves past the head; false once neither posts nor a sentinel are left
+        boolean advance() {
+            position++;
+            return head() != null || more;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package org.yug.backend.service.community;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in a hot-ranked listing: the score and id of the last post returned. A post whose score changes between
+ * pages may be skipped or seen twice; that is the price of ranking by a live score.
+ */
+record HotCursor(double score, UUID id) {
+
+    String encode() {
+        String raw = score + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static HotCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new HotCursor(Double.parseDouble(raw.substring(0, separator)), UUID.fromString(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package org.yug.backend.service.community;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.yug.backend.dto.community.CommunityPostDto;
+import org.yug.backend.repository.PostRepository;
+import org.yug.backend.repository.projection.PostRankRow;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * "Hot" order for posts: likes, decayed by age, kept sorted in memory per community and across all communities.
+ * <p>
+ * A post's weight is {@code (1 + likes) * 2^(-age / halfLife)}. Comparing two posts by that weight gives the same
+ * answer at any moment, because both decay by the same factor; taking the log turns it into a score that never
+ * changes on its own, {@code log2(1 + likes) + createdAt / halfLife}. A post therefore only moves when it is created
+ * or liked, and moving it is a remove and an insert in a skip list, O(log n), with no periodic re-sort.
+ * <p>
+ * The ranking is rebuilt from the {@code posts} table at startup and periodically after that, which also picks up
+ * posts and likes from other nodes; in between it follows this node's commits. Likes reach the ranking through
+ * {@link PostLikeCounter}, and the rebuild reads the table while the counter is frozen and swaps the new ranking in
+ * before it thaws, so each like is in the rows, the pending deltas or a later update, never in none or two of them.
+ * Posts created while a rebuild runs are kept aside and added to the new ranking as it is swapped in.
+ */
+@Component
+public class HotPostRanking {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotPostRanking.class);
+
+    static final Comparator<Entry> HOTTEST_FIRST = Comparator
+            .comparingDouble(Entry::score).reversed()
+            .thenComparing(Entry::postId);
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private PostLikeCounter likeCounter;
+
+    private final double halfLifeSeconds;
+    private final ReentrantLock rebuildLock = new ReentrantLock(); // a lock, not a monitor: the rebuild queries under it, and a virtual thread must not pin there
+    private volatile State state;
+    private final Object createdLock = new Object();
+    private List<CommunityPostDto> createdDuringRebuild; // non-null while a rebuild runs; guarded by createdLock
+
+    public HotPostRanking(@Value("${app.posts.hot.half-life:12h}") Duration halfLife, MeterRegistry meterRegistry) {
+        this.halfLifeSeconds = halfLife.toSeconds();
+        Gauge.builder("posts.hot.ranked", this, ranking -> ranking.state == null ? 0 : ranking.state.byPost.size())
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void followLikes() {
+        likeCounter.addListener(this::onLikeCounted);
+    }
+
+    /**
+     * Up to {@code limit} entries after {@code after} (null for the top), hottest first, within one community or,
+     * when {@code communityId} is null, across all of them.
+     */
+    public List<Entry> top(UUID communityId, HotCursor after, int limit) {
+        State current = current();
+        NavigableSet<Entry> ranked = communityId == null ? current.global : current.byCommunity.get(communityId);
+        if (ranked == null) {
+            return List.of();
+        }
+        if (after != null) {
+            ranked = ranked.tailSet(new Entry(after.id(), null, 0, null, after.score()), false);
+        }
+        List<Entry> entries = new ArrayList<>(limit);
+        Set<UUID> seen = new HashSet<>();
+        for (Entry entry : ranked) {
+            // A post being re-ranked is briefly present at both positions; show it once
+            if (!seen.add(entry.postId())) {
+                continue;
+            }
+            entries.add(entry);
+            if (entries.size() == limit) {
+                break;
+            }
+        }
+        return entries;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostCreated(PostCreatedEvent event) {
+        CommunityPostDto post = event.post();
+        synchronized (createdLock) {
+            if (createdDuringRebuild != null) {
+                createdDuringRebuild.add(post); // the rebuild's query may have missed it
+            }
+            State current = state;
+            if (current != null) {
+                insertCreated(current, post, post.getLikesCount() != null ? post.getLikesCount() : 0);
+            }
+        }
+    }
+
+    // Runs under the counter's lock, never during a rebuild's read
+    private void onLikeCounted(UUID postId, long delta) {
+        State current = state;
+        if (current == null) {
+            return; // not loaded yet; the first read loads everything
+        }
+        // compute() serializes changes to one post; different posts move concurrently
+        current.byPost.computeIfPresent(postId, (id, previous) -> {
+            Entry next = entry(id, previous.communityId(), (int) Math.max(0, previous.likes() + delta), previous.createdAt());
+            if (HOTTEST_FIRST.compare(next, previous) == 0) {
+                return next; // same place (e.g. an unlike at zero); the sets compare equal entries as one
+            }
+            current.insert(next); // insert before removing, so readers never miss the post
+            current.remove(previous);
+            return next;
+        });
+    }
+
+    // Built at startup so the first hot listing does not pay for the full scan
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    @Scheduled(initialDelayString = "${app.posts.hot.rebuild-interval-ms:600000}",
+            fixedDelayString = "${app.posts.hot.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        reload();
+    }
+
+    private State current() {
+        State current = state;
+        return current != null ? current : reload();
+    }
+
+    private State reload() {
+        rebuildLock.lock();
+        try {
+            synchronized (createdLock) {
+                createdDuringRebuild = new ArrayList<>();
+            }
+            return likeCounter.whileFrozen(() -> {
+                State next = new State();
+                List<PostRankRow> rows = postRepository.findAllRankRows();
+                for (PostRankRow row : rows) {
+                    int likes = likeCounter.effectiveCount(row.getId(), row.getLikesCount());
+                    Entry entry = entry(row.getId(), row.getCommunityId(), likes, row.getCreatedAt());
+                    next.byPost.put(entry.postId(), entry);
+                    next.insert(entry);
+                }
+                synchronized (createdLock) {
+                    // Created after the query; their likes so far are all still pending, as the flush is held off
+                    createdDuringRebuild.forEach(post -> insertCreated(next, post, likeCounter.effectiveCount(post.getId(), 0)));
+                    state = next;
+                }
+                logger.debug("Hot ranking rebuilt from {} posts", rows.size());
+                return next;
+            });
+        } finally {
+            synchronized (createdLock) {
+                createdDuringRebuild = null;
+            }
+            rebuildLock.unlock();
+        }
+    }
+
+    private void insertCreated(State target, CommunityPostDto post, int likes) {
+        Instant createdAt = post.getCreatedAt() != null ? post.getCreatedAt() : Instant.now();
+        target.byPost.computeIfAbsent(post.getId(), id -> {
+            Entry entry = entry(id, post.getCommunityId(), likes, createdAt);
+            target.insert(entry);
+            return entry;
+        });
+    }
+
+    private Entry entry(UUID postId, UUID communityId, int likes, Instant createdAt) {
+        double score = Math.log1p(likes) / Math.log(2) + createdAt.toEpochMilli() / 1000.0 / halfLifeSeconds;
+        return new Entry(postId, communityId, likes, createdAt, score);
+    }
+
+    /**
+     * One post's place in the ranking. Immutable; a like replaces it.
+     */
+    public record Entry(UUID postId, UUID communityId, int likes, Instant createdAt, double score) {
+    }
+
+    private static final class State {
+        final Map<UUID, Entry> byPost = new ConcurrentHashMap<>();
+        final Map<UUID, NavigableSet<Entry>> byCommunity = new ConcurrentHashMap<>();
+        final NavigableSet<Entry> global = new ConcurrentSkipListSet<>(HOTTEST_FIRST);
+
+        void insert(Entry entry) {
+            global.add(entry);
+            byCommunity.computeIfAbsent(entry.communityId(), id -> new ConcurrentSkipListSet<>(HOTTEST_FIRST)).add(entry);
+        }
+
+        void remove(Entry entry) {
+            global.remove(entry);
+            NavigableSet<Entry> community = byCommunity.get(entry.communityId());
+            if (community != null) {
+                community.remove(entry);
+            }
+        }
+    }
+}
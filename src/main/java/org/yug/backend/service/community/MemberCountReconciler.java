@@ -0,0 +1,50 @@
+package org.yug.backend.service.community;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.yug.backend.repository.CommunityRepository;
+import org.yug.backend.repository.UserCommunityRepository;
+
+import java.time.Instant;
+
+/**
+ * Background repair for {@code communities.member_count}. Joins and leaves keep the counter exact on their own; this
+ * catches drift from writes that bypass them (manual SQL, imports) with one set-based update. On startup it also
+ * gives memberships without a {@code joined_at} (older than the column, or imported) one, so they can be paged.
+ */
+@Component
+public class MemberCountReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(MemberCountReconciler.class);
+
+    @Autowired
+    private CommunityRepository communityRepository;
+
+    @Autowired
+    private UserCommunityRepository userCommunityRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillJoinedAt() {
+        int filled = userCommunityRepository.backfillJoinedAt(Instant.now());
+        if (filled > 0) {
+            logger.warn("Set joined_at on {} memberships that had none", filled);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.community.member-count.reconcile-initial-delay-ms:60000}",
+            fixedDelayString = "${app.community.member-count.reconcile-interval-ms:3600000}")
+    @Transactional
+    public void reconcile() {
+        int repaired = communityRepository.reconcileMemberCounts();
+        if (repaired > 0) {
+            logger.warn("Repaired member_count on {} communities", repaired);
+        }
+    }
+}
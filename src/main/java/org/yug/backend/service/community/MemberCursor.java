@@ -0,0 +1,38 @@
+package org.yug.backend.service.community;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in a member listing: the sort it belongs to, the last member's sort key and user id. Opaque base64url,
+ * like {@link PostCursor}.
+ */
+record MemberCursor(MemberSort sort, String key, UUID userId) {
+
+    private static final int UUID_LENGTH = 36;
+
+    String encode() {
+        String raw = sort.name() + "|" + key + "|" + userId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static MemberCursor decode(String cursor, MemberSort expected) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            // The key may itself contain '|' (it can be a display name), so split from both ends
+            int first = raw.indexOf('|');
+            int last = raw.length() - UUID_LENGTH - 1;
+            if (first < 0 || last < first || raw.charAt(last) != '|') {
+                throw new IllegalArgumentException();
+            }
+            MemberSort sort = MemberSort.valueOf(raw.substring(0, first));
+            if (sort != expected) {
+                throw new IllegalArgumentException();
+            }
+            return new MemberCursor(sort, raw.substring(first + 1, last), UUID.fromString(raw.substring(last + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package org.yug.backend.service.community;
+
+import java.util.Locale;
+
+/**
+ * Orders for the paged member listing: display name A-Z, or most recently joined first.
+ */
+public enum MemberSort {
+    NAME,
+    JOINED;
+
+    public static MemberSort parse(String value) {
+        if (value == null || value.isBlank()) {
+            return NAME;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown sort '" + value + "', expected name or joined");
+        }
+    }
+}
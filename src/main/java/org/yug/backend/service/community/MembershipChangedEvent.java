@@ -0,0 +1,9 @@
+package org.yug.backend.service.community;
+
+import java.util.UUID;
+
+/**
+ * Published when a user joins ({@code member} true) or leaves a community. Handled after commit.
+ */
+public record MembershipChangedEvent(UUID userId, UUID communityId, boolean member) {
+}
@@ -0,0 +1,201 @@
+package org.yug.backend.service.community;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.yug.backend.repository.UserCommunityRepository;
+import org.yug.backend.repository.projection.MembershipKey;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory copy of the user/community membership table, so "is this user a member?" does not cost a query.
+ * <p>
+ * Users are mapped to dense int ordinals and each community holds its members as a sorted {@code int[]}: a
+ * membership test is a hash lookup plus a binary search, and a community of 10,000 members costs 40 KB. Arrays are
+ * never modified once published; a join or leave builds a copy of that one community's array under a lock and swaps
+ * it in, so readers never wait. Changes are applied after commit, and a periodic reload picks up changes made on
+ * other nodes.
+ * <p>
+ * Between reloads a change made on another node can be missing here. {@link #isMember} therefore only trusts a
+ * positive answer and confirms a negative one against the database; {@link #joinedAmong} answers from memory alone
+ * and is meant for display. A leave made on another node can still be answered positively until the next reload,
+ * so the reload interval bounds how long such a user can keep posting.
+ */
+@Component
+public class MembershipIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(MembershipIndex.class);
+    private static final int[] EMPTY = new int[0];
+
+    @Autowired
+    private UserCommunityRepository userCommunityRepository;
+
+    // Ordinals are never reused or removed, so they stay valid across reloads
+    private final Map<UUID, Integer> ordinals = new ConcurrentHashMap<>();
+    private final AtomicInteger nextOrdinal = new AtomicInteger();
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile Map<UUID, int[]> members;
+
+    public MembershipIndex(MeterRegistry meterRegistry) {
+        Gauge.builder("community.membership.users", ordinals, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Whether the user belongs to the community. Answers from memory when the index knows of the membership;
+     * otherwise checks the database and remembers a membership it finds there.
+     */
+    public boolean isMember(UUID userId, UUID communityId) {
+        if (contains(current(), userId, communityId)) {
+            return true;
+        }
+        if (userCommunityRepository.existsByUser_IdAndCommunity_Id(userId, communityId)) {
+            apply(userId, communityId, true);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Whether the index holds the membership, from memory only. It can be a leave made on another node since the
+     * last reload, or miss a join made there.
+     */
+    public boolean holds(UUID userId, UUID communityId) {
+        return contains(current(), userId, communityId);
+    }
+
+    /**
+     * The communities among {@code communityIds} the user has joined, from memory only.
+     */
+    public List<UUID> joinedAmong(UUID userId, Collection<UUID> communityIds) {
+        Map<UUID, int[]> current = current();
+        List<UUID> joined = new ArrayList<>();
+        for (UUID communityId : communityIds) {
+            if (contains(current, userId, communityId)) {
+                joined.add(communityId);
+            }
+        }
+        return joined;
+    }
+
+    /**
+     * Every community the user has joined, from memory only.
+     */
+    public List<UUID> joinedBy(UUID userId) {
+        return joinedAmong(userId, current().keySet());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMembershipChanged(MembershipChangedEvent event) {
+        if (members == null) {
+            return; // not loaded yet; the first read loads everything
+        }
+        apply(event.userId(), event.communityId(), event.member());
+    }
+
+    @Scheduled(initialDelayString = "${app.community.membership.refresh-interval-ms:60000}",
+            fixedDelayString = "${app.community.membership.refresh-interval-ms:60000}")
+    public void refresh() {
+        reload();
+    }
+
+    private Map<UUID, int[]> current() {
+        Map<UUID, int[]> current = members;
+        return current != null ? current : reload();
+    }
+
+    private Map<UUID, int[]> reload() {
+        writeLock.lock();
+        try {
+            Map<UUID, IntList> building = new HashMap<>();
+            List<MembershipKey> rows = userCommunityRepository.findAllKeys();
+            for (MembershipKey row : rows) {
+                building.computeIfAbsent(row.getCommunityId(), id -> new IntList()).add(ordinalOf(row.getUserId()));
+            }
+            Map<UUID, int[]> loaded = new ConcurrentHashMap<>(Math.max(16, building.size() * 2));
+            building.forEach((communityId, list) -> loaded.put(communityId, list.toSortedArray()));
+            members = loaded;
+            logger.debug("Membership index loaded: {} memberships in {} communities", rows.size(), loaded.size());
+            return loaded;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void apply(UUID userId, UUID communityId, boolean member) {
+        int ordinal = ordinalOf(userId);
+        writeLock.lock();
+        try {
+            Map<UUID, int[]> current = members;
+            if (current == null) {
+                return;
+            }
+            int[] existing = current.getOrDefault(communityId, EMPTY);
+            int pos = Arrays.binarySearch(existing, ordinal);
+            if (member == pos >= 0) {
+                return; // already applied, e.g. by a reload that ran after the commit
+            }
+            int[] next;
+            if (member) {
+                int insertAt = -pos - 1;
+                next = new int[existing.length + 1];
+                System.arraycopy(existing, 0, next, 0, insertAt);
+                next[insertAt] = ordinal;
+                System.arraycopy(existing, insertAt, next, insertAt + 1, existing.length - insertAt);
+            } else {
+                next = new int[existing.length - 1];
+                System.arraycopy(existing, 0, next, 0, pos);
+                System.arraycopy(existing, pos + 1, next, pos, existing.length - pos - 1);
+            }
+            current.put(communityId, next);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private boolean contains(Map<UUID, int[]> current, UUID userId, UUID communityId) {
+        Integer ordinal = ordinals.get(userId);
+        if (ordinal == null) {
+            return false; // never seen in any membership
+        }
+        int[] communityMembers = current.get(communityId);
+        return communityMembers != null && Arrays.binarySearch(communityMembers, ordinal) >= 0;
+    }
+
+    private int ordinalOf(UUID userId) {
+        return ordinals.computeIfAbsent(userId, id -> nextOrdinal.getAndIncrement());
+    }
+
+    private static final class IntList {
+        private int[] values = new int[8];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toSortedArray() {
+            int[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package org.yug.backend.service.community;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.yug.backend.repository.PostRepository;
+
+import java.time.Instant;
+
+/**
+ * Gives posts without a usable {@code created_at} (older than the column, or a zero date left by adding it) one on
+ * startup. The feeds and the hot ranking all sort on that column, so this runs before the ranking's first build.
+ */
+@Component
+public class PostCreatedAtBackfill {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostCreatedAtBackfill.class);
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @Transactional
+    public void backfillCreatedAt() {
+        int filled = postRepository.backfillCreatedAt(Instant.now(), Instant.EPOCH);
+        if (filled > 0) {
+            logger.warn("Set created_at on {} posts that had none", filled);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package org.yug.backend.service.community;
+
+import org.yug.backend.dto.community.CommunityPostDto;
+
+/**
+ * Published by {@link CommunityService#createPost}, carrying the post as the feed returns it; handled after commit.
+ */
+public record PostCreatedEvent(CommunityPostDto post) {
+}
@@ -0,0 +1,49 @@
+package org.yug.backend.service.community;
+
+import org.yug.backend.dto.community.CommunityPostDto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * Position in a newest-first post feed: the (created_at, id) of the last post returned. Encoded as base64url so
+ * clients treat it as opaque and the format can change without breaking them.
+ */
+record PostCursor(Instant createdAt, UUID id) {
+
+    /**
+     * Post ids in the database's order: unsigned, byte by byte. {@link UUID#compareTo} compares signed longs and
+     * disagrees with it whenever the top bit differs, which would skip or repeat posts sharing a created_at.
+     */
+    static final Comparator<UUID> ID_ORDER = Comparator
+            .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+            .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+    // Feed order, the same as "order by created_at desc, id desc"
+    static final Comparator<PostCursor> NEWEST_FIRST = Comparator
+            .comparing(PostCursor::createdAt, Comparator.reverseOrder())
+            .thenComparing(PostCursor::id, ID_ORDER.reversed());
+
+    static PostCursor of(CommunityPostDto post) {
+        return new PostCursor(post.getCreatedAt(), post.getId());
+    }
+
+    String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static PostCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new PostCursor(Instant.parse(raw.substring(0, separator)), UUID.fromString(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
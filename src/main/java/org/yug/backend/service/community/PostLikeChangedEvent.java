@@ -0,0 +1,9 @@
+package org.yug.backend.service.community;
+
+import java.util.UUID;
+
+/**
+ * Published when a like is added ({@code delta} 1) or removed (-1); applied to the counter after commit.
+ */
+public record PostLikeChangedEvent(UUID postId, int delta) {
+}
@@ -0,0 +1,190 @@
+package org.yug.backend.service.community;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.yug.backend.dto.community.CommunityPostDto;
+import org.yug.backend.repository.PostRepository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Like-count changes not yet written to {@code posts.likes_count}.
+ * <p>
+ * Each post with pending changes has a {@link LongAdder}, which spreads concurrent updates over per-thread cells, so
+ * a post liked thousands of times a second contends neither on a lock here nor on its row in the database. A
+ * scheduled flush drains every adder and writes the deltas in a few bulk updates, one per distinct delta, so the row
+ * lock is taken once per flush instead of once per like. Readers add the pending delta to the persisted count.
+ * <p>
+ * Pending deltas live in this node only: a crash loses at most one flush interval of count changes, never the likes
+ * themselves, and the count can be rebuilt from {@code post_likes}.
+ * <p>
+ * Counting a change and flushing share a read lock; {@link #whileFrozen} takes it exclusively, so a reader that
+ * queries persisted counts under it sees every change exactly once, either in the rows or in the pending deltas.
+ */
+@Component
+public class PostLikeCounter {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostLikeCounter.class);
+    private static final int MAX_IDS_PER_UPDATE = 500;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final Map<UUID, LongAdder> pending = new ConcurrentHashMap<>();
+    private final List<BiConsumer<UUID, Long>> listeners = new CopyOnWriteArrayList<>();
+    private final ReentrantReadWriteLock countLock = new ReentrantReadWriteLock(); // flush holds it across JDBC
+
+    public PostLikeCounter(MeterRegistry meterRegistry) {
+        Gauge.builder("posts.likes.pending", pending, Map::size)
+                .description("Posts with like-count changes waiting to be flushed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Counts a committed like or unlike and tells the listeners, under the same lock, so no {@link #whileFrozen}
+     * reader sees one without the other.
+     */
+    public void add(UUID postId, long delta) {
+        countLock.readLock().lock();
+        try {
+            count(postId, delta);
+            listeners.forEach(listener -> listener.accept(postId, delta));
+        } finally {
+            countLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Registers a listener for {@link #add}. It runs under the counter's lock, so it must not block or call
+     * {@link #whileFrozen}.
+     */
+    public void addListener(BiConsumer<UUID, Long> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Runs {@code reader} with no change counted and no flush running, so persisted counts it queries plus
+     * {@link #effectiveCount} include each change once. Changes wait until it returns.
+     */
+    public <T> T whileFrozen(Supplier<T> reader) {
+        countLock.writeLock().lock();
+        try {
+            return reader.get();
+        } finally {
+            countLock.writeLock().unlock();
+        }
+    }
+
+    private void count(UUID postId, long delta) {
+        LongAdder adder = pending.computeIfAbsent(postId, id -> new LongAdder());
+        adder.add(delta);
+        if (pending.get(postId) != adder) {
+            // The flush evicted this adder as idle while we were adding to it: move what it holds to the live one
+            rescue(postId, adder);
+        }
+    }
+
+    public long pendingDelta(UUID postId) {
+        LongAdder adder = pending.get(postId);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    /**
+     * Persisted count plus the change not yet flushed.
+     */
+    public int effectiveCount(UUID postId, Integer persisted) {
+        return (int) Math.max(0, (persisted == null ? 0 : persisted) + pendingDelta(postId));
+    }
+
+    /**
+     * Sets each post's like count to its persisted value (as loaded) plus the pending delta.
+     */
+    public List<CommunityPostDto> applyPending(List<CommunityPostDto> posts) {
+        if (pending.isEmpty()) {
+            return posts;
+        }
+        for (CommunityPostDto post : posts) {
+            post.setLikesCount(effectiveCount(post.getId(), post.getLikesCount()));
+        }
+        return posts;
+    }
+
+    @Scheduled(fixedDelayString = "${app.likes.flush-interval-ms:1000}")
+    public void flush() {
+        countLock.readLock().lock();
+        try {
+            flushPending();
+        } finally {
+            countLock.readLock().unlock();
+        }
+    }
+
+    private void flushPending() {
+        // Group by delta: a burst of single likes across many posts becomes one "+1" update
+        Map<Integer, List<UUID>> byDelta = new HashMap<>();
+        for (Map.Entry<UUID, LongAdder> entry : pending.entrySet()) {
+            long delta = entry.getValue().sumThenReset();
+            if (delta == 0) {
+                evictIfIdle(entry.getKey(), entry.getValue());
+                continue;
+            }
+            byDelta.computeIfAbsent((int) delta, d -> new ArrayList<>()).add(entry.getKey());
+        }
+        if (byDelta.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> byDelta.forEach((delta, ids) -> {
+                for (int from = 0; from < ids.size(); from += MAX_IDS_PER_UPDATE) {
+                    postRepository.addLikes(delta, ids.subList(from, Math.min(from + MAX_IDS_PER_UPDATE, ids.size())));
+                }
+            }));
+            logger.debug("Flushed like counts for {} posts in {} updates", byDelta.values().stream().mapToInt(List::size).sum(), byDelta.size());
+        } catch (RuntimeException e) {
+            // Nothing was written; put the deltas back so the next flush retries them
+            byDelta.forEach((delta, ids) -> ids.forEach(id -> count(id, delta)));
+            logger.warn("Like count flush failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    // A post with nothing pending for a whole flush interval gives up its adder, so the map only holds active posts
+    private void evictIfIdle(UUID postId, LongAdder adder) {
+        if (pending.remove(postId, adder) && adder.sum() != 0) {
+            // An add landed between the drain and the removal
+            rescue(postId, adder);
+        }
+    }
+
+    private void rescue(UUID postId, LongAdder orphan) {
+        long delta = orphan.sumThenReset(); // per-cell get-and-set: concurrent rescuers each take a disjoint part
+        if (delta != 0) {
+            count(postId, delta);
+        }
+    }
+}
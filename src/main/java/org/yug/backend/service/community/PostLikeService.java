@@ -0,0 +1,82 @@
+package org.yug.backend.service.community;
+
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.yug.backend.model.auth.AuthenticatedUser;
+import org.yug.backend.repository.PostLikeRepository;
+import org.yug.backend.repository.PostRepository;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Likes and unlikes. The like row is written in the request's transaction; the post's counter only moves in
+ * memory (see {@link PostLikeCounter}) once that transaction commits.
+ */
+@Service
+public class PostLikeService {
+
+    @Autowired
+    private PostLikeRepository postLikeRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private PostLikeCounter likeCounter;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Records the user's like and returns the post's new like count.
+     */
+    @Transactional
+    public int like(AuthenticatedUser user, UUID postId) {
+        int inserted;
+        try {
+            inserted = postLikeRepository.insertLike(postId, user.getId(), Instant.now());
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException("Post already liked by this user."); // a concurrent like won the insert
+        }
+        if (inserted == 0) {
+            requirePost(postId);
+            throw new RuntimeException("Post already liked by this user.");
+        }
+        eventPublisher.publishEvent(new PostLikeChangedEvent(postId, 1));
+        return likeCounter.effectiveCount(postId, requirePost(postId)) + 1; // this like reaches the counter on commit
+    }
+
+    /**
+     * Removes the user's like and returns the post's new like count.
+     */
+    @Transactional
+    public int unlike(AuthenticatedUser user, UUID postId) {
+        Integer persisted = requirePost(postId);
+        if (postLikeRepository.deleteLike(postId, user.getId()) == 0) {
+            throw new RuntimeException("Post not liked by this user.");
+        }
+        eventPublisher.publishEvent(new PostLikeChangedEvent(postId, -1));
+        return Math.max(0, likeCounter.effectiveCount(postId, persisted) - 1);
+    }
+
+    @Transactional(readOnly = true)
+    public int getLikesCount(UUID postId) {
+        return likeCounter.effectiveCount(postId, requirePost(postId));
+    }
+
+    @TransactionalEventListener
+    public void onLikeChanged(PostLikeChangedEvent event) {
+        likeCounter.add(event.postId(), event.delta());
+    }
+
+    private Integer requirePost(UUID postId) {
+        return postRepository.findLikesCountById(postId)
+                .orElseThrow(() -> new EntityNotFoundException("Post not found with ID: " + postId));
+    }
+}
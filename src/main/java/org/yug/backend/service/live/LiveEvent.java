@@ -0,0 +1,24 @@
+package org.yug.backend.service.live;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * One event as queued for a subscriber. The data is serialized once when published, however many subscribers
+ * receive it; the emitter's event builder is not reusable, so it is created per send.
+ */
+record LiveEvent(String name, String json) {
+
+    /** Tells the client events were dropped and it should reload what it shows. */
+    static final LiveEvent RESYNC = new LiveEvent("resync", "{}");
+
+    /** An SSE comment: keeps proxies from closing an idle connection and finds dead ones. */
+    static final LiveEvent HEARTBEAT = new LiveEvent(null, null);
+
+    SseEmitter.SseEventBuilder toSse() {
+        if (this == HEARTBEAT) {
+            return SseEmitter.event().comment("heartbeat");
+        }
+        return SseEmitter.event().name(name).data(json, MediaType.APPLICATION_JSON);
+    }
+}
@@ -0,0 +1,302 @@
+package org.yug.backend.service.live;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.yug.backend.service.announcement.AnnouncementSequence;
+import org.yug.backend.service.announcement.AnnouncementsAddedEvent;
+import org.yug.backend.service.auth.TokenRevocationService;
+import org.yug.backend.service.auth.VerifiedToken;
+import org.yug.backend.service.community.MembershipChangedEvent;
+import org.yug.backend.service.community.MembershipIndex;
+import org.yug.backend.service.community.PostCreatedEvent;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes new posts and announcements to open event streams ({@code GET /events}).
+ * <p>
+ * Topics are stream ids: a community's id, or {@link AnnouncementSequence#GENERAL_STREAM} for campus-wide
+ * announcements. Each subscriber is registered under the communities the user has joined, and follows joins and
+ * leaves. Publishing serializes the event once and queues it on every subscriber of the topic; a small pool (or
+ * virtual threads, when {@code spring.threads.virtual.enabled}) does the writing, so a publisher never blocks on a
+ * client. See {@link LiveSubscriber} for the per-connection buffer.
+ * <p>
+ * Writes block, so a client that stops reading holds a sender until the container's write timeout. Every heartbeat
+ * the hub closes streams whose send has taken longer than {@code send-timeout}, and while such a send still holds a
+ * pool thread the pool runs one more, so the other streams keep their senders. A stream also ends when its token
+ * expires or is revoked (logout, or logout everywhere); the client has to authenticate again to reconnect.
+ * <p>
+ * An open stream holds no thread (the request is async), which is what lets one node keep tens of thousands of
+ * mostly idle connections.
+ */
+@Component
+public class LiveEventHub {
+
+    private static final Logger logger = LoggerFactory.getLogger(LiveEventHub.class);
+
+    @Autowired
+    private MembershipIndex membershipIndex;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TokenRevocationService revocationService;
+
+    private final Map<UUID, Set<LiveSubscriber>> topics = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<LiveSubscriber>> byUser = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final Executor senders;
+    private final ThreadPoolExecutor senderPool; // null when sending on virtual threads
+    private final Counter resyncs;
+    private final Counter stuckSends;
+    private final int bufferSize;
+    private final Duration timeout;
+    private final long sendTimeoutNanos;
+
+    public LiveEventHub(@Value("${app.live.send-threads:4}") int sendThreads,
+                        @Value("${app.live.buffer-size:64}") int bufferSize,
+                        @Value("${app.live.timeout:30m}") Duration timeout,
+                        @Value("${app.live.send-timeout:10s}") Duration sendTimeout,
+                        Environment environment,
+                        MeterRegistry meterRegistry) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            // A write blocked on a slow client then costs a virtual thread, not one of a few pool threads
+            this.senderPool = null;
+            this.senders = new VirtualThreadTaskExecutor("live-send-");
+        } else {
+            // Unbounded queue, but each subscriber has at most one drain in it
+            this.senderPool = new ThreadPoolExecutor(sendThreads, sendThreads, 0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(), new CustomizableThreadFactory("live-send-"));
+            this.senders = senderPool;
+        }
+        this.bufferSize = bufferSize;
+        this.timeout = timeout;
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        Gauge.builder("live.connections", connections, AtomicInteger::get)
+                .description("Open event streams")
+                .register(meterRegistry);
+        this.resyncs = Counter.builder("live.resyncs")
+                .description("Times a subscriber's buffer overflowed and it was told to resync")
+                .register(meterRegistry);
+        this.stuckSends = Counter.builder("live.stuck")
+                .description("Streams closed because a send blocked for longer than the send timeout")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens a stream for the user, authenticated by {@code token} (null if none). It ends after {@code timeout} or
+     * when the token expires, whichever comes first; the client (fetch, as EventSource cannot send the
+     * Authorization header) then reconnects with its current token.
+     */
+    public SseEmitter subscribe(UUID userId, VerifiedToken token) {
+        Duration lifetime = timeout;
+        if (token != null && token.getExpiresAt() != null) {
+            Duration untilExpiry = Duration.between(Instant.now(), token.getExpiresAt());
+            lifetime = untilExpiry.compareTo(lifetime) < 0 ? untilExpiry : lifetime;
+        }
+        SseEmitter emitter = new SseEmitter(Math.max(1, lifetime.toMillis()));
+        Set<UUID> joined = new HashSet<>(membershipIndex.joinedBy(userId));
+        joined.add(AnnouncementSequence.GENERAL_STREAM);
+        LiveSubscriber subscriber = new LiveSubscriber(userId, emitter, token, Set.copyOf(joined), bufferSize);
+
+        emitter.onCompletion(() -> unregister(subscriber));
+        emitter.onTimeout(() -> {
+            unregister(subscriber);
+            emitter.complete();
+        });
+        emitter.onError(error -> unregister(subscriber));
+
+        addTo(byUser, userId, subscriber);
+        subscriber.topics.forEach(topic -> addTo(topics, topic, subscriber));
+        connections.incrementAndGet();
+        deliver(subscriber, LiveEvent.HEARTBEAT); // commits the response headers now rather than at the first event
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostCreated(PostCreatedEvent event) {
+        publish(event.post().getCommunityId(), "post", event.post());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAnnouncementsAdded(AnnouncementsAddedEvent event) {
+        for (AnnouncementSequence.Position position : event.added()) {
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("id", position.announcementId());
+            data.put("communityId", position.streamId().equals(AnnouncementSequence.GENERAL_STREAM) ? null : position.streamId());
+            data.put("createdAt", position.createdAt());
+            publish(position.streamId(), "announcement", data);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMembershipChanged(MembershipChangedEvent event) {
+        for (LiveSubscriber subscriber : byUser.getOrDefault(event.userId(), Set.of())) {
+            Set<UUID> next = new HashSet<>(subscriber.topics);
+            if (event.member()) {
+                next.add(event.communityId());
+                addTo(topics, event.communityId(), subscriber);
+            } else {
+                next.remove(event.communityId());
+                removeFromTopic(event.communityId(), subscriber);
+            }
+            subscriber.topics = Set.copyOf(next);
+            if (subscriber.isClosed()) {
+                removeFromTopic(event.communityId(), subscriber); // unregistered meanwhile, from the old topic set
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.live.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        sweep();
+        byUser.values().forEach(subscribers -> subscribers.forEach(subscriber -> deliver(subscriber, LiveEvent.HEARTBEAT)));
+    }
+
+    // Closes streams stuck in a send, and those whose token has been revoked since they were opened
+    void sweep() {
+        long now = System.nanoTime();
+        for (Set<LiveSubscriber> subscribers : byUser.values()) {
+            for (LiveSubscriber subscriber : subscribers) {
+                if (subscriber.markStuck(now, sendTimeoutNanos)) {
+                    stuckSends.increment();
+                    compensate(1); // until the blocked send returns, see deliver
+                    logger.debug("Closing event stream of user {}: send blocked for over {} ms",
+                            subscriber.userId, TimeUnit.NANOSECONDS.toMillis(sendTimeoutNanos));
+                    close(subscriber);
+                } else if (subscriber.token != null && revocationService.isRevoked(subscriber.token)) {
+                    close(subscriber);
+                }
+            }
+        }
+    }
+
+    int connectionCount() {
+        return connections.get();
+    }
+
+    private void publish(UUID topic, String name, Object data) {
+        Set<LiveSubscriber> subscribers = topics.get(topic);
+        if (subscribers == null || subscribers.isEmpty()) {
+            return;
+        }
+        LiveEvent event;
+        try {
+            event = new LiveEvent(name, objectMapper.writeValueAsString(data));
+        } catch (JsonProcessingException e) {
+            logger.warn("Cannot serialize live {} event: {}", name, e.getMessage());
+            return;
+        }
+        subscribers.forEach(subscriber -> deliver(subscriber, event));
+    }
+
+    private void deliver(LiveSubscriber subscriber, LiveEvent event) {
+        if (!subscriber.offer(event, resyncs::increment)) {
+            return;
+        }
+        try {
+            senders.execute(() -> {
+                if (!subscriber.drain(() -> compensate(-1))) {
+                    unregister(subscriber);
+                    subscriber.emitter.complete(); // closed by the hub; a no-op after a failed send
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            unregister(subscriber); // shutting down
+        }
+    }
+
+    private void close(LiveSubscriber subscriber) {
+        boolean sending = subscriber.isSending();
+        unregister(subscriber);
+        if (!sending) {
+            subscriber.emitter.complete(); // otherwise the sender completes it once its send returns
+        }
+    }
+
+    // Grows or shrinks the pool by one thread for each send that is blocked on a client
+    private void compensate(int delta) {
+        if (senderPool == null) {
+            return;
+        }
+        synchronized (senderPool) {
+            int size = senderPool.getCorePoolSize() + delta;
+            if (delta > 0) {
+                senderPool.setMaximumPoolSize(size);
+                senderPool.setCorePoolSize(size);
+            } else {
+                senderPool.setCorePoolSize(size);
+                senderPool.setMaximumPoolSize(size);
+            }
+        }
+    }
+
+    private void unregister(LiveSubscriber subscriber) {
+        subscriber.close();
+        if (!removeFrom(byUser, subscriber.userId, subscriber)) {
+            return; // already done: completion, timeout and a failed send can all end up here
+        }
+        subscriber.topics.forEach(topic -> removeFromTopic(topic, subscriber));
+        connections.decrementAndGet();
+    }
+
+    private void removeFromTopic(UUID topic, LiveSubscriber subscriber) {
+        removeFrom(topics, topic, subscriber);
+    }
+
+    // Sets are only changed inside compute on their key, so an add never lands in a set that is being dropped
+    private static void addTo(Map<UUID, Set<LiveSubscriber>> map, UUID key, LiveSubscriber subscriber) {
+        map.compute(key, (id, set) -> {
+            Set<LiveSubscriber> next = set != null ? set : ConcurrentHashMap.newKeySet();
+            next.add(subscriber);
+            return next;
+        });
+    }
+
+    private static boolean removeFrom(Map<UUID, Set<LiveSubscriber>> map, UUID key, LiveSubscriber subscriber) {
+        boolean[] removed = new boolean[1];
+        map.computeIfPresent(key, (id, set) -> {
+            removed[0] = set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+        return removed[0];
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (senderPool != null) {
+            senderPool.shutdownNow();
+        }
+        byUser.values().forEach(subscribers -> subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+    }
+}
@@ -0,0 +1,131 @@
+package org.yug.backend.service.live;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.yug.backend.service.auth.VerifiedToken;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * One open event stream. Idle, it is an emitter and an empty queue: no thread, no buffer beyond the deque's
+ * initial array.
+ * <p>
+ * The queue is bounded. When a slow client lets it fill, the queued events are dropped and the next thing the
+ * client receives is {@link LiveEvent#RESYNC}; events published until then are dropped too, since the client will
+ * reload anyway. At most one drain per subscriber is scheduled at a time, so events go out in order.
+ * <p>
+ * A send in progress is timed, so the hub can tell a client that has stopped reading from one that is merely idle.
+ */
+final class LiveSubscriber {
+
+    final UUID userId;
+    final SseEmitter emitter;
+    final VerifiedToken token; // the stream's credentials; null if it was not opened with a bearer token
+    volatile Set<UUID> topics;
+
+    private final int capacity;
+    private final ArrayDeque<LiveEvent> queue = new ArrayDeque<>(); // guarded by this
+    private boolean resync;   // guarded by this
+    private boolean draining; // guarded by this
+    private boolean closed;   // guarded by this
+    private long sendStarted; // guarded by this; System.nanoTime() of the send in progress, 0 when not sending
+    private boolean stuck;    // guarded by this; the send in progress was reported by markStuck
+
+    LiveSubscriber(UUID userId, SseEmitter emitter, VerifiedToken token, Set<UUID> topics, int capacity) {
+        this.userId = userId;
+        this.emitter = emitter;
+        this.token = token;
+        this.topics = topics;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Queues the event. Returns true if the caller must schedule {@link #drain}; false if a drain is already
+     * scheduled or the subscriber is gone. Runs {@code overflowed} if the buffer was full.
+     */
+    synchronized boolean offer(LiveEvent event, Runnable overflowed) {
+        if (closed) {
+            return false;
+        }
+        if (!resync) {
+            if (queue.size() < capacity) {
+                queue.add(event);
+            } else {
+                queue.clear();
+                resync = true;
+                overflowed.run();
+            }
+        }
+        if (draining) {
+            return false;
+        }
+        draining = true;
+        return true;
+    }
+
+    /**
+     * Sends everything queued, outside the lock. Returns false if the connection turned out to be dead or the
+     * subscriber was closed. Runs {@code unstuck} when a send that {@link #markStuck} reported finally returns.
+     */
+    boolean drain(Runnable unstuck) {
+        while (true) {
+            LiveEvent next;
+            synchronized (this) {
+                if (resync) {
+                    resync = false;
+                    next = LiveEvent.RESYNC;
+                } else {
+                    next = queue.poll();
+                }
+                if (next == null || closed) {
+                    draining = false;
+                    return !closed;
+                }
+                sendStarted = Math.max(1, System.nanoTime());
+            }
+            try {
+                emitter.send(next.toSse());
+            } catch (IOException | IllegalStateException e) {
+                close(); // client went away, or the emitter already completed
+                return false;
+            } finally {
+                if (sendFinished()) {
+                    unstuck.run();
+                }
+            }
+        }
+    }
+
+    /**
+     * True, once per send, if the send in progress started more than {@code limitNanos} before {@code now}.
+     */
+    synchronized boolean markStuck(long now, long limitNanos) {
+        if (sendStarted == 0 || stuck || now - sendStarted <= limitNanos) {
+            return false;
+        }
+        stuck = true;
+        return true;
+    }
+
+    synchronized boolean isSending() {
+        return sendStarted != 0;
+    }
+
+    private synchronized boolean sendFinished() {
+        boolean wasStuck = stuck;
+        sendStarted = 0;
+        stuck = false;
+        return wasStuck;
+    }
+
+    synchronized boolean isClosed() {
+        return closed;
+    }
+
+    synchronized void close() {
+        closed = true;
+        queue.clear();
+    }
+}
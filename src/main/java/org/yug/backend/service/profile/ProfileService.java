@@ -9,10 +9,12 @@ import org.yug.backend.dto.profile.ProfileRequest;
 import org.yug.backend.dto.profile.ProfileResponse;
 import org.yug.backend.dto.profile.SocialLinksRequest;
 import org.yug.backend.model.Profile;
+import org.yug.backend.model.auth.AuthenticatedUser;
 import org.yug.backend.model.auth.User;
 import org.yug.backend.repository.ProfileRepository;
 import org.yug.backend.repository.UserRepository;
 import org.yug.backend.service.JwtService;
+import org.yug.backend.service.auth.PrincipalCache;
 
 @Service
 public class ProfileService {
@@ -26,12 +28,15 @@ public class ProfileService {
     @Autowired
     private JwtService jwtService; // To extract username from token
 
+    @Autowired
+    private PrincipalCache principalCache;
+
     @Transactional(readOnly = true)
-    public ProfileResponse getUserProfile(String username) {
-        User user = userRepository.findByUsername(username);
+    public ProfileResponse getUserProfile(AuthenticatedUser principal) {
+        User user = loadUser(principal);
 
 
-        Profile profile = user.getProfile(); // Assuming Profile is eagerly fetched or accessible
+        Profile profile = user.getProfile(); // fetched with the user
         if (profile == null) {
             // If a profile doesn't exist, create a new one with default values
             profile = new Profile(user);
@@ -53,8 +58,8 @@ public class ProfileService {
     }
 
     @Transactional
-    public ProfileResponse updatePersonalInfo(String username, ProfileRequest request) {
-        User user = userRepository.findByUsername(username);
+    public ProfileResponse updatePersonalInfo(AuthenticatedUser principal, ProfileRequest request) {
+        User user = loadUser(principal);
 
 
         Profile profile = user.getProfile();
@@ -67,6 +72,7 @@ public class ProfileService {
         profile.setProfilePicUrl(request.getProfilePic());
 
         profileRepository.save(profile); // Save changes to the profile
+        principalCache.invalidate(principal.getUsername());
 
         return ProfileResponse.builder()
                 .name(profile.getName())
@@ -82,8 +88,8 @@ public class ProfileService {
     }
 
     @Transactional
-    public ProfileResponse updateSocialLinks(String username, SocialLinksRequest request) {
-        User user = userRepository.findByUsername(username);
+    public ProfileResponse updateSocialLinks(AuthenticatedUser principal, SocialLinksRequest request) {
+        User user = loadUser(principal);
 
 
         Profile profile = user.getProfile();
@@ -96,6 +102,7 @@ public class ProfileService {
         profile.setLeetcodeUrl(request.getLeetcode());
 
         profileRepository.save(profile); // Save changes to the profile
+        principalCache.invalidate(principal.getUsername());
 
         return ProfileResponse.builder()
                 .name(profile.getName())
@@ -109,4 +116,9 @@ public class ProfileService {
                         .build())
                 .build();
     }
+
+    private User loadUser(AuthenticatedUser principal) {
+        return userRepository.findWithProfileById(principal.getId())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + principal.getUsername()));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,338 @@
+package org.yug.backend.service.search;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Immutable slice of the post index. Documents are numbered 0..n-1 inside the segment; the term dictionary is a
+ * sorted array and each term's postings are (doc delta, term frequency) pairs as varints in one shared byte array.
+ * <p>
+ * On disk a segment is a single file written once, to a temporary name and then moved into place, so a crash never
+ * leaves a half-written segment under a real name.
+ */
+final class IndexSegment implements SearchableSegment {
+
+    private static final int MAGIC = 0x50495831; // "PIX1"
+    private static final int VERSION = 1;
+
+    private final long[] postIds;      // 2 longs per doc
+    private final long[] communityIds; // 2 longs per doc
+    private final int[] docLengths;
+    private final long totalLength;
+    private final String[] terms;
+    private final int[] docFreqs;
+    private final int[] offsets;       // terms.length + 1 entries into postings
+    private final byte[] postings;
+
+    private IndexSegment(long[] postIds, long[] communityIds, int[] docLengths, String[] terms, int[] docFreqs,
+                         int[] offsets, byte[] postings) {
+        this.postIds = postIds;
+        this.communityIds = communityIds;
+        this.docLengths = docLengths;
+        this.totalLength = Arrays.stream(docLengths).asLongStream().sum();
+        this.terms = terms;
+        this.docFreqs = docFreqs;
+        this.offsets = offsets;
+        this.postings = postings;
+    }
+
+    static IndexSegment build(List<IndexedDoc> docs) {
+        int n = docs.size();
+        long[] postIds = new long[n * 2];
+        long[] communityIds = new long[n * 2];
+        int[] docLengths = new int[n];
+        TreeMap<String, PostingsWriter> byTerm = new TreeMap<>();
+        for (int doc = 0; doc < n; doc++) {
+            IndexedDoc indexed = docs.get(doc);
+            putUuid(postIds, doc, indexed.postId());
+            putUuid(communityIds, doc, indexed.communityId());
+            docLengths[doc] = indexed.length();
+            for (Map.Entry<String, Integer> entry : indexed.termFreqs().entrySet()) {
+                byTerm.computeIfAbsent(entry.getKey(), term -> new PostingsWriter()).add(doc, entry.getValue());
+            }
+        }
+        return assemble(postIds, communityIds, docLengths, byTerm);
+    }
+
+    /**
+     * Concatenates segments into one, renumbering documents in order. A post indexed more than once (startup
+     * catch-up racing a live insert) keeps only its first copy.
+     */
+    static IndexSegment merge(List<IndexSegment> segments) {
+        Set<UUID> seen = new HashSet<>();
+        List<int[]> renumbered = new ArrayList<>(segments.size()); // per segment: old doc -> new doc, or -1
+        int n = 0;
+        for (IndexSegment segment : segments) {
+            int[] mapping = new int[segment.docCount()];
+            for (int doc = 0; doc < mapping.length; doc++) {
+                mapping[doc] = seen.add(segment.postId(doc)) ? n++ : -1;
+            }
+            renumbered.add(mapping);
+        }
+
+        long[] postIds = new long[n * 2];
+        long[] communityIds = new long[n * 2];
+        int[] docLengths = new int[n];
+        TreeMap<String, PostingsWriter> byTerm = new TreeMap<>();
+        for (int s = 0; s < segments.size(); s++) {
+            IndexSegment segment = segments.get(s);
+            int[] mapping = renumbered.get(s);
+            for (int doc = 0; doc < mapping.length; doc++) {
+                int to = mapping[doc];
+                if (to >= 0) {
+                    System.arraycopy(segment.postIds, doc * 2, postIds, to * 2, 2);
+                    System.arraycopy(segment.communityIds, doc * 2, communityIds, to * 2, 2);
+                    docLengths[to] = segment.docLengths[doc];
+                }
+            }
+            for (int t = 0; t < segment.terms.length; t++) {
+                PostingsWriter writer = null;
+                PostingsCursor cursor = segment.postings(t);
+                while (cursor.next()) {
+                    int to = mapping[cursor.doc()];
+                    if (to >= 0) {
+                        if (writer == null) {
+                            writer = byTerm.computeIfAbsent(segment.terms[t], term -> new PostingsWriter());
+                        }
+                        writer.add(to, cursor.freq()); // ascending: mapping is monotonic and segments come in order
+                    }
+                }
+            }
+        }
+        return assemble(postIds, communityIds, docLengths, byTerm);
+    }
+
+    private static IndexSegment assemble(long[] postIds, long[] communityIds, int[] docLengths,
+                                         TreeMap<String, PostingsWriter> byTerm) {
+        String[] terms = byTerm.keySet().toArray(new String[0]);
+        int[] docFreqs = new int[terms.length];
+        int[] offsets = new int[terms.length + 1];
+        int size = 0;
+        int t = 0;
+        for (PostingsWriter writer : byTerm.values()) {
+            docFreqs[t] = writer.docFreq;
+            offsets[t] = size;
+            size += writer.size;
+            t++;
+        }
+        offsets[terms.length] = size;
+        byte[] postings = new byte[size];
+        t = 0;
+        for (PostingsWriter writer : byTerm.values()) {
+            System.arraycopy(writer.bytes, 0, postings, offsets[t++], writer.size);
+        }
+        return new IndexSegment(postIds, communityIds, docLengths, terms, docFreqs, offsets, postings);
+    }
+
+    @Override
+    public int docCount() {
+        return docLengths.length;
+    }
+
+    @Override
+    public long totalLength() {
+        return totalLength;
+    }
+
+    @Override
+    public int docLength(int doc) {
+        return docLengths[doc];
+    }
+
+    @Override
+    public UUID postId(int doc) {
+        return new UUID(postIds[doc * 2], postIds[doc * 2 + 1]);
+    }
+
+    @Override
+    public boolean inCommunity(int doc, UUID communityId) {
+        return communityIds[doc * 2] == communityId.getMostSignificantBits()
+                && communityIds[doc * 2 + 1] == communityId.getLeastSignificantBits();
+    }
+
+    /**
+     * Index of {@code term} in the dictionary, or a negative number if the segment does not contain it.
+     */
+    int termIndex(String term) {
+        return Arrays.binarySearch(terms, term);
+    }
+
+    int docFreq(int termIndex) {
+        return docFreqs[termIndex];
+    }
+
+    PostingsCursor postings(int termIndex) {
+        return new PostingsCursor(postings, offsets[termIndex], offsets[termIndex + 1]);
+    }
+
+    @Override
+    public int docFreq(String term) {
+        int t = termIndex(term);
+        return t >= 0 ? docFreqs[t] : 0;
+    }
+
+    @Override
+    public PostingsCursor postings(String term) {
+        int t = termIndex(term);
+        return t >= 0 ? postings(t) : null;
+    }
+
+    // --- Persistence ---
+
+    void writeTo(Path file) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(docCount());
+            for (int doc = 0; doc < docCount(); doc++) {
+                out.writeLong(postIds[doc * 2]);
+                out.writeLong(postIds[doc * 2 + 1]);
+                out.writeLong(communityIds[doc * 2]);
+                out.writeLong(communityIds[doc * 2 + 1]);
+                out.writeInt(docLengths[doc]);
+            }
+            out.writeInt(terms.length);
+            for (int t = 0; t < terms.length; t++) {
+                out.writeUTF(terms[t]);
+                out.writeInt(docFreqs[t]);
+                out.writeInt(offsets[t + 1] - offsets[t]);
+                out.write(postings, offsets[t], offsets[t + 1] - offsets[t]);
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static IndexSegment readFrom(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a post index segment (or an older format): " + file);
+            }
+            int n = in.readInt();
+            long[] postIds = new long[n * 2];
+            long[] communityIds = new long[n * 2];
+            int[] docLengths = new int[n];
+            for (int doc = 0; doc < n; doc++) {
+                postIds[doc * 2] = in.readLong();
+                postIds[doc * 2 + 1] = in.readLong();
+                communityIds[doc * 2] = in.readLong();
+                communityIds[doc * 2 + 1] = in.readLong();
+                docLengths[doc] = in.readInt();
+            }
+            int termCount = in.readInt();
+            String[] terms = new String[termCount];
+            int[] docFreqs = new int[termCount];
+            int[] offsets = new int[termCount + 1];
+            List<byte[]> chunks = new ArrayList<>(termCount);
+            int size = 0;
+            for (int t = 0; t < termCount; t++) {
+                terms[t] = in.readUTF();
+                docFreqs[t] = in.readInt();
+                byte[] chunk = new byte[in.readInt()];
+                in.readFully(chunk);
+                chunks.add(chunk);
+                offsets[t] = size;
+                size += chunk.length;
+            }
+            offsets[termCount] = size;
+            byte[] postings = new byte[size];
+            for (int t = 0; t < termCount; t++) {
+                System.arraycopy(chunks.get(t), 0, postings, offsets[t], chunks.get(t).length);
+            }
+            return new IndexSegment(postIds, communityIds, docLengths, terms, docFreqs, offsets, postings);
+        }
+    }
+
+    private static void putUuid(long[] target, int doc, UUID id) {
+        target[doc * 2] = id.getMostSignificantBits();
+        target[doc * 2 + 1] = id.getLeastSignificantBits();
+    }
+
+    /**
+     * Appends (doc delta, frequency) varint pairs; docs must be added in ascending order.
+     */
+    private static final class PostingsWriter {
+        private byte[] bytes = new byte[8];
+        private int size;
+        private int lastDoc = -1;
+        private int docFreq;
+
+        void add(int doc, int freq) {
+            writeVarInt(doc - lastDoc);
+            writeVarInt(freq);
+            lastDoc = doc;
+            docFreq++;
+        }
+
+        private void writeVarInt(int value) {
+            if (size + 5 > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + 5));
+            }
+            while ((value & ~0x7F) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+    }
+
+    static final class PostingsCursor implements Postings {
+        private final byte[] bytes;
+        private final int end;
+        private int position;
+        private int doc = -1;
+        private int freq;
+
+        private PostingsCursor(byte[] bytes, int start, int end) {
+            this.bytes = bytes;
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override
+        public boolean next() {
+            if (position >= end) {
+                return false;
+            }
+            doc += readVarInt();
+            freq = readVarInt();
+            return true;
+        }
+
+        @Override
+        public int doc() {
+            return doc;
+        }
+
+        @Override
+        public int freq() {
+            return freq;
+        }
+
+        private int readVarInt() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[position++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package org.yug.backend.service.search;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A post reduced to what the index stores: its ids, term frequencies and length in terms. Title terms count
+ * {@value #TITLE_WEIGHT} times, a cheap stand-in for a separate title field.
+ */
+record IndexedDoc(UUID postId, UUID communityId, Map<String, Integer> termFreqs, int length) {
+
+    static final int TITLE_WEIGHT = 2;
+
+    static IndexedDoc of(UUID postId, UUID communityId, String title, String content) {
+        Map<String, Integer> termFreqs = new HashMap<>();
+        int length = 0;
+        for (String term : Tokenizer.tokenize(title)) {
+            termFreqs.merge(term, TITLE_WEIGHT, Integer::sum);
+            length += TITLE_WEIGHT;
+        }
+        for (String term : Tokenizer.tokenize(content)) {
+            termFreqs.merge(term, 1, Integer::sum);
+            length++;
+        }
+        return new IndexedDoc(postId, communityId, termFreqs, length);
+    }
+}
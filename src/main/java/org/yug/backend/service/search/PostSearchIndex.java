@@ -0,0 +1,351 @@
+package org.yug.backend.service.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Inverted index over posts: sealed {@link IndexSegment}s persisted to disk plus an in-memory {@link TailSegment}
+ * of recent posts.
+ * <p>
+ * The whole index is one immutable {@link State} behind a volatile field, so searches never lock. Adding a post
+ * appends it to the tail in place. A full tail is frozen (still searchable) and handed to a single background
+ * writer, which builds it into a segment, writes the file and swaps the segment in; the same writer merges the
+ * smallest segments whenever there are more than {@code maxSegments}, dropping posts indexed twice.
+ */
+final class PostSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostSearchIndex.class);
+
+    // BM25 parameters, the usual defaults
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".pix";
+
+    private final Path directory;
+    private final int flushThreshold;
+    private final int maxSegments;
+    private final AtomicLong segmentSequence = new AtomicLong(System.currentTimeMillis());
+    private final Map<IndexSegment, Path> files = new ConcurrentHashMap<>(); // identity keys
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "post-index-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Object writeLock = new Object();
+    private TailSegment tail = new TailSegment(); // guarded by writeLock
+    private volatile State state = new State(List.of(), List.of(), null);
+
+    PostSearchIndex(Path directory, int flushThreshold, int maxSegments) {
+        this.directory = directory;
+        this.flushThreshold = flushThreshold;
+        this.maxSegments = Math.max(1, maxSegments);
+    }
+
+    record Hit(UUID postId, double score) {
+    }
+
+    /**
+     * @param frozen full tails waiting for the writer to seal them
+     * @param tail   the tail being appended to, null while empty
+     */
+    private record State(List<IndexSegment> sealed, List<TailSegment.View> frozen, TailSegment.View tail) {
+        List<SearchableSegment> segments() {
+            List<SearchableSegment> all = new ArrayList<>(sealed.size() + frozen.size() + 1);
+            all.addAll(sealed);
+            all.addAll(frozen);
+            if (tail != null) {
+                all.add(tail);
+            }
+            return all;
+        }
+    }
+
+    void add(IndexedDoc doc) {
+        synchronized (writeLock) {
+            TailSegment.View view = tail.append(doc);
+            if (tail.docCount() >= flushThreshold) {
+                freezeTail(view);
+            } else {
+                state = new State(state.sealed(), state.frozen(), view);
+            }
+        }
+    }
+
+    /**
+     * Adds segments that were loaded from disk or built (and persisted) elsewhere.
+     */
+    void addSealed(List<IndexSegment> segments) {
+        synchronized (writeLock) {
+            state = new State(append(state.sealed(), segments), state.frozen(), state.tail());
+        }
+        writer.execute(this::mergeIfNeeded);
+    }
+
+    /**
+     * Seals the in-memory tail into a segment file and waits for the writer to finish, so a clean restart has
+     * nothing to re-index.
+     */
+    void flush() {
+        synchronized (writeLock) {
+            if (state.tail() != null) {
+                freezeTail(state.tail());
+            }
+        }
+        try {
+            writer.submit(() -> { }).get(30, TimeUnit.SECONDS); // the writer runs tasks in order
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            logger.warn("Post index writer did not finish: {}", e.toString());
+        }
+    }
+
+    void close() {
+        flush();
+        writer.shutdown();
+    }
+
+    // Caller holds writeLock
+    private void freezeTail(TailSegment.View view) {
+        TailSegment full = tail;
+        tail = new TailSegment();
+        List<TailSegment.View> frozen = new ArrayList<>(state.frozen());
+        frozen.add(view);
+        state = new State(state.sealed(), List.copyOf(frozen), null);
+        writer.execute(() -> seal(full));
+    }
+
+    // Writer thread
+    private void seal(TailSegment full) {
+        IndexSegment segment = IndexSegment.build(full.docs());
+        persist(segment);
+        synchronized (writeLock) {
+            List<TailSegment.View> frozen = new ArrayList<>(state.frozen());
+            frozen.removeIf(view -> view.tail() == full);
+            state = new State(append(state.sealed(), List.of(segment)), List.copyOf(frozen), state.tail());
+        }
+        mergeIfNeeded();
+    }
+
+    // Writer thread. Merges the smaller half of the segments at a time, so fresh small segments are folded together
+    // and a large segment is rewritten only when the small ones have grown to match it.
+    private void mergeIfNeeded() {
+        while (true) {
+            List<IndexSegment> sealed = state.sealed(); // others only append, so these stay in the state until replaced below
+            if (sealed.size() <= maxSegments) {
+                return;
+            }
+            List<IndexSegment> smallest = sealed.stream()
+                    .sorted(Comparator.comparingInt(IndexSegment::docCount))
+                    .limit(Math.max(2, sealed.size() / 2))
+                    .toList();
+            IndexSegment merged = IndexSegment.merge(smallest);
+            boolean persisted = persist(merged);
+            synchronized (writeLock) {
+                Set<IndexSegment> replaced = Collections.newSetFromMap(new IdentityHashMap<>());
+                replaced.addAll(smallest);
+                List<IndexSegment> next = new ArrayList<>(state.sealed());
+                next.removeIf(replaced::contains);
+                next.add(merged);
+                state = new State(List.copyOf(next), state.frozen(), state.tail());
+            }
+            for (IndexSegment old : smallest) {
+                Path file = files.remove(old);
+                if (persisted && file != null) {
+                    deleteQuietly(file);
+                }
+            }
+            logger.debug("Merged {} post index segments into one of {} posts", smallest.size(), merged.docCount());
+        }
+    }
+
+    int docCount() {
+        return state.segments().stream().mapToInt(SearchableSegment::docCount).sum();
+    }
+
+    int segmentCount() {
+        return state.segments().size();
+    }
+
+    Set<UUID> indexedPostIds() {
+        Set<UUID> ids = new HashSet<>();
+        for (SearchableSegment segment : state.segments()) {
+            for (int doc = 0; doc < segment.docCount(); doc++) {
+                ids.add(segment.postId(doc));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * BM25 over title and content. {@code communityId} (nullable) restricts hits to one community.
+     */
+    List<Hit> search(String query, UUID communityId, int limit) {
+        List<SearchableSegment> segments = state.segments();
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(Tokenizer.tokenize(query)));
+        long docCount = 0;
+        long totalLength = 0;
+        for (SearchableSegment segment : segments) {
+            docCount += segment.docCount();
+            totalLength += segment.totalLength();
+        }
+        if (terms.isEmpty() || docCount == 0 || limit <= 0) {
+            return List.of();
+        }
+        double avgLength = Math.max(1.0, (double) totalLength / docCount);
+
+        double[] idf = new double[terms.size()];
+        for (int i = 0; i < terms.size(); i++) {
+            long df = 0;
+            for (SearchableSegment segment : segments) {
+                df += segment.docFreq(terms.get(i));
+            }
+            idf[i] = Math.log(1 + (docCount - df + 0.5) / (df + 0.5));
+        }
+
+        // A post indexed twice until a merge drops the copy scores the same both times; keep only the first
+        PriorityQueue<Hit> top = new PriorityQueue<>(Comparator.comparingDouble(Hit::score));
+        Set<UUID> inTop = new HashSet<>();
+        for (SearchableSegment segment : segments) {
+            float[] scores = null;
+            for (int i = 0; i < terms.size(); i++) {
+                SearchableSegment.Postings cursor = segment.postings(terms.get(i));
+                if (cursor == null) {
+                    continue;
+                }
+                if (scores == null) {
+                    scores = new float[segment.docCount()];
+                }
+                while (cursor.next()) {
+                    int doc = cursor.doc();
+                    if (communityId != null && !segment.inCommunity(doc, communityId)) {
+                        continue;
+                    }
+                    double tf = cursor.freq();
+                    double norm = K1 * (1 - B + B * segment.docLength(doc) / avgLength);
+                    scores[doc] += (float) (idf[i] * tf * (K1 + 1) / (tf + norm));
+                }
+            }
+            if (scores == null) {
+                continue;
+            }
+            for (int doc = 0; doc < scores.length; doc++) {
+                if (scores[doc] > 0 && (top.size() < limit || scores[doc] > top.peek().score())) {
+                    UUID postId = segment.postId(doc);
+                    if (inTop.add(postId)) {
+                        top.offer(new Hit(postId, scores[doc]));
+                        if (top.size() > limit) {
+                            inTop.remove(top.poll().postId());
+                        }
+                    }
+                }
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>(top);
+        hits.sort(Comparator.comparingDouble(Hit::score).reversed());
+        return hits;
+    }
+
+    // --- Segment files ---
+
+    /**
+     * Reads every segment in the index directory, skipping unreadable ones (their posts are simply re-indexed).
+     * More than {@code maxSegments} files are merged into one first.
+     */
+    List<IndexSegment> loadSegments() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> paths;
+        try (Stream<Path> listing = Files.list(directory)) {
+            paths = listing.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted().toList();
+        }
+        List<IndexSegment> segments = new ArrayList<>();
+        List<Path> loaded = new ArrayList<>();
+        for (Path file : paths) {
+            segmentSequence.accumulateAndGet(sequenceOf(file), Math::max); // new files must not reuse a name
+            try {
+                IndexSegment segment = IndexSegment.readFrom(file);
+                segments.add(segment);
+                files.put(segment, file);
+                loaded.add(file);
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Discarding unreadable post index segment {}: {}", file, e.getMessage());
+                Files.deleteIfExists(file);
+            }
+        }
+        if (segments.size() > maxSegments) {
+            IndexSegment merged = IndexSegment.merge(segments);
+            if (persist(merged)) {
+                for (Path file : loaded) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            segments.forEach(files::remove);
+            logger.info("Merged {} post index segments ({} posts)", segments.size(), merged.docCount());
+            return List.of(merged);
+        }
+        return segments;
+    }
+
+    boolean persist(IndexSegment segment) {
+        Path file = directory.resolve(String.format("%s%016d%s", SEGMENT_PREFIX, segmentSequence.incrementAndGet(), SEGMENT_SUFFIX));
+        try {
+            Files.createDirectories(directory);
+            segment.writeTo(file);
+            files.put(segment, file);
+            return true;
+        } catch (IOException e) {
+            // Still searchable from memory; the posts are re-indexed from the database on the next start
+            logger.warn("Cannot write post index segment {}: {}", file, e.getMessage());
+            return false;
+        }
+    }
+
+    private static long sequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (RuntimeException e) {
+            return 0;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Cannot delete merged post index segment {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static List<IndexSegment> append(List<IndexSegment> segments, List<IndexSegment> more) {
+        List<IndexSegment> all = new ArrayList<>(segments.size() + more.size());
+        all.addAll(segments);
+        all.addAll(more);
+        return List.copyOf(all);
+    }
+}
@@ -0,0 +1,168 @@
+package org.yug.backend.service.search;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.yug.backend.dto.community.CommunityPostDto;
+import org.yug.backend.repository.PostRepository;
+import org.yug.backend.repository.projection.PostText;
+import org.yug.backend.service.community.PostCreatedEvent;
+import org.yug.backend.service.community.PostLikeCounter;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Full-text search over post titles and content (see {@link PostSearchIndex}).
+ * <p>
+ * On startup, segments already on disk are loaded and only posts missing from them are indexed, in parallel, one
+ * segment per batch. New posts are added as their transaction commits; sealing, writing and merging segments
+ * happen on the index's own writer thread, and the in-memory tail is written out on shutdown.
+ */
+@Service
+public class PostSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostSearchService.class);
+    private static final int DEFAULT_LIMIT = 20;
+    private static final int MAX_LIMIT = 100;
+    private static final int FETCH_BATCH = 1_000;
+
+    private final PostSearchIndex index;
+    private final int rebuildThreads;
+    private final int rebuildSegmentSize;
+    private final CountDownLatch ready = new CountDownLatch(1);
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private PostLikeCounter likeCounter;
+
+    public PostSearchService(@Value("${app.search.posts.index-dir:data/post-index}") String indexDir,
+                             @Value("${app.search.posts.flush-threshold:1000}") int flushThreshold,
+                             @Value("${app.search.posts.rebuild-threads:0}") int rebuildThreads,
+                             @Value("${app.search.posts.rebuild-segment-size:20000}") int rebuildSegmentSize,
+                             @Value("${app.search.posts.max-segments:16}") int maxSegments) {
+        this.index = new PostSearchIndex(Path.of(indexDir), flushThreshold, maxSegments);
+        this.rebuildThreads = rebuildThreads > 0 ? rebuildThreads : Runtime.getRuntime().availableProcessors();
+        this.rebuildSegmentSize = rebuildSegmentSize;
+    }
+
+    // Off the startup thread: the app serves requests (with partial search results) while a rebuild runs
+    @EventListener(ApplicationReadyEvent.class)
+    public void open() {
+        Thread opener = new Thread(this::loadAndCatchUp, "post-index-open");
+        opener.setDaemon(true);
+        opener.start();
+    }
+
+    private void loadAndCatchUp() {
+        long start = System.nanoTime();
+        try {
+            index.addSealed(index.loadSegments());
+            Set<UUID> indexed = index.indexedPostIds();
+            List<UUID> missing = postRepository.findAllIds().stream().filter(id -> !indexed.contains(id)).toList();
+            if (!missing.isEmpty()) {
+                rebuild(missing);
+            }
+            logger.info("Post search index ready: {} posts in {} segments, {} indexed now, {} ms",
+                    index.docCount(), index.segmentCount(), missing.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (Exception e) {
+            logger.error("Post search index failed to open; search covers only posts created since startup", e);
+        } finally {
+            ready.countDown();
+        }
+    }
+
+    /**
+     * Reads posts on this thread and builds and writes one segment per batch on a pool.
+     */
+    private void rebuild(List<UUID> postIds) throws InterruptedException, ExecutionException {
+        ExecutorService pool = Executors.newFixedThreadPool(rebuildThreads, runnable -> {
+            Thread thread = new Thread(runnable, "post-index-build");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<IndexSegment>> futures = new ArrayList<>();
+            for (int from = 0; from < postIds.size(); from += rebuildSegmentSize) {
+                List<UUID> batch = postIds.subList(from, Math.min(from + rebuildSegmentSize, postIds.size()));
+                List<PostText> rows = new ArrayList<>(batch.size());
+                for (int i = 0; i < batch.size(); i += FETCH_BATCH) {
+                    rows.addAll(postRepository.findTextsByIds(batch.subList(i, Math.min(i + FETCH_BATCH, batch.size()))));
+                }
+                futures.add(pool.submit(() -> {
+                    List<IndexedDoc> docs = rows.stream()
+                            .map(row -> IndexedDoc.of(row.getId(), row.getCommunityId(), row.getTitle(), row.getContent()))
+                            .toList();
+                    IndexSegment segment = IndexSegment.build(docs);
+                    index.persist(segment);
+                    return segment;
+                }));
+            }
+            List<IndexSegment> built = new ArrayList<>(futures.size());
+            for (Future<IndexSegment> future : futures) {
+                built.add(future.get());
+            }
+            index.addSealed(built);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostCreated(PostCreatedEvent event) {
+        CommunityPostDto post = event.post();
+        index.add(IndexedDoc.of(post.getId(), post.getCommunityId(), post.getTitle(), post.getContent()));
+    }
+
+    /**
+     * Posts matching {@code query}, best BM25 score first, optionally within one community.
+     */
+    public List<CommunityPostDto> search(String query, UUID communityId, Integer limit) {
+        int max = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        List<PostSearchIndex.Hit> hits = index.search(query, communityId, max);
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, CommunityPostDto> byId = postRepository.findDtosByIds(hits.stream().map(PostSearchIndex.Hit::postId).toList())
+                .stream()
+                .collect(Collectors.toMap(CommunityPostDto::getId, Function.identity()));
+        List<CommunityPostDto> results = new ArrayList<>(hits.size());
+        for (PostSearchIndex.Hit hit : hits) {
+            CommunityPostDto post = byId.get(hit.postId());
+            if (post != null) { // gone from the database since it was indexed
+                results.add(post);
+            }
+        }
+        return likeCounter.applyPending(results);
+    }
+
+    public boolean awaitReady(Duration timeout) throws InterruptedException {
+        return ready.await(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void close() {
+        index.close();
+    }
+}
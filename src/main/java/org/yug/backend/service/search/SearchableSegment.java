@@ -0,0 +1,39 @@
+package org.yug.backend.service.search;
+
+import java.util.UUID;
+
+/**
+ * What a search reads from one part of the index, whether a sealed {@link IndexSegment} or the in-memory
+ * {@link TailSegment}. Documents are numbered 0..docCount-1 and each term's postings come in ascending doc order.
+ */
+interface SearchableSegment {
+
+    int docCount();
+
+    long totalLength();
+
+    int docLength(int doc);
+
+    UUID postId(int doc);
+
+    boolean inCommunity(int doc, UUID communityId);
+
+    /**
+     * Number of documents containing {@code term}, 0 if none.
+     */
+    int docFreq(String term);
+
+    /**
+     * Postings of {@code term}, or null if no document contains it.
+     */
+    Postings postings(String term);
+
+    interface Postings {
+
+        boolean next();
+
+        int doc();
+
+        int freq();
+    }
+}
@@ -0,0 +1,164 @@
+package org.yug.backend.service.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The in-memory end of the post index. Documents are appended in place, so adding a post costs only its own terms;
+ * the tail becomes an {@link IndexSegment} once, when it is sealed.
+ * <p>
+ * One writer at a time appends (the index's write lock); searches read without locking through a {@link View} of
+ * the first {@code n} documents. Everything a view covers was written before the view was published through the
+ * index's volatile state, and arrays are only ever replaced by larger copies behind volatile fields, so a reader
+ * sees every entry of its prefix. Entries past the prefix may be half-written and are ignored: postings store
+ * {@code doc + 1}, so an unwritten slot reads as 0 and ends the scan.
+ */
+final class TailSegment {
+
+    private final Map<String, TermPostings> postings = new ConcurrentHashMap<>();
+    private final List<IndexedDoc> docs = new ArrayList<>();
+    private volatile long[] postIds = new long[32];
+    private volatile long[] communityIds = new long[32];
+    private volatile int[] docLengths = new int[16];
+    private long totalLength;
+
+    // Caller holds the index's write lock
+    View append(IndexedDoc doc) {
+        int n = docs.size();
+        if (n == docLengths.length) {
+            postIds = Arrays.copyOf(postIds, n * 4);
+            communityIds = Arrays.copyOf(communityIds, n * 4);
+            docLengths = Arrays.copyOf(docLengths, n * 2);
+        }
+        postIds[n * 2] = doc.postId().getMostSignificantBits();
+        postIds[n * 2 + 1] = doc.postId().getLeastSignificantBits();
+        communityIds[n * 2] = doc.communityId().getMostSignificantBits();
+        communityIds[n * 2 + 1] = doc.communityId().getLeastSignificantBits();
+        docLengths[n] = doc.length();
+        doc.termFreqs().forEach((term, freq) -> postings.computeIfAbsent(term, t -> new TermPostings()).add(n, freq));
+        docs.add(doc);
+        totalLength += doc.length();
+        return new View(n + 1, totalLength);
+    }
+
+    int docCount() {
+        return docs.size();
+    }
+
+    /**
+     * The documents in insertion order, for sealing; only once no more are appended.
+     */
+    List<IndexedDoc> docs() {
+        return docs;
+    }
+
+    /**
+     * The first {@code docCount} documents of the tail, fixed at creation.
+     */
+    final class View implements SearchableSegment {
+
+        private final int docCount;
+        private final long totalLength;
+
+        View(int docCount, long totalLength) {
+            this.docCount = docCount;
+            this.totalLength = totalLength;
+        }
+
+        TailSegment tail() {
+            return TailSegment.this;
+        }
+
+        @Override
+        public int docCount() {
+            return docCount;
+        }
+
+        @Override
+        public long totalLength() {
+            return totalLength;
+        }
+
+        @Override
+        public int docLength(int doc) {
+            return docLengths[doc];
+        }
+
+        @Override
+        public UUID postId(int doc) {
+            long[] ids = postIds;
+            return new UUID(ids[doc * 2], ids[doc * 2 + 1]);
+        }
+
+        @Override
+        public boolean inCommunity(int doc, UUID communityId) {
+            long[] ids = communityIds;
+            return ids[doc * 2] == communityId.getMostSignificantBits() && ids[doc * 2 + 1] == communityId.getLeastSignificantBits();
+        }
+
+        @Override
+        public int docFreq(String term) {
+            Postings cursor = postings(term);
+            int df = 0;
+            while (cursor != null && cursor.next()) {
+                df++;
+            }
+            return df;
+        }
+
+        @Override
+        public Postings postings(String term) {
+            TermPostings list = postings.get(term);
+            return list == null ? null : list.cursor(docCount);
+        }
+    }
+
+    private static final class TermPostings {
+
+        private volatile int[] docs = new int[4]; // doc + 1; 0 marks a slot not written yet
+        private volatile int[] freqs = new int[4];
+        private int size;
+
+        // Grows freqs before docs: a reader that sees the new docs array then also sees the new freqs array
+        void add(int doc, int freq) {
+            if (size == docs.length) {
+                freqs = Arrays.copyOf(freqs, size * 2);
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            freqs[size] = freq;
+            docs[size] = doc + 1;
+            size++;
+        }
+
+        SearchableSegment.Postings cursor(int docLimit) {
+            int[] docs = this.docs;
+            int[] freqs = this.freqs;
+            return new SearchableSegment.Postings() {
+                private int i = -1;
+
+                @Override
+                public boolean next() {
+                    if (i + 1 >= docs.length || docs[i + 1] == 0 || docs[i + 1] > docLimit) {
+                        return false;
+                    }
+                    i++;
+                    return true;
+                }
+
+                @Override
+                public int doc() {
+                    return docs[i] - 1;
+                }
+
+                @Override
+                public int freq() {
+                    return freqs[i];
+                }
+            };
+        }
+    }
+}
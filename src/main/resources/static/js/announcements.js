@@ -3,15 +3,6 @@
 document.addEventListener("DOMContentLoaded", function () {
     const API_BASE_URL = "http://localhost:8084"; // API base URL, consistent with other JS files
 
-    // Helper to get auth headers
-    function getAuthHeaders() {
-        const token = localStorage.getItem("token");
-        return {
-            "Content-Type": "application/json",
-            ...(token && { "Authorization": "Bearer " + token }) // Include token if available
-        };
-    }
-
     // DOM Elements
     const announcementList = document.getElementById("announcementsList"); // Changed from announcement-list to announcementsList based on HTML
     const searchInput = document.getElementById("search"); // This ID is not in HTML, leaving for future if added
@@ -27,7 +18,7 @@ document.addEventListener("DOMContentLoaded", function () {
     // Fetch announcements from the backend
     async function fetchAnnouncements() {
         try {
-            const response = await fetch(`${API_BASE_URL}/announcements`, { headers: getAuthHeaders() });
+            const response = await apiFetch(`${API_BASE_URL}/announcements`);
             const data = await response.json();
             if (response.ok) {
                 // Assuming backend returns an array of announcement objects with id, title, content, date, read, bookmarked
@@ -71,10 +62,10 @@ document.addEventListener("DOMContentLoaded", function () {
                 <p><strong>Community:</strong> ${communityName} | <strong>Type:</strong> ${announcementType}</p>
                 <p>${announcement.content}</p>
                 <p class="date">${new Date(announcement.date).toLocaleDateString()}</p>
-                <button onclick="toggleRead(${announcement.id})">
+                <button onclick="toggleRead('${announcement.id}')">
                     ${announcement.read ? 'Mark as Unread' : 'Mark as Read'}
                 </button>
-                <button onclick="toggleBookmark(${announcement.id})">
+                <button onclick="toggleBookmark('${announcement.id}')">
                     ${announcement.bookmarked ? 'Remove Bookmark' : 'Bookmark'}
                 </button>
             `;
@@ -128,9 +119,8 @@ document.addEventListener("DOMContentLoaded", function () {
         const announcement = announcements.find(a => a.id === id);
         if (announcement) {
             try {
-                const response = await fetch(`${API_BASE_URL}/announcements/${id}/read`, {
+                const response = await apiFetch(`${API_BASE_URL}/announcements/${id}/read`, {
                     method: 'PUT',
-                    headers: getAuthHeaders(),
                     body: JSON.stringify({ read: !announcement.read }) // Toggle the read status
                 });
 
@@ -153,9 +143,8 @@ document.addEventListener("DOMContentLoaded", function () {
         const announcement = announcements.find(a => a.id === id);
         if (announcement) {
             try {
-                const response = await fetch(`${API_BASE_URL}/announcements/${id}/bookmark`, {
+                const response = await apiFetch(`${API_BASE_URL}/announcements/${id}/bookmark`, {
                     method: 'PUT',
-                    headers: getAuthHeaders(),
                     body: JSON.stringify({ bookmarked: !announcement.bookmarked }) // Toggle the bookmark status
                 });
 
@@ -0,0 +1,75 @@
+// api.js - authenticated requests, shared by every signed-in page (loaded before the page's own script)
+
+const AUTH_REFRESH_URL = "http://localhost:8084/auth/refresh";
+
+// The Google sign-in redirects with the tokens in the URL fragment; keep them and take them out of the address bar
+(function storeTokensFromFragment() {
+    const params = new URLSearchParams(window.location.hash.slice(1));
+    if (params.has("token")) {
+        localStorage.setItem("token", params.get("token"));
+        if (params.has("refreshToken")) {
+            localStorage.setItem("refreshToken", params.get("refreshToken"));
+        }
+        history.replaceState(null, "", window.location.pathname + window.location.search);
+    }
+})();
+
+// fetch() with the access token attached. Access tokens are short-lived: a 401 exchanges the refresh token at
+// /auth/refresh for a new pair and retries the request once, so a session only goes back through the password
+// check when the refresh token itself has expired or been revoked.
+async function apiFetch(url, options = {}) {
+    const token = localStorage.getItem("token");
+    let response = await fetch(url, withAuthHeaders(options, token));
+    if (response.status === 401 && localStorage.getItem("refreshToken") && await refreshTokens(token)) {
+        response = await fetch(url, withAuthHeaders(options, localStorage.getItem("token")));
+    }
+    return response;
+}
+
+function withAuthHeaders(options, token) {
+    return {
+        ...options,
+        headers: {
+            "Content-Type": "application/json",
+            ...options.headers,
+            ...(token && { "Authorization": "Bearer " + token })
+        }
+    };
+}
+
+// A refresh token can be used once (reuse ends the session), so requests failing together share one refresh
+let pendingRefresh = null;
+
+async function refreshTokens(rejectedToken) {
+    if (localStorage.getItem("token") !== rejectedToken) {
+        return true; // already refreshed since this request was sent
+    }
+    if (!pendingRefresh) {
+        pendingRefresh = (async () => {
+            try {
+                const response = await fetch(AUTH_REFRESH_URL, {
+                    method: "POST",
+                    headers: { "Content-Type": "application/json" },
+                    body: JSON.stringify({ refreshToken: localStorage.getItem("refreshToken") })
+                });
+                if (!response.ok) {
+                    if (response.status === 401) { // expired or revoked: the user has to sign in again
+                        localStorage.removeItem("token");
+                        localStorage.removeItem("refreshToken");
+                    }
+                    return false;
+                }
+                const data = await response.json();
+                localStorage.setItem("token", data.token);
+                localStorage.setItem("refreshToken", data.refreshToken);
+                return true;
+            } catch (error) {
+                console.error("Error refreshing the session:", error);
+                return false;
+            } finally {
+                pendingRefresh = null;
+            }
+        })();
+    }
+    return pendingRefresh;
+}
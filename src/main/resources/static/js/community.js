@@ -3,15 +3,6 @@
 document.addEventListener("DOMContentLoaded", function () {
     const API_BASE_URL = "http://localhost:8084/communities"; // API base URL, consistent with profile.js
 
-    // Helper to get auth headers
-    function getAuthHeaders() {
-        const token = localStorage.getItem("token");
-        return {
-            "Content-Type": "application/json",
-            ...(token && { "Authorization": "Bearer " + token }) // Include token if available
-        };
-    }
-
     const allCommunityList = document.getElementById("all-community-list");
     const joinedCommunityList = document.getElementById("joined-community-list");
     const communityHeading = document.getElementById("community-heading");
@@ -47,6 +38,63 @@ document.addEventListener("DOMContentLoaded", function () {
     }
 
     // Load and display data for a selected community
+    async function loadPostPage(communityId, cursor) {
+        const query = cursor ? `?cursor=${encodeURIComponent(cursor)}` : "";
+        const postsResponse = await apiFetch(`${API_BASE_URL}/communities/${communityId}/posts/feed${query}`);
+        const page = await postsResponse.json();
+        const posts = postsResponse.ok && page ? page.items : [];
+        if (!cursor && (!posts || posts.length === 0)) {
+            postList.innerHTML = "<li>No posts found for this community.</li>";
+            return;
+        }
+        posts.forEach(post => {
+            const li = document.createElement("li");
+            li.textContent = post.title; // Assuming backend returns 'title'
+            postList.appendChild(li);
+        });
+        if (page.nextCursor) {
+            const more = document.createElement("li");
+            const button = document.createElement("button");
+            button.textContent = "Load more";
+            button.addEventListener("click", async () => {
+                more.remove();
+                await loadPostPage(communityId, page.nextCursor);
+            });
+            more.appendChild(button);
+            postList.appendChild(more);
+        }
+    }
+
+    async function loadMemberPage(communityId, cursor) {
+        const query = cursor ? `?cursor=${encodeURIComponent(cursor)}` : "";
+        const membersResponse = await apiFetch(`${API_BASE_URL}/communities/${communityId}/members/page${query}`);
+        const page = await membersResponse.json();
+        const members = membersResponse.ok && page ? page.items : [];
+        if (!cursor && (!members || members.length === 0)) {
+            membersList.innerHTML = "<li>No members found for this community.</li>";
+            return;
+        }
+        members.forEach(member => {
+            const li = document.createElement("li");
+            const roleColor = roleColors[member.role] || "gray";
+            li.innerHTML = `<strong>${member.name}</strong> - <span style="color: ${roleColor};">${member.role}</span>`;
+            li.style.borderLeft = `5px solid ${roleColor}`;
+            li.style.padding = "5px";
+            membersList.appendChild(li);
+        });
+        if (page.nextCursor) {
+            const more = document.createElement("li");
+            const button = document.createElement("button");
+            button.textContent = "Load more";
+            button.addEventListener("click", async () => {
+                more.remove();
+                await loadMemberPage(communityId, page.nextCursor);
+            });
+            more.appendChild(button);
+            membersList.appendChild(more);
+        }
+    }
+
     async function loadCommunityData(communityId, communityName) {
         communityHeading.textContent = communityName;
         communityHeading.dataset.communityId = communityId; // Store communityId on heading
@@ -55,22 +103,12 @@ document.addEventListener("DOMContentLoaded", function () {
         membersList.innerHTML = "<li>Loading members...</li>";
 
         try {
-            // Fetch posts
-            const postsResponse = await fetch(`${API_BASE_URL}/communities/${communityId}/posts`, { headers: getAuthHeaders() });
-            const posts = await postsResponse.json();
+            // Fetch posts (first page of the feed; "Load more" follows nextCursor)
             postList.innerHTML = "";
-            if (postsResponse.ok && posts && posts.length > 0) {
-                posts.forEach(post => {
-                    const li = document.createElement("li");
-                    li.textContent = post.title; // Assuming backend returns 'title'
-                    postList.appendChild(li);
-                });
-            } else {
-                postList.innerHTML = "<li>No posts found for this community.</li>";
-            }
+            await loadPostPage(communityId, null);
 
             // Fetch announcements
-            const announcementsResponse = await fetch(`${API_BASE_URL}/communities/${communityId}/announcements`, { headers: getAuthHeaders() });
+            const announcementsResponse = await apiFetch(`${API_BASE_URL}/communities/${communityId}/announcements`);
             const announcements = await announcementsResponse.json();
             announcementList.innerHTML = "";
             if (announcementsResponse.ok && announcements && announcements.length > 0) {
@@ -83,22 +121,9 @@ document.addEventListener("DOMContentLoaded", function () {
                 announcementList.innerHTML = "<li>No announcements found for this community.</li>";
             }
 
-            // Fetch members
-            const membersResponse = await fetch(`${API_BASE_URL}/communities/${communityId}/members`, { headers: getAuthHeaders() });
-            const members = await membersResponse.json();
+            // Fetch members (first page; "Load more" follows nextCursor)
             membersList.innerHTML = "";
-            if (membersResponse.ok && members && members.length > 0) {
-                members.forEach(member => {
-                    const li = document.createElement("li");
-                    const roleColor = roleColors[member.role] || "gray";
-                    li.innerHTML = `<strong>${member.name}</strong> - <span style="color: ${roleColor};">${member.role}</span>`;
-                    li.style.borderLeft = `5px solid ${roleColor}`;
-                    li.style.padding = "5px";
-                    membersList.appendChild(li);
-                });
-            } else {
-                membersList.innerHTML = "<li>No members found for this community.</li>";
-            }
+            await loadMemberPage(communityId, null);
 
             // Activate the first tab (Posts)
             document.querySelectorAll(".tab-btn")[0].click();
@@ -115,9 +140,8 @@ document.addEventListener("DOMContentLoaded", function () {
         if (!joinedCommunities.some(c => c.id === communityId)) { // Check if already joined based on ID
             try {
                 console.log(`Joining community: ${communityName} (ID: ${communityId})`);
-                const response = await fetch(`${API_BASE_URL}/user/communities/join`, {
+                const response = await apiFetch(`${API_BASE_URL}/user/communities/join`, {
                     method: 'POST',
-                    headers: getAuthHeaders(),
                     body: JSON.stringify({ communityId: communityId })
                 });
 
@@ -139,9 +163,8 @@ document.addEventListener("DOMContentLoaded", function () {
 
     async function removeFromJoinedCommunities(communityId, communityName) {
         try {
-            const response = await fetch(`${API_BASE_URL}/user/communities/leave/${communityId}`, {
-                method: 'DELETE',
-                headers: getAuthHeaders()
+            const response = await apiFetch(`${API_BASE_URL}/user/communities/leave/${communityId}`, {
+                method: 'DELETE'
             });
 
             if (response.ok) {
@@ -161,7 +184,7 @@ document.addEventListener("DOMContentLoaded", function () {
     async function renderAllCommunities() {
         allCommunityList.innerHTML = "<li>Loading all communities...</li>";
         try {
-            const response = await fetch(`${API_BASE_URL}/all`, { headers: getAuthHeaders() });
+            const response = await apiFetch(`${API_BASE_URL}/all`);
             const communities = await response.json();
             allCommunityList.innerHTML = ""; // Clear loading message
             if (response.ok && communities && communities.length > 0) {
@@ -192,7 +215,7 @@ document.addEventListener("DOMContentLoaded", function () {
     async function renderJoinedCommunities() {
         joinedCommunityList.innerHTML = "<li>Loading joined communities...</li>";
         try {
-            const response = await fetch(`${API_BASE_URL}/user/communities/joined`, { headers: getAuthHeaders() });
+            const response = await apiFetch(`${API_BASE_URL}/user/communities/joined`);
             const communities = await response.json();
             joinedCommunities = communities; // Update the global joinedCommunities array for state management
             joinedCommunityList.innerHTML = ""; // Clear loading message
@@ -243,9 +266,8 @@ document.addEventListener("DOMContentLoaded", function () {
         }
 
         try {
-            const response = await fetch(`${API_BASE_URL}/communities/${currentCommunityId}/posts`, {
+            const response = await apiFetch(`${API_BASE_URL}/communities/${currentCommunityId}/posts`, {
                 method: 'POST',
-                headers: getAuthHeaders(),
                 body: JSON.stringify({
                     title: postTitleValue,
                     content: postDescriptionValue // Assuming backend expects 'content' for description
@@ -284,6 +306,14 @@ document.addEventListener("DOMContentLoaded", function () {
     // Initial fetch of communities when the page loads
     fetchAndRenderCommunities();
 
+    // Reload the open community when something is posted or announced in it
+    listenForLiveEvents(`${new URL(API_BASE_URL).origin}/events`, (name, data) => {
+        const openId = communityHeading.dataset.communityId;
+        if (openId && (name === "resync" || data.communityId === openId)) {
+            loadCommunityData(openId, communityHeading.textContent);
+        }
+    });
+
     // Hide create post section initially
     showCreatePostSection(null);
 });
\ No newline at end of file
@@ -3,15 +3,6 @@
 document.addEventListener("DOMContentLoaded", async function () {
     const API_BASE_URL = "http://localhost:8084"; // API base URL, consistent with other JS files
 
-    // Helper to get auth headers
-    function getAuthHeaders() {
-        const token = localStorage.getItem("token");
-        return {
-            "Content-Type": "application/json",
-            ...(token && { "Authorization": "Bearer " + token }) // Include token if available
-        };
-    }
-
     // DOM Elements
     const userProfileName = document.getElementById("user-profile-name");
     const userProfileImage = document.getElementById("user-profile-image");
@@ -24,7 +15,7 @@ document.addEventListener("DOMContentLoaded", async function () {
     // Fetch User Profile Data
     async function fetchUserProfile() {
         try {
-            const response = await fetch(`${API_BASE_URL}/user/profile`, { headers: getAuthHeaders() });
+            const response = await apiFetch(`${API_BASE_URL}/user/profile`);
             const userData = await response.json();
             if (response.ok) {
                 userProfileName.textContent = userData.name || "User";
@@ -49,7 +40,7 @@ document.addEventListener("DOMContentLoaded", async function () {
     // Fetch All Communities for the slider
     async function fetchAllCommunities() {
         try {
-            const response = await fetch(`${API_BASE_URL}/communities/all`, { headers: getAuthHeaders() });
+            const response = await apiFetch(`${API_BASE_URL}/communities/all`);
             const communities = await response.json();
             communitySlider.innerHTML = ""; // Clear existing static content
 
@@ -92,9 +83,8 @@ document.addEventListener("DOMContentLoaded", async function () {
     // Function to handle joining a community
     async function joinCommunity(communityId, communityName) {
         try {
-            const response = await fetch(`${API_BASE_URL}/user/communities/join`, {
+            const response = await apiFetch(`${API_BASE_URL}/user/communities/join`, {
                 method: 'POST',
-                headers: getAuthHeaders(),
                 body: JSON.stringify({ communityId: communityId })
             });
 
@@ -117,8 +107,9 @@ document.addEventListener("DOMContentLoaded", async function () {
     // Fetch Posts
     async function fetchPosts() {
         try {
-            const response = await fetch(`${API_BASE_URL}/posts/all`, { headers: getAuthHeaders() }); // Assuming an API for all posts
-            const posts = await response.json();
+            const response = await apiFetch(`${API_BASE_URL}/posts/all`); // Home feed: { items, nextCursor }
+            const page = await response.json();
+            const posts = page.items;
             postContainer.innerHTML = ""; // Clear existing static content
 
             if (response.ok && posts && posts.length > 0) {
@@ -149,7 +140,7 @@ document.addEventListener("DOMContentLoaded", async function () {
     // Fetch Announcements Count for Badge (assuming an endpoint that returns a count of unread or total announcements)
     async function fetchAnnouncementsCount() {
         try {
-            const response = await fetch(`${API_BASE_URL}/announcements/count`, { headers: getAuthHeaders() }); // Example API
+            const response = await apiFetch(`${API_BASE_URL}/announcements/count`); // Example API
             const data = await response.json();
             if (response.ok && data.count !== undefined) {
                 notificationsBadge.textContent = data.count;
@@ -163,13 +154,20 @@ document.addEventListener("DOMContentLoaded", async function () {
     }
 
     // Functions from script.js that are useful here
-    window.likePost = function(btn) {
-        // You might want to send a POST request to your backend here to record the like
-        // Example: fetch(`${API_BASE_URL}/posts/${btn.dataset.postId}/like`, { method: 'POST', headers: getAuthHeaders() });
-        if (btn.innerText.includes("Liked")) {
-            btn.innerText = "Like ❤️";
-        } else {
-            btn.innerText = "Liked ✅";
+    window.likePost = async function(btn) {
+        const liked = btn.innerText.includes("Liked");
+        try {
+            const response = await apiFetch(`${API_BASE_URL}/posts/${btn.dataset.postId}/like`, {
+                method: liked ? 'DELETE' : 'POST'
+            });
+            if (response.ok) {
+                const data = await response.json();
+                btn.innerText = liked ? `Like ❤️ ${data.likesCount}` : `Liked ✅ ${data.likesCount}`;
+            } else {
+                console.error("Like failed:", await response.text());
+            }
+        } catch (error) {
+            console.error("Error updating like:", error);
         }
     };
 
@@ -203,6 +201,12 @@ document.addEventListener("DOMContentLoaded", async function () {
     await fetchPosts();
     await fetchAnnouncementsCount(); // Fetch count for the badge
 
+    // New posts and announcements refresh the feed and badge instead of waiting for a reload
+    listenForLiveEvents(`${API_BASE_URL}/events`, (name) => {
+        if (name === "post" || name === "resync") fetchPosts();
+        if (name === "announcement" || name === "resync") fetchAnnouncementsCount();
+    });
+
     // Sidebar active link highlighting (already present and functional)
     const currentPath = window.location.pathname.split("/").pop();
     document.querySelectorAll(".sidebar nav a").forEach(link => {
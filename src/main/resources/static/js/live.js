@@ -0,0 +1,40 @@
+// live.js - live updates, shared by the pages that show them (loaded after api.js, before the page's own script)
+
+// GET /events is an SSE stream. EventSource cannot send the Authorization header, so the stream is read with
+// fetch; on any failure it reconnects after a short pause. The server ends the stream when the token expires or is
+// revoked; the reconnect refreshes an expired token, and listening stops only once the session itself has ended.
+async function listenForLiveEvents(url, onEvent) {
+    while (true) {
+        try {
+            const response = await apiFetch(url);
+            if (!response.ok) {
+                return; // not signed in, or no longer
+            }
+            const reader = response.body.pipeThrough(new TextDecoderStream()).getReader();
+            let buffer = "";
+            while (true) {
+                const { value, done } = await reader.read();
+                if (done) {
+                    break;
+                }
+                buffer += value;
+                let end;
+                while ((end = buffer.indexOf("\n\n")) >= 0) {
+                    const block = buffer.slice(0, end);
+                    buffer = buffer.slice(end + 2);
+                    let name = "message", data = "";
+                    block.split("\n").forEach(line => {
+                        if (line.startsWith("event:")) name = line.slice(6).trim();
+                        else if (line.startsWith("data:")) data += line.slice(5).trim();
+                    });
+                    if (data) {
+                        onEvent(name, JSON.parse(data));
+                    }
+                }
+            }
+        } catch (error) {
+            console.error("Live events disconnected:", error);
+        }
+        await new Promise(resolve => setTimeout(resolve, 3000));
+    }
+}
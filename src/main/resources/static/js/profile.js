@@ -2,15 +2,6 @@
 document.addEventListener("DOMContentLoaded", function () {
   const API_BASE_URL = "http://localhost:8084"; // API base URL
 
-  // Helper to get auth headers
-  function getAuthHeaders() {
-    const token = localStorage.getItem("token");
-    return {
-      "Content-Type": "application/json",
-      ...(token && { "Authorization": "Bearer " + token })
-    };
-  }
-
   /* --- DOM Elements --- */
   const editPanel = document.getElementById("edit-panel");
   const editPersonalInfoBtn = document.getElementById("edit-personal-info-btn");
@@ -53,7 +44,7 @@ document.addEventListener("DOMContentLoaded", function () {
   /* --- Profile Data Fetching and Display --- */
   async function fetchAndDisplayProfile() {
     try {
-      const response = await fetch(`${API_BASE_URL}/user/profile`, { headers: getAuthHeaders() });
+      const response = await apiFetch(`${API_BASE_URL}/user/profile`);
       const userData = await response.json();
       if (response.ok) {
         displayName.textContent = userData.name || "N/A";
@@ -106,7 +97,7 @@ document.addEventListener("DOMContentLoaded", function () {
 
   async function fetchUserCommunities() {
     try {
-      const response = await fetch(`${API_BASE_URL}/user/communities/joined`, { headers: getAuthHeaders() });
+      const response = await apiFetch(`${API_BASE_URL}/user/communities/joined`);
       const communities = await response.json();
       communityList.innerHTML = "";
       if (response.ok && communities && communities.length > 0) {
@@ -126,7 +117,7 @@ document.addEventListener("DOMContentLoaded", function () {
 
   async function fetchUserPosts() {
     try {
-      const response = await fetch(`${API_BASE_URL}/user/posts`, { headers: getAuthHeaders() });
+      const response = await apiFetch(`${API_BASE_URL}/user/posts`);
       const posts = await response.json();
       postList.innerHTML = "";
       if (response.ok && posts && posts.length > 0) {
@@ -174,9 +165,8 @@ document.addEventListener("DOMContentLoaded", function () {
     };
 
     try {
-      const response = await fetch(`${API_BASE_URL}/user/profile`, {
+      const response = await apiFetch(`${API_BASE_URL}/user/profile`, {
         method: 'PUT', // or PATCH
-        headers: getAuthHeaders(),
         body: JSON.stringify(updatedProfile)
       });
 
@@ -223,7 +213,7 @@ document.addEventListener("DOMContentLoaded", function () {
     profilePicDisplay.src = "https://via.placeholder.com/100?text=No+Image";
     editProfilePhoto.src = "https://via.placeholder.com/100?text=No+Image";
     // Call backend API to remove photo if needed
-    // fetch(`${API_BASE_URL}/user/profile/photo`, { method: 'DELETE', headers: getAuthHeaders() });
+    // apiFetch(`${API_BASE_URL}/user/profile/photo`, { method: 'DELETE' });
   });
 
   editPhotoBtn.addEventListener("click", () => handlePhotoUpload(profilePicDisplay));
@@ -251,9 +241,8 @@ document.addEventListener("DOMContentLoaded", function () {
     };
 
     try {
-      const response = await fetch(`${API_BASE_URL}/user/social-links`, {
+      const response = await apiFetch(`${API_BASE_URL}/user/social-links`, {
         method: 'PUT', // or PATCH
-        headers: getAuthHeaders(),
         body: JSON.stringify(updatedSocialLinks)
       });
 console.log("Response:", response);
@@ -289,14 +278,13 @@ console.log("Response:", response);
     if (communityName) {
       try {
         // Example: Find community by name and then join it (requires a search API)
-        const searchResponse = await fetch(`${API_BASE_URL}/communities/search?name=${encodeURIComponent(communityName)}`, { headers: getAuthHeaders() });
+        const searchResponse = await apiFetch(`${API_BASE_URL}/communities/search?name=${encodeURIComponent(communityName)}`);
         const searchResults = await searchResponse.json();
 
         if (searchResponse.ok && searchResults.length > 0) {
           const communityToJoin = searchResults[0]; // Take the first match
-          const joinResponse = await fetch(`${API_BASE_URL}/user/communities/join`, {
+          const joinResponse = await apiFetch(`${API_BASE_URL}/user/communities/join`, {
             method: 'POST',
-            headers: getAuthHeaders(),
             body: JSON.stringify({ communityId: communityToJoin.id })
           });
 
@@ -0,0 +1,38 @@
+package org.yug.backend.config.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.yug.backend.service.community.CommunityService;
+import org.yug.backend.service.community.MembershipIndex;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Only the service classes are timed; the in-memory structures beside them are called directly.
+ */
+@SpringBootTest
+class LayerTimingAspectTest {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CommunityService communityService;
+
+    @Autowired
+    private MembershipIndex membershipIndex;
+
+    @Test
+    void timesServiceMethodsButNotInMemoryStructures() {
+        communityService.getAllCommunities();
+        membershipIndex.holds(UUID.randomUUID(), UUID.randomUUID());
+
+        assertNotNull(meterRegistry.find("service.method").tags("class", "CommunityService", "method", "getAllCommunities").timer());
+        assertNull(meterRegistry.find("service.method").tags("class", "MembershipIndex").timer());
+    }
+}
@@ -0,0 +1,75 @@
+package org.yug.backend.config.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RateLimitFilterTest {
+
+    @Test
+    void requestsOverTheBurstGet429WithRetryAfter() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        RateLimitFilter filter = filter(registry, 2);
+
+        assertEquals(200, login("10.0.0.1", filter).getStatus());
+        assertEquals(200, login("10.0.0.1", filter).getStatus());
+        MockHttpServletResponse rejected = login("10.0.0.1", filter);
+
+        assertEquals(429, rejected.getStatus());
+        assertEquals("30", rejected.getHeader(HttpHeaders.RETRY_AFTER)); // one token per 30s
+        assertEquals(1.0, registry.get("ratelimit.rejected").tag("policy", "login").counter().count());
+        // Another client has its own bucket
+        assertEquals(200, login("10.0.0.2", filter).getStatus());
+    }
+
+    @Test
+    void unmatchedRoutesAndDisabledLimiterPassThrough() throws Exception {
+        RateLimitFilter filter = filter(new SimpleMeterRegistry(), 1);
+        login("10.0.0.1", filter);
+
+        MockHttpServletRequest other = new MockHttpServletRequest("GET", "/communities/all");
+        other.setRemoteAddr("10.0.0.1");
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(other, response, chain);
+        assertNotNull(chain.getRequest());
+        assertNull(response.getHeader(HttpHeaders.RETRY_AFTER));
+
+        RateLimitProperties disabled = properties(1);
+        disabled.setEnabled(false);
+        RateLimitFilter off = new RateLimitFilter(new RateLimiter(disabled, new SimpleMeterRegistry()));
+        login("10.0.0.1", off);
+        assertEquals(200, login("10.0.0.1", off).getStatus());
+    }
+
+    private static RateLimitFilter filter(SimpleMeterRegistry registry, int capacity) {
+        return new RateLimitFilter(new RateLimiter(properties(capacity), registry));
+    }
+
+    private static RateLimitProperties properties(int capacity) {
+        RateLimitProperties.Policy policy = new RateLimitProperties.Policy("login", "POST", "/auth/login",
+                RateLimitProperties.KeyType.IP, capacity, 2);
+        policy.setRefillPeriod(Duration.ofMinutes(1));
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setPolicies(List.of(policy));
+        return properties;
+    }
+
+    private static MockHttpServletResponse login(String ip, RateLimitFilter filter) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/auth/login");
+        request.setRemoteAddr(ip);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
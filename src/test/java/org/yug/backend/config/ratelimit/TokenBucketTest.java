@@ -0,0 +1,67 @@
+package org.yug.backend.config.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void fullBucketAllowsABurstOfCapacityThenRejects() {
+        long now = 1_000 * SECOND;
+        TokenBucket bucket = new TokenBucket(SECOND, 5, now);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryAcquire(now), "request " + i);
+        }
+        assertEquals(SECOND, bucket.tryAcquire(now));
+    }
+
+    @Test
+    void tokensRefillAtTheEmissionInterval() {
+        long now = 1_000 * SECOND;
+        TokenBucket bucket = new TokenBucket(SECOND, 3, now);
+        for (int i = 0; i < 3; i++) {
+            bucket.tryAcquire(now);
+        }
+
+        assertEquals(SECOND / 2, bucket.tryAcquire(now + SECOND / 2));
+        assertEquals(0, bucket.tryAcquire(now + SECOND));
+        assertTrue(bucket.tryAcquire(now + SECOND) > 0);
+
+        // Refill never exceeds capacity, however long the bucket sat idle
+        long later = now + 60 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire(later), "request " + i);
+        }
+        assertEquals(SECOND, bucket.tryAcquire(later));
+    }
+
+    @Test
+    void rejectedRequestsDoNotConsumeTokens() {
+        long now = 1_000 * SECOND;
+        TokenBucket bucket = new TokenBucket(SECOND, 1, now);
+        assertEquals(0, bucket.tryAcquire(now));
+        for (int i = 0; i < 10; i++) {
+            assertEquals(SECOND, bucket.tryAcquire(now));
+        }
+        assertEquals(0, bucket.tryAcquire(now + SECOND));
+    }
+
+    @Test
+    void bucketIsIdleOnceFullForTheIdlePeriod() {
+        long now = 1_000 * SECOND;
+        TokenBucket bucket = new TokenBucket(SECOND, 2, now);
+        bucket.tryAcquire(now);
+        bucket.tryAcquire(now);
+
+        assertFalse(bucket.isIdle(now + 5 * SECOND, 10 * SECOND));
+        assertTrue(bucket.isIdle(now + 13 * SECOND, 10 * SECOND));
+    }
+}
@@ -0,0 +1,114 @@
+package org.yug.backend.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.yug.backend.dto.community.CommunityDto;
+import org.yug.backend.model.auth.AuthenticatedUser;
+import org.yug.backend.model.auth.User;
+import org.yug.backend.repository.UserRepository;
+import org.yug.backend.service.community.CommunityCatalog;
+import org.yug.backend.service.community.CommunityService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class CommunityCatalogTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CommunityService communityService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CommunityCatalog communityCatalog;
+
+    @Test
+    void unchangedCatalogIsNotModifiedAndChangesAreVisibleAfterCommit() throws Exception {
+        CommunityDto created = communityService.createCommunity(CommunityDto.builder().name("Catalog " + UUID.randomUUID()).build());
+
+        MvcResult first = mockMvc.perform(get("/communities/all")).andExpect(status().isOk()).andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        assertEquals(0, memberCount(first, created.getId()));
+
+        mockMvc.perform(get("/communities/all").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+
+        String name = "catalog-" + UUID.randomUUID();
+        User user = userRepository.save(new User(name + "@example.com", "x", name, User.UserRole.STUDENT));
+        communityService.joinCommunity(new AuthenticatedUser(user.getId(), user.getUsername(), user.getRole()), created.getId());
+
+        MvcResult afterJoin = mockMvc.perform(get("/communities/all").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertNotEquals(etag, afterJoin.getResponse().getHeader(HttpHeaders.ETAG));
+        assertEquals(1, memberCount(afterJoin, created.getId()));
+    }
+
+    @Test
+    void concurrentJoinsPatchTheCatalogToWhatAFullReloadBuilds() throws Exception {
+        CommunityDto created = communityService.createCommunity(CommunityDto.builder().name("Patched " + UUID.randomUUID()).build());
+        communityCatalog.refresh(); // other tests write rows behind the catalog's back
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> joins = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                String name = "patch-" + UUID.randomUUID();
+                User user = userRepository.save(new User(name + "@example.com", "x", name, User.UserRole.STUDENT));
+                joins.add(pool.submit(() -> communityService.joinCommunity(
+                        new AuthenticatedUser(user.getId(), user.getUsername(), user.getRole()), created.getId())));
+            }
+            for (Future<?> join : joins) {
+                join.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        CommunityCatalog.Snapshot patched = communityCatalog.current();
+        assertEquals(16, patched.find(created.getId()).getMemberCount());
+        assertEquals(16, communityService.findCommunitiesByName(created.getName(), 1).get(0).getMemberCount());
+
+        communityCatalog.refresh();
+        CommunityCatalog.Snapshot reloaded = communityCatalog.current();
+        assertEquals(reloaded.getEtag(), patched.getEtag());
+        assertArrayEquals(reloaded.getJson(), patched.getJson());
+    }
+
+    private int memberCount(MvcResult result, UUID communityId) throws Exception {
+        for (JsonNode community : objectMapper.readTree(result.getResponse().getContentAsByteArray())) {
+            if (community.get("id").asText().equals(communityId.toString())) {
+                return community.get("memberCount").asInt();
+            }
+        }
+        throw new AssertionError("community " + communityId + " missing from catalog");
+    }
+}
@@ -0,0 +1,263 @@
+package org.yug.backend.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.yug.backend.config.metrics.QueryCountResponseAdvice;
+import org.yug.backend.dto.community.PostCreateRequest;
+import org.yug.backend.model.Announcement;
+import org.yug.backend.model.Community;
+import org.yug.backend.model.Post;
+import org.yug.backend.model.Profile;
+import org.yug.backend.model.UserCommunity;
+import org.yug.backend.model.auth.AuthenticatedUser;
+import org.yug.backend.model.auth.User;
+import org.yug.backend.repository.AnnouncementRepository;
+import org.yug.backend.repository.CommunityRepository;
+import org.yug.backend.repository.PostRepository;
+import org.yug.backend.repository.ProfileRepository;
+import org.yug.backend.repository.UserCommunityRepository;
+import org.yug.backend.repository.UserRepository;
+import org.yug.backend.service.JwtService;
+import org.yug.backend.service.community.CommunityService;
+import org.yug.backend.service.community.MembershipIndex;
+import org.yug.backend.service.search.PostSearchService;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Every read endpoint must stay within its {@code @QueryBudget} however many rows it returns. The test profile sets
+ * {@code fail-on-exceed}, so an N+1 regression turns into a 500 here.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class CommunityControllerQueryBudgetTest {
+
+    private static final int ROWS = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CommunityService communityService;
+
+    @Autowired
+    private PostSearchService postSearchService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProfileRepository profileRepository;
+
+    @Autowired
+    private CommunityRepository communityRepository;
+
+    @Autowired
+    private UserCommunityRepository userCommunityRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private AnnouncementRepository announcementRepository;
+
+    private Community community;
+    private User member;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MembershipIndex membershipIndex;
+
+    @BeforeEach
+    void seed() {
+        transactionTemplate.executeWithoutResult(status -> seedCommunity());
+        membershipIndex.refresh(); // seeded behind the service's back
+    }
+
+    private void seedCommunity() {
+        String run = UUID.randomUUID().toString(); // the context, and its database, is shared between tests
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            User user = userRepository.save(new User("user" + i + "-" + run + "@example.com", "x", "user" + i + "-" + run, User.UserRole.STUDENT));
+            profileRepository.save(new Profile(user, "User " + i, null, null, null, null, null));
+            users.add(user);
+        }
+        member = users.get(0);
+
+        for (int i = 0; i < ROWS; i++) {
+            Community c = communityRepository.save(new Community("Community " + i + " " + run, "About " + i, null));
+            userCommunityRepository.save(new UserCommunity(member, c));
+            if (i == 0) {
+                community = c;
+            }
+        }
+        for (User user : users.subList(1, ROWS)) {
+            userCommunityRepository.save(new UserCommunity(user, community));
+        }
+        for (User user : users) {
+            postRepository.save(new Post(community, user, "Post by " + user.getUsername(), "Hello", null));
+            announcementRepository.save(new Announcement("Notice " + user.getUsername(), "Text", "general", community));
+        }
+        communityRepository.reconcileMemberCounts(); // memberships were saved directly, bypassing the counter
+    }
+
+    @Test
+    void communityListsStayWithinBudget() throws Exception {
+        assertWithinBudget(queryCount("/communities/all"), 1);
+        assertWithinBudget(queryCount("/communities/search?name=community"), 1);
+    }
+
+    @Test
+    void communityDetailsStayWithinBudget() throws Exception {
+        String base = "/communities/" + community.getId();
+        assertWithinBudget(queryCount(base + "/posts"), 2);
+        assertWithinBudget(queryCount(base + "/posts/feed?limit=2"), 2);
+        assertWithinBudget(queryCount(base + "/members"), 2);
+        JsonNode members = objectMapper.readTree(mockMvc.perform(get(base + "/members")).andReturn().getResponse().getContentAsString());
+        assertEquals(ROWS, members.size());
+        members.forEach(m -> {
+            assertTrue(m.get("name").asText().startsWith("User "), "profile name preferred over username");
+            assertEquals("STUDENT", m.get("role").asText());
+        });
+        JsonNode firstTwo = objectMapper.readTree(mockMvc.perform(get(base + "/members?limit=2")).andReturn().getResponse().getContentAsString());
+        assertEquals(2, firstTwo.size()); // bounded: the rest is reached through /members/page
+        assertWithinBudget(queryCount(base + "/announcements"), 2);
+    }
+
+    @Test
+    void postFeedPagesThroughEveryPostOnce() throws Exception {
+        String feed = "/communities/" + community.getId() + "/posts/feed?limit=2";
+        Set<String> seen = new HashSet<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            String uri = cursor == null ? feed : feed + "&cursor=" + cursor;
+            MvcResult result = mockMvc.perform(get(uri)).andExpect(status().isOk()).andReturn();
+            assertWithinBudget(headerCount(result), 2); // page n costs what page 1 does
+            JsonNode page = objectMapper.readTree(result.getResponse().getContentAsString());
+            page.get("items").forEach(item -> assertTrue(seen.add(item.get("id").asText()), "post returned twice"));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+            pages++;
+        } while (cursor != null);
+        assertEquals(ROWS, seen.size());
+        assertEquals(3, pages);
+    }
+
+    @Test
+    void memberPagesWalkEverySortOnce() throws Exception {
+        for (String sort : List.of("name", "joined")) {
+            String members = "/communities/" + community.getId() + "/members/page?limit=2&sort=" + sort;
+            Set<String> seen = new HashSet<>();
+            String cursor = null;
+            do {
+                String uri = cursor == null ? members : members + "&cursor=" + cursor;
+                MvcResult result = mockMvc.perform(get(uri)).andExpect(status().isOk()).andReturn();
+                assertWithinBudget(headerCount(result), 2);
+                JsonNode page = objectMapper.readTree(result.getResponse().getContentAsString());
+                page.get("items").forEach(item -> assertTrue(seen.add(item.get("userId").asText()), "member returned twice"));
+                cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+            } while (cursor != null);
+            assertEquals(ROWS, seen.size(), sort);
+        }
+
+        String base = "/communities/" + community.getId() + "/members";
+        assertWithinBudget(queryCount(base + "/count"), 1);
+        assertEquals(ROWS, countOf(base + "/count"));
+        assertEquals(ROWS, countOf(base + "/count?role=STUDENT"));
+        assertEquals(0, countOf(base + "/count?role=ADMIN"));
+        mockMvc.perform(get(base + "/page?sort=joined&cursor=bm9wZQ")).andExpect(status().isBadRequest());
+    }
+
+    private long countOf(String uri) throws Exception {
+        String body = mockMvc.perform(get(uri)).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("count").asLong();
+    }
+
+    @Test
+    void joinedCommunitiesStayWithinBudget() throws Exception {
+        MvcResult result = mockMvc.perform(get("/communities/user/communities/joined")
+                        .header("Authorization", "Bearer " + jwtService.generateToken(member)))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertWithinBudget(headerCount(result), 2);
+        assertEquals(ROWS, objectMapper.readTree(result.getResponse().getContentAsString()).size());
+    }
+
+    @Test
+    void postSearchFindsNewPostsWithinBudget() throws Exception {
+        assertTrue(postSearchService.awaitReady(Duration.ofSeconds(30)));
+        String word = "zq" + UUID.randomUUID().toString().replace("-", "");
+        PostCreateRequest request = new PostCreateRequest();
+        request.setTitle("Searchable " + word);
+        request.setContent("Indexed when the transaction commits");
+        communityService.createPost(new AuthenticatedUser(member.getId(), member.getUsername(), member.getRole()), community.getId(), request);
+
+        MvcResult result = mockMvc.perform(get("/posts/search?q=" + word + "&communityId=" + community.getId())
+                        .header("Authorization", "Bearer " + jwtService.generateToken(member)))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertWithinBudget(headerCount(result), 2);
+        JsonNode hits = objectMapper.readTree(result.getResponse().getContentAsString());
+        assertEquals(1, hits.size());
+        assertEquals("Searchable " + word, hits.get(0).get("title").asText());
+    }
+
+    @Test
+    void announcementCountStaysWithinBudget() throws Exception {
+        MvcResult result = mockMvc.perform(get("/announcements/count")
+                        .header("Authorization", "Bearer " + jwtService.generateToken(member)))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertWithinBudget(headerCount(result), 3);
+    }
+
+    @Test
+    void profileStaysWithinBudget() throws Exception {
+        MvcResult result = mockMvc.perform(get("/user/profile")
+                        .header("Authorization", "Bearer " + jwtService.generateToken(member)))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertWithinBudget(headerCount(result), 2);
+    }
+
+    private int queryCount(String uri) throws Exception {
+        MvcResult result = mockMvc.perform(get(uri)).andExpect(status().isOk()).andReturn();
+        return headerCount(result);
+    }
+
+    private static int headerCount(MvcResult result) {
+        String header = result.getResponse().getHeader(QueryCountResponseAdvice.QUERY_COUNT_HEADER);
+        assertTrue(header != null, "missing " + QueryCountResponseAdvice.QUERY_COUNT_HEADER + " header");
+        return Integer.parseInt(header);
+    }
+
+    private static void assertWithinBudget(int statements, int budget) {
+        assertTrue(statements <= budget, statements + " SQL statements, budget is " + budget);
+    }
+}
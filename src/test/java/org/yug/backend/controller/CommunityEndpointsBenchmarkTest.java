@@ -0,0 +1,172 @@
+package org.yug.backend.controller;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.yug.backend.BackendApplication;
+import org.yug.backend.model.Community;
+import org.yug.backend.model.Post;
+import org.yug.backend.model.Profile;
+import org.yug.backend.model.UserCommunity;
+import org.yug.backend.model.auth.User;
+import org.yug.backend.repository.CommunityRepository;
+import org.yug.backend.repository.PostRepository;
+import org.yug.backend.repository.ProfileRepository;
+import org.yug.backend.repository.UserCommunityRepository;
+import org.yug.backend.repository.UserRepository;
+import org.yug.backend.service.community.CommunityCatalog;
+import org.yug.backend.service.community.MembershipIndex;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Throughput and p99 of the community endpoints with request handling on platform threads and on virtual threads
+ * ({@code spring.threads.virtual.enabled}), at a concurrency well above Tomcat's 200 platform threads. Each mode
+ * gets its own application on a random port and its own database. Excluded from the default build; run with
+ * {@code mvn test -Pbenchmark}, and {@code -Pjava21,benchmark} on a Java 21 JDK for the virtual-thread side (on
+ * older JDKs the flag is ignored and that side is skipped).
+ * <p>
+ * Against in-memory H2, which synchronizes internally and so pins virtual threads, the virtual-thread numbers are a
+ * floor; the java21 profile prints those pinning stacks. Point {@code spring.datasource.url} at MySQL for numbers
+ * that include real JDBC waits.
+ * <p>
+ * One run, JDK 21.0.1, {@code -Pjava21,benchmark}, a single CPU, in-memory H2 (no pinned threads reported):
+ * <pre>
+ * platform      321 req/s   p50  2672.1 ms   p99  6705.0 ms
+ * virtual       347 req/s   p50  3030.0 ms   p99  4100.0 ms
+ * virtual/platform: throughput x1.08, p99 x0.61
+ * </pre>
+ * With one CPU both modes are CPU-bound, so throughput barely moves. Virtual threads take all 1,000 requests at
+ * once instead of queueing the overflow beyond Tomcat's 200 threads, which trades a slightly higher median for a
+ * much shorter tail.
+ */
+@Tag("benchmark")
+class CommunityEndpointsBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(CommunityEndpointsBenchmarkTest.class);
+    private static final int CONCURRENCY = 1_000;
+    private static final int REQUESTS = 20_000;
+    private static final int WARMUP = 2_000;
+    private static final int MEMBERS = 50;
+    private static final int POSTS = 200;
+
+    @Test
+    void platformVersusVirtualThreads() throws Exception {
+        Result platform = run(false);
+        logger.info("{}", platform);
+        if (Runtime.version().feature() >= 21) {
+            Result virtual = run(true);
+            logger.info("{}", virtual);
+            logger.info(String.format("virtual/platform: throughput x%.2f, p99 x%.2f",
+                    virtual.throughput() / platform.throughput(), (double) virtual.p99Micros() / platform.p99Micros()));
+        } else {
+            logger.info("virtual threads: skipped, Java {} < 21", Runtime.version().feature());
+        }
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BackendApplication.class).properties(
+                "server.port=0",
+                "spring.threads.virtual.enabled=" + virtualThreads,
+                "spring.datasource.url=jdbc:h2:mem:bench-" + mode + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "app.rate-limit.enabled=false",
+                "app.metrics.query-budget.fail-on-exceed=false",
+                "app.search.posts.index-dir=target/post-index-bench-" + mode).run()) {
+            UUID communityId = seed(context);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String base = "http://localhost:" + port + "/communities";
+            List<URI> uris = List.of(
+                    URI.create(base + "/all"),
+                    URI.create(base + "/" + communityId + "/posts/feed?limit=20"),
+                    URI.create(base + "/" + communityId + "/members/page?limit=20"),
+                    URI.create(base + "/" + communityId + "/announcements"));
+
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            load(client, uris, WARMUP, new long[WARMUP]);
+            long[] latencies = new long[REQUESTS];
+            long start = System.nanoTime();
+            int failures = load(client, uris, REQUESTS, latencies);
+            long elapsed = System.nanoTime() - start;
+            assertEquals(0, failures, mode + ": non-200 responses");
+
+            Arrays.sort(latencies);
+            return new Result(mode, REQUESTS * 1e9 / elapsed,
+                    latencies[REQUESTS / 2] / 1000, latencies[(int) (REQUESTS * 0.99)] / 1000);
+        }
+    }
+
+    // Keeps CONCURRENCY requests in flight until `count` have completed; returns the number of non-200 answers
+    private static int load(HttpClient client, List<URI> uris, int count, long[] latencies) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        AtomicInteger failures = new AtomicInteger();
+        CompletableFuture<?>[] requests = new CompletableFuture<?>[count];
+        for (int i = 0; i < count; i++) {
+            inFlight.acquire();
+            int n = i;
+            long sent = System.nanoTime();
+            requests[i] = client.sendAsync(HttpRequest.newBuilder(uris.get(i % uris.size())).GET().build(),
+                            HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        latencies[n] = System.nanoTime() - sent;
+                        if (error != null || response.statusCode() != 200) {
+                            failures.incrementAndGet();
+                        }
+                        inFlight.release();
+                    });
+        }
+        CompletableFuture.allOf(requests).exceptionally(error -> null).join();
+        return failures.get();
+    }
+
+    private static UUID seed(ConfigurableApplicationContext context) {
+        UserRepository users = context.getBean(UserRepository.class);
+        ProfileRepository profiles = context.getBean(ProfileRepository.class);
+        CommunityRepository communities = context.getBean(CommunityRepository.class);
+        UserCommunityRepository memberships = context.getBean(UserCommunityRepository.class);
+        PostRepository posts = context.getBean(PostRepository.class);
+
+        TransactionTemplate transactionTemplate = context.getBean(TransactionTemplate.class);
+        Community community = transactionTemplate.execute(status -> {
+            Community c = communities.save(new Community("Benchmark", "Load test", null));
+            for (int i = 0; i < MEMBERS; i++) {
+                User user = users.save(new User("bench" + i + "@example.com", "x", "bench" + i, User.UserRole.STUDENT));
+                profiles.save(new Profile(user, "Bench " + i, null, null, null, null, null));
+                memberships.save(new UserCommunity(user, c));
+                for (int p = 0; p < POSTS / MEMBERS; p++) {
+                    posts.save(new Post(c, user, "Post " + p + " by " + i, "Body", null));
+                }
+            }
+            communities.reconcileMemberCounts();
+            return c;
+        });
+        context.getBean(CommunityCatalog.class).refresh(); // seeded behind the services' back
+        context.getBean(MembershipIndex.class).refresh();
+        return community.getId();
+    }
+
+    private record Result(String mode, double throughput, long p50Micros, long p99Micros) {
+
+        @Override
+        public String toString() {
+            return String.format("%-8s %8.0f req/s   p50 %7.1f ms   p99 %7.1f ms",
+                    mode, throughput, p50Micros / 1000.0, p99Micros / 1000.0);
+        }
+    }
+}
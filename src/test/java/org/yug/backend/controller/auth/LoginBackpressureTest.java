@@ -0,0 +1,65 @@
+package org.yug.backend.controller.auth;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.yug.backend.service.auth.PasswordHashingExecutor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * With the hashing pool and its queue full, a login is turned away at once with 503 and Retry-After instead of
+ * waiting for a slot.
+ */
+@SpringBootTest(properties = {
+        "app.security.password.hashing.threads=1",
+        "app.security.password.hashing.queue-capacity=1"
+})
+@AutoConfigureMockMvc
+class LoginBackpressureTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PasswordHashingExecutor hashingExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void saturatedHashingPoolAnswers503WithRetryAfter() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < 2; i++) { // one running, one queued
+            Thread occupant = new Thread(() -> hashingExecutor.run(() -> release.await(10, TimeUnit.SECONDS)));
+            occupant.setDaemon(true);
+            occupant.start();
+        }
+        try {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (meterRegistry.get("auth.hashing.queue.depth").gauge().value() < 1 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertTrue(meterRegistry.get("auth.hashing.queue.depth").gauge().value() >= 1, "pool never filled");
+
+            mockMvc.perform(post("/auth/login")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"email\":\"busy@example.com\",\"password\":\"secret\"}"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+        } finally {
+            release.countDown();
+        }
+    }
+}
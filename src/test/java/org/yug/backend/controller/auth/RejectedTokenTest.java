@@ -0,0 +1,36 @@
+package org.yug.backend.controller.auth;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * A request whose bearer token is rejected gets 401, the page scripts' cue to refresh it; a browser navigating
+ * without one is still sent to the sign-in page.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class RejectedTokenTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void rejectedBearerTokenAnswers401() throws Exception {
+        mockMvc.perform(get("/user/profile").header(HttpHeaders.AUTHORIZATION, "Bearer expired.or.forged"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void navigationWithoutATokenIsRedirectedToSignIn() throws Exception {
+        mockMvc.perform(get("/user/profile").accept(MediaType.TEXT_HTML))
+                .andExpect(status().is3xxRedirection());
+    }
+}
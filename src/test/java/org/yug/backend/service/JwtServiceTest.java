@@ -0,0 +1,63 @@
+package org.yug.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.yug.backend.model.auth.User;
+import org.yug.backend.service.auth.SigningKeyRing;
+import org.yug.backend.service.auth.VerifiedToken;
+import org.yug.backend.service.auth.VerifiedTokenCache;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JwtServiceTest {
+
+    private VerifiedTokenCache tokenCache;
+    private JwtService jwtService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        tokenCache = new VerifiedTokenCache(100, new SimpleMeterRegistry());
+        SigningKeyRing keyRing = new SigningKeyRing("", Base64.getEncoder().encodeToString(new byte[32]), tokenCache);
+        jwtService = new JwtService(keyRing, tokenCache, Duration.ofMinutes(15));
+        user = new User("reader@example.com", "x", "reader", User.UserRole.STUDENT);
+        user.setId(UUID.randomUUID());
+    }
+
+    @Test
+    void sameTokenIsVerifiedOnce() {
+        String token = jwtService.generateToken(user);
+        VerifiedToken first = jwtService.verify(token).orElseThrow();
+        VerifiedToken second = jwtService.verify(token).orElseThrow();
+        assertSame(first, second, "served from the cache, not parsed again");
+        assertEquals(0.5, tokenCache.hitRate()); // one miss, one hit
+        assertNotNull(tokenCache.get(VerifiedTokenCache.digest(token)));
+        assertEquals(user.getId(), second.getUserId());
+        assertEquals("STUDENT", second.getRole());
+    }
+
+    @Test
+    void differentTokenMissesTheCache() {
+        VerifiedToken first = jwtService.verify(jwtService.generateToken(user)).orElseThrow();
+        String other = jwtService.generateToken(user);
+        assertNull(tokenCache.get(VerifiedTokenCache.digest(other)));
+
+        VerifiedToken second = jwtService.verify(other).orElseThrow();
+        assertNotEquals(first.getTokenId(), second.getTokenId());
+        assertEquals(0.0, tokenCache.hitRate());
+
+        String tampered = other.substring(0, other.length() - 2) + (other.endsWith("AA") ? "BB" : "AA");
+        assertTrue(jwtService.verify(tampered).isEmpty());
+        assertNull(tokenCache.get(VerifiedTokenCache.digest(tampered)), "rejected tokens are not cached");
+    }
+}
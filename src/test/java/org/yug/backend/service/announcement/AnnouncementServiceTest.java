@@ -0,0 +1,169 @@
+package org.yug.backend.service.announcement;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.yug.backend.dto.announcement.AnnouncementDto;
+import org.yug.backend.model.Announcement;
+import org.yug.backend.model.Community;
+import org.yug.backend.model.auth.AuthenticatedUser;
+import org.yug.backend.model.auth.User;
+import org.yug.backend.repository.AnnouncementBookmarkRepository;
+import org.yug.backend.repository.AnnouncementReadExceptionRepository;
+import org.yug.backend.repository.AnnouncementRepository;
+import org.yug.backend.repository.CommunityRepository;
+import org.yug.backend.repository.UserRepository;
+import org.yug.backend.service.community.CommunityService;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class AnnouncementServiceTest {
+
+    @Autowired
+    private AnnouncementService announcementService;
+
+    @Autowired
+    private AnnouncementSequence sequence;
+
+    @Autowired
+    private CommunityService communityService;
+
+    @Autowired
+    private AnnouncementStateFlusher flusher;
+
+    @Autowired
+    private AnnouncementRepository announcementRepository;
+
+    @Autowired
+    private AnnouncementReadExceptionRepository readExceptionRepository;
+
+    @Autowired
+    private AnnouncementBookmarkRepository bookmarkRepository;
+
+    @Autowired
+    private AnnouncementWriteBuffer writeBuffer;
+
+    @Autowired
+    private CommunityRepository communityRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void readStateFollowsWatermarkAndExceptions() {
+        AuthenticatedUser user = newUser();
+        Community community = communityRepository.save(new Community("Notices " + UUID.randomUUID(), null, null));
+        communityService.joinCommunity(user, community.getId());
+        announcementService.markAllRead(user); // campus-wide announcements from other tests
+        long before = announcementService.countUnread(user);
+
+        Announcement first = announce("first", community);
+        Announcement second = announce("second", community);
+        Announcement third = announce("third", community);
+        announce("campus-wide", null);
+        sequence.refresh();
+        assertEquals(before + 4, announcementService.countUnread(user));
+
+        announcementService.setRead(user, second.getId(), false); // coalesced away by the next toggle
+        announcementService.setRead(user, second.getId(), true); // out of order: an exception
+        assertEquals(before + 3, announcementService.countUnread(user)); // pending, yet already counted
+        flusher.flush();
+        assertEquals(before + 3, announcementService.countUnread(user));
+        assertEquals(1, readExceptionRepository.findByUserId(user.getId()).size());
+
+        announcementService.setRead(user, first.getId(), true); // watermark moves over first and second
+        assertEquals(before + 2, announcementService.countUnread(user));
+        flusher.flush();
+        assertTrue(readExceptionRepository.findByUserId(user.getId()).isEmpty());
+
+        announcementService.setRead(user, first.getId(), false);
+        assertEquals(before + 3, announcementService.countUnread(user));
+        announcementService.setBookmarked(user, third.getId(), true);
+        AnnouncementDto listedFirst = find(user, first.getId());
+        AnnouncementDto listedThird = find(user, third.getId());
+        assertEquals(false, listedFirst.isRead());
+        assertEquals(true, listedThird.isBookmarked());
+        assertEquals(community.getName(), listedThird.getCommunityName());
+        flusher.flush();
+        assertEquals(true, find(user, third.getId()).isBookmarked());
+        assertEquals(false, find(user, first.getId()).isRead());
+
+        announcementService.markAllRead(user);
+        assertEquals(0, announcementService.countUnread(user));
+        assertTrue(readExceptionRepository.findByUserId(user.getId()).isEmpty());
+    }
+
+    @Test
+    void communityAnnouncementsNeedMembership() {
+        Community community = communityRepository.save(new Community("Closed " + UUID.randomUUID(), null, null));
+        Announcement announcement = announce("members only", community);
+        assertThrows(RuntimeException.class, () -> announcementService.setRead(newUser(), announcement.getId(), true));
+    }
+
+    @Test
+    void externallyInsertedAnnouncementCanBeReadBeforeTheSequenceReloads() {
+        AuthenticatedUser user = newUser();
+        Community community = communityRepository.save(new Community("External " + UUID.randomUUID(), null, null));
+        communityService.joinCommunity(user, community.getId());
+        UUID id = UUID.randomUUID();
+        // As another system would insert it: no created_at, and no reload of the sequence
+        jdbcTemplate.update("insert into announcements (id, title, content, type, community_id) values (?, 'Outside', 'Text', 'general', ?)",
+                id, community.getId());
+
+        announcementService.setRead(user, id, true);
+        flusher.flush(); // whether or not the scheduled reload has run, the change is kept
+        sequence.refresh();
+        flusher.flush();
+
+        assertTrue(find(user, id).isRead());
+    }
+
+    @Test
+    void aUserWhoseRowsFailDoesNotHoldBackOthers() {
+        AuthenticatedUser good = newUser();
+        AuthenticatedUser bad = newUser();
+        Announcement announcement = announce("bookmarkable", null);
+        jdbcTemplate.execute("alter table announcement_bookmarks add constraint chk_test_failing_user check (user_id <> '" + bad.getId() + "')");
+        try {
+            announcementService.setBookmarked(good, announcement.getId(), true);
+            announcementService.setBookmarked(bad, announcement.getId(), true);
+            flusher.flush();
+            assertEquals(List.of(announcement.getId()), bookmarkRepository.findAnnouncementIdsByUserId(good.getId()));
+
+            for (int i = 0; i < 3; i++) {
+                flusher.flush(); // retried, then dropped
+            }
+            assertTrue(writeBuffer.pendingBookmarks(bad.getId()).isEmpty());
+            assertTrue(bookmarkRepository.findAnnouncementIdsByUserId(bad.getId()).isEmpty());
+        } finally {
+            jdbcTemplate.execute("alter table announcement_bookmarks drop constraint chk_test_failing_user");
+        }
+    }
+
+    private AnnouncementDto find(AuthenticatedUser user, UUID announcementId) {
+        return announcementService.getAnnouncements(user).stream()
+                .filter(a -> a.getId().equals(announcementId))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private Announcement announce(String title, Community community) {
+        return announcementRepository.save(new Announcement(title, "Text", "general", community));
+    }
+
+    private AuthenticatedUser newUser() {
+        String name = "reader-" + UUID.randomUUID();
+        User user = userRepository.save(new User(name + "@example.com", "x", name, User.UserRole.STUDENT));
+        return new AuthenticatedUser(user.getId(), user.getUsername(), user.getRole());
+    }
+}
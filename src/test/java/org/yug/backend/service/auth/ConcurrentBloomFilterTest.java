@@ -0,0 +1,53 @@
+package org.yug.backend.service.auth;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrentBloomFilterTest {
+
+    @Test
+    void neverMissesAnAddedValueAndKeepsFalsePositivesNearTheTarget() {
+        ConcurrentBloomFilter filter = new ConcurrentBloomFilter(10_000, 0.01);
+        List<String> added = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            String id = UUID.randomUUID().toString();
+            filter.add(id);
+            added.add(id);
+        }
+        added.forEach(id -> assertTrue(filter.mightContain(id), "false negative for " + id));
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2_000, falsePositives + " false positives in 100000, target 1%");
+    }
+
+    @Test
+    void concurrentAddsAreAllVisible() throws InterruptedException {
+        ConcurrentBloomFilter filter = new ConcurrentBloomFilter(1_000, 0.01);
+        List<Thread> threads = new ArrayList<>();
+        List<List<String>> values = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            List<String> own = new ArrayList<>();
+            for (int i = 0; i < 250; i++) {
+                own.add(t + "-" + i);
+            }
+            values.add(own);
+            Thread thread = new Thread(() -> own.forEach(filter::add)); // CAS on shared words
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        values.forEach(own -> own.forEach(value -> assertTrue(filter.mightContain(value), value)));
+    }
+}
@@ -0,0 +1,73 @@
+package org.yug.backend.service.auth;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.yug.backend.model.auth.User;
+import org.yug.backend.model.auth.UserPrincipal;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PrincipalCacheTest {
+
+    private final PrincipalCache cache = new PrincipalCache(true, Duration.ofMinutes(5), 100, new SimpleMeterRegistry());
+
+    @Test
+    void invalidatingByIdDropsTheEntryUnderItsOldUsername() {
+        UUID id = UUID.randomUUID();
+        AtomicReference<User.UserRole> storedRole = new AtomicReference<>(User.UserRole.STUDENT);
+        AtomicInteger loads = new AtomicInteger();
+        Function<String, UserPrincipal> loader = name -> { // reads the "database" as it is now
+            loads.incrementAndGet();
+            User user = new User(name + "@example.com", "x", name, storedRole.get());
+            user.setId(id);
+            return new UserPrincipal(user);
+        };
+
+        cache.get("old-name", loader);
+        assertEquals(User.UserRole.STUDENT, cache.get("old-name", loader).getRole());
+        assertEquals(1, loads.get());
+
+        // Renamed and promoted: the saving code only knows the new name, so it invalidates by id
+        storedRole.set(User.UserRole.ADMIN);
+        cache.invalidate(id);
+
+        assertEquals(User.UserRole.ADMIN, cache.get("old-name", loader).getRole());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void invalidatingByNameForgetsWhichIdHadIt() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        AtomicReference<UUID> owner = new AtomicReference<>(first);
+        AtomicInteger loads = new AtomicInteger();
+        Function<String, UserPrincipal> loader = name -> {
+            loads.incrementAndGet();
+            User user = new User(name + "@example.com", "x", name, User.UserRole.STUDENT);
+            user.setId(owner.get());
+            return new UserPrincipal(user);
+        };
+
+        cache.get("alice", loader);
+        cache.invalidate("alice");
+        // The name now belongs to another user; ending the first user's entry must leave the new one alone
+        owner.set(second);
+        cache.get("alice", loader);
+        cache.invalidate(first);
+
+        assertEquals(second, cache.get("alice", loader).getId());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void invalidatingAnUnknownIdIsHarmless() {
+        cache.invalidate(UUID.randomUUID());
+        cache.invalidateAll();
+    }
+}
@@ -0,0 +1,93 @@
+package org.yug.backend.service.auth;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.yug.backend.exception.InvalidRefreshTokenException;
+import org.yug.backend.model.auth.RefreshToken;
+import org.yug.backend.model.auth.User;
+import org.yug.backend.repository.RefreshTokenRepository;
+import org.yug.backend.repository.UserRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class RefreshTokenServiceTest {
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void rotationIssuesANewTokenInTheSameFamily() {
+        User user = newUser();
+        String first = refreshTokenService.issue(user);
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(first);
+
+        assertEquals(user.getId(), rotation.getUser().getId());
+        assertNotEquals(first, rotation.getRefreshToken());
+        RefreshToken before = row(first);
+        RefreshToken after = row(rotation.getRefreshToken());
+        assertEquals(before.getFamilyId(), after.getFamilyId());
+        assertEquals(before.getFamilyExpiresAt(), after.getFamilyExpiresAt());
+        assertTrue(before.getUsedAt() != null);
+    }
+
+    @Test
+    void reusingARotatedTokenRevokesTheFamily() {
+        String first = refreshTokenService.issue(newUser());
+        String second = refreshTokenService.rotate(first).getRefreshToken();
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(first)); // replay
+        assertTrue(row(second).isRevoked(), "the legitimate successor is revoked too");
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(second));
+    }
+
+    @Test
+    void expirySlidesUpToTheSessionCap() {
+        Duration idle = refreshTokenService.getIdleTimeout();
+        String first = refreshTokenService.issue(newUser());
+        assertAbout(Instant.now().plus(idle), row(first).getExpiresAt());
+
+        // Near the end of the session, rotation extends only up to the absolute cap
+        RefreshToken current = row(first);
+        Instant cap = Instant.now().plus(Duration.ofHours(1)).truncatedTo(ChronoUnit.MILLIS);
+        current.setFamilyExpiresAt(cap);
+        refreshTokenRepository.save(current);
+        String second = refreshTokenService.rotate(first).getRefreshToken();
+        assertEquals(cap, row(second).getExpiresAt());
+
+        // Idle past the sliding expiry
+        RefreshToken idleToken = row(second);
+        idleToken.setExpiresAt(Instant.now().minusSeconds(1));
+        refreshTokenRepository.save(idleToken);
+        InvalidRefreshTokenException expired = assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(second));
+        assertTrue(expired.getMessage().contains("expired"), expired.getMessage());
+    }
+
+    private RefreshToken row(String rawToken) {
+        return refreshTokenRepository.findByTokenHash(VerifiedTokenCache.digest(rawToken)).orElseThrow();
+    }
+
+    private static void assertAbout(Instant expected, Instant actual) {
+        assertTrue(Duration.between(expected, actual).abs().compareTo(Duration.ofMinutes(1)) < 0, expected + " vs " + actual);
+    }
+
+    private User newUser() {
+        String name = "session-" + UUID.randomUUID();
+        return userRepository.save(new User(name + "@example.com", "x", name, User.UserRole.STUDENT));
+    }
+}
@@ -0,0 +1,87 @@
+package org.yug.backend.service.auth;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.yug.backend.model.auth.User;
+import org.yug.backend.service.JwtService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SigningKeyRingTest {
+
+    private static final String OLD_SECRET = secret();
+    private static final String NEW_SECRET = secret();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void oldKeyVerifiesDuringGraceAndIsRejectedOnceRetired() throws IOException {
+        Path file = dir.resolve("keyring.properties");
+        Files.writeString(file, "keys.old.secret=" + OLD_SECRET + "\n");
+        VerifiedTokenCache tokenCache = new VerifiedTokenCache(100, new SimpleMeterRegistry());
+        SigningKeyRing ring = new SigningKeyRing(file.toString(), "", tokenCache);
+        JwtService jwt = new JwtService(ring, tokenCache, Duration.ofMinutes(15));
+        String oldToken = jwt.generateToken(user());
+        assertEquals("old", jwt.verify(oldToken).orElseThrow().getKeyId());
+
+        // Rotation: the new key signs from now on, the old one stays valid for an hour
+        Instant now = Instant.now();
+        rewrite(file, "keys.old.secret=" + OLD_SECRET + "\n"
+                + "keys.old.expires=" + now.plus(Duration.ofHours(1)) + "\n"
+                + "keys.new.secret=" + NEW_SECRET + "\n"
+                + "keys.new.not-before=" + now.minusSeconds(1) + "\n");
+        ring.reloadIfChanged();
+        assertEquals("new", ring.activeKey().getKid());
+        String newToken = jwt.generateToken(user());
+        assertEquals("new", jwt.verify(newToken).orElseThrow().getKeyId());
+        assertTrue(jwt.verify(oldToken).isPresent(), "old-kid token accepted during the grace period");
+        assertTrue(jwtService(ring).verify(oldToken).isPresent(), "also when not cached");
+
+        // Grace period over
+        rewrite(file, "keys.old.secret=" + OLD_SECRET + "\n"
+                + "keys.old.expires=" + now.minusSeconds(1) + "\n"
+                + "keys.new.secret=" + NEW_SECRET + "\n"
+                + "keys.new.not-before=" + now.minusSeconds(1) + "\n");
+        ring.reloadIfChanged();
+        assertTrue(jwt.verify(oldToken).isEmpty(), "cached old-kid token rejected");
+        assertTrue(jwtService(ring).verify(oldToken).isEmpty(), "retired kid rejected when parsed");
+        assertTrue(jwt.verify(newToken).isPresent());
+    }
+
+    // A node that has not seen the token yet: parses it instead of answering from a cache
+    private static JwtService jwtService(SigningKeyRing ring) {
+        return new JwtService(ring, new VerifiedTokenCache(100, new SimpleMeterRegistry()), Duration.ofMinutes(15));
+    }
+
+    // reloadIfChanged goes by modification time, which may not tick between two quick writes
+    private static void rewrite(Path file, String content) throws IOException {
+        FileTime before = Files.getLastModifiedTime(file);
+        Files.writeString(file, content);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(before.toMillis() + 1000));
+    }
+
+    private static User user() {
+        User user = new User("keys@example.com", "x", "keys", User.UserRole.STUDENT);
+        user.setId(UUID.randomUUID());
+        return user;
+    }
+
+    private static String secret() {
+        byte[] bytes = new byte[32];
+        new SecureRandom().nextBytes(bytes);
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+}
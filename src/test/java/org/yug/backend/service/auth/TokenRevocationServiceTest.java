@@ -0,0 +1,90 @@
+package org.yug.backend.service.auth;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.yug.backend.model.auth.RevokedToken;
+import org.yug.backend.model.auth.TokenWatermark;
+import org.yug.backend.model.auth.User;
+import org.yug.backend.repository.RevokedTokenRepository;
+import org.yug.backend.repository.TokenWatermarkRepository;
+import org.yug.backend.repository.UserRepository;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class TokenRevocationServiceTest {
+
+    @Autowired
+    private TokenRevocationService revocationService;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private TokenWatermarkRepository watermarkRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void revokedTokenIdIsRejected() {
+        UUID userId = UUID.randomUUID();
+        VerifiedToken token = token(UUID.randomUUID().toString(), userId, Instant.now());
+        VerifiedToken other = token(UUID.randomUUID().toString(), userId, Instant.now());
+
+        revocationService.revoke(token);
+
+        assertTrue(revocationService.isRevoked(token));
+        assertFalse(revocationService.isRevoked(other));
+    }
+
+    @Test
+    void logoutEverywhereCoversTokensIssuedEarlierInTheSameSecond() {
+        UUID userId = newUser().getId();
+        Instant now = Instant.now();
+        // iat as it comes back out of a JWT: whole seconds
+        VerifiedToken sameSecond = token(UUID.randomUUID().toString(), userId, now.truncatedTo(ChronoUnit.SECONDS));
+        VerifiedToken earlier = token(UUID.randomUUID().toString(), userId, now.minusSeconds(60).truncatedTo(ChronoUnit.SECONDS));
+        VerifiedToken later = token(UUID.randomUUID().toString(), userId, now.plusSeconds(2).truncatedTo(ChronoUnit.SECONDS));
+
+        revocationService.revokeAll(userId);
+
+        assertTrue(revocationService.isRevoked(sameSecond));
+        assertTrue(revocationService.isRevoked(earlier));
+        assertFalse(revocationService.isRevoked(later));
+        assertFalse(revocationService.isRevoked(token(UUID.randomUUID().toString(), UUID.randomUUID(), now)));
+    }
+
+    @Test
+    void syncPicksUpRevocationsWrittenByAnotherNode() {
+        UUID userId = UUID.randomUUID();
+        Instant now = Instant.now();
+        VerifiedToken revokedElsewhere = token(UUID.randomUUID().toString(), userId, now);
+        VerifiedToken loggedOutElsewhere = token(UUID.randomUUID().toString(), UUID.randomUUID(), now.minusSeconds(5));
+        revokedTokenRepository.save(new RevokedToken(revokedElsewhere.getTokenId(), userId, now.plusSeconds(900), now));
+        watermarkRepository.save(new TokenWatermark(loggedOutElsewhere.getUserId(), now, now));
+
+        assertFalse(revocationService.isRevoked(revokedElsewhere));
+        assertFalse(revocationService.isRevoked(loggedOutElsewhere));
+
+        revocationService.sync();
+
+        assertTrue(revocationService.isRevoked(revokedElsewhere));
+        assertTrue(revocationService.isRevoked(loggedOutElsewhere));
+    }
+
+    private static VerifiedToken token(String tokenId, UUID userId, Instant issuedAt) {
+        return new VerifiedToken(tokenId, "user@example.com", userId, "STUDENT", "default", issuedAt, issuedAt.plusSeconds(900));
+    }
+
+    private User newUser() {
+        String name = "revoke-" + UUID.randomUUID();
+        return userRepository.save(new User(name + "@example.com", "x", name, User.UserRole.STUDENT));
+    }
+}
@@ -0,0 +1,43 @@
+package org.yug.backend.service.auth;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class VerifiedTokenCacheTest {
+
+    private final VerifiedTokenCache cache = new VerifiedTokenCache(100, new SimpleMeterRegistry());
+
+    @Test
+    void repeatTokenHitsAndOtherTokenMisses() {
+        VerifiedToken token = token("a", Instant.now().plus(Duration.ofMinutes(15)));
+        cache.put(VerifiedTokenCache.digest("token-a"), token);
+
+        assertSame(token, cache.get(VerifiedTokenCache.digest("token-a")));
+        assertNull(cache.get(VerifiedTokenCache.digest("token-b")));
+        assertEquals(0.5, cache.hitRate()); // one hit, one miss
+    }
+
+    @Test
+    void entryLeavesWithTheToken() {
+        cache.put(VerifiedTokenCache.digest("expired"), token("e", Instant.now().minusSeconds(1)));
+        assertNull(cache.get(VerifiedTokenCache.digest("expired")));
+    }
+
+    @Test
+    void digestIsStablePerToken() {
+        assertEquals(VerifiedTokenCache.digest("token-a"), VerifiedTokenCache.digest("token-a"));
+        assertNotEquals(VerifiedTokenCache.digest("token-a"), VerifiedTokenCache.digest("token-b"));
+    }
+
+    private static VerifiedToken token(String id, Instant expiresAt) {
+        return new VerifiedToken(id, "reader", null, null, null, Instant.now(), expiresAt);
+    }
+}
@@ -0,0 +1,52 @@
+package org.yug.backend.service.community;
+
+import org.junit.jupiter.api.Test;
+import org.yug.backend.dto.community.CommunityDto;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CommunityNameIndexTest {
+
+    private final CommunityNameIndex index = CommunityNameIndex.build(List.of(
+            community("Web Development", 40),
+            community("Web", 5),
+            community("Webinars", 90),
+            community("Frontend Web Guild", 70),
+            community("Cobweb Crawlers", 500),
+            community("Data Science", 10)));
+
+    @Test
+    void ranksExactThenPrefixThenWordThenSubstring() {
+        assertEquals(List.of("Web", "Webinars", "Web Development", "Frontend Web Guild", "Cobweb Crawlers"),
+                names(index.search("web", 10)));
+    }
+
+    @Test
+    void shortQueriesMatchWordPrefixes() {
+        assertEquals(List.of("Data Science"), names(index.search("sc", 10)));
+        assertEquals(List.of("Webinars", "Web Development", "Web", "Frontend Web Guild"), names(index.search("WE", 10))); // by members
+    }
+
+    @Test
+    void trigramsMustAppearContiguously() {
+        assertEquals(List.of("Web Development"), names(index.search("b dev", 10)));
+        assertTrue(index.search("webd", 10).isEmpty()); // every trigram but "bde" exists on its own
+    }
+
+    @Test
+    void honoursLimit() {
+        assertEquals(2, index.search("w", 2).size());
+    }
+
+    private static CommunityDto community(String name, int members) {
+        return CommunityDto.builder().id(UUID.randomUUID()).name(name).memberCount(members).build();
+    }
+
+    private static List<String> names(List<CommunityDto> communities) {
+        return communities.stream().map(CommunityDto::getName).toList();
+    }
+}
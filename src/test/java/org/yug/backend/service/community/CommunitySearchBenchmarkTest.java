@@ -0,0 +1,75 @@
+package org.yug.backend.service.community;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.yug.backend.repository.CommunityRepository;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.IntSupplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the in-memory name index with the SQL {@code LIKE '%x%'} path it replaced. Excluded from the default
+ * build; run with {@code mvn test -Pbenchmark}. Numbers are against in-memory H2, so the SQL side is a lower bound
+ * of what a networked database costs.
+ */
+@Tag("benchmark")
+@SpringBootTest
+class CommunitySearchBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(CommunitySearchBenchmarkTest.class);
+    private static final int COMMUNITIES = 5_000;
+    private static final int ROUNDS = 200;
+    private static final String[] WORDS = {"web", "data", "cloud", "design", "robotics", "music", "chess", "finance",
+            "security", "mobile", "games", "physics", "startup", "art", "ai", "devops"};
+    private static final List<String> QUERIES = List.of("w", "we", "web", "robo", "ecur", "cloud de", "fin", "zzz");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CommunityRepository communityRepository;
+
+    @Autowired
+    private CommunityCatalog catalog;
+
+    @Test
+    void indexVersusSql() {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        jdbcTemplate.batchUpdate("insert into communities (id, name, member_count) values (?, ?, ?)",
+                IntStream.range(0, COMMUNITIES).mapToObj(i -> new Object[]{
+                        UUID.randomUUID(),
+                        WORDS[i % WORDS.length] + " " + WORDS[(i * 7) % WORDS.length] + " " + run + "-" + i,
+                        i % 300}).toList());
+        catalog.refresh();
+        CommunityNameIndex index = catalog.current().getNameIndex();
+
+        for (String query : QUERIES) {
+            long sqlNanos = time(() -> communityRepository.findSummariesByNameContainingIgnoreCase(query).size());
+            long indexNanos = time(() -> index.search(query, 10).size());
+            logger.info(String.format("%-10s sql %9.1f us   index %7.1f us   (%d sql matches)", '"' + query + '"',
+                    sqlNanos / 1000.0, indexNanos / 1000.0,
+                    communityRepository.findSummariesByNameContainingIgnoreCase(query).size()));
+        }
+        assertEquals(0, index.search("zzz", 10).size());
+    }
+
+    private static long time(IntSupplier work) {
+        for (int i = 0; i < ROUNDS / 4; i++) {
+            work.getAsInt(); // warm up
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            work.getAsInt();
+        }
+        return (System.nanoTime() - start) / ROUNDS;
+    }
+}
@@ -0,0 +1,154 @@
+package org.yug.backend.service.community;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.yug.backend.dto.CursorPage;
+import org.yug.backend.dto.community.CommunityPostDto;
+import org.yug.backend.dto.community.PostCreateRequest;
+import org.yug.backend.model.Community;
+import org.yug.backend.model.auth.AuthenticatedUser;
+import org.yug.backend.model.auth.User;
+import org.yug.backend.repository.CommunityRepository;
+import org.yug.backend.repository.UserRepository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class HomeFeedServiceTest {
+
+    @Autowired
+    private HomeFeedService homeFeedService;
+
+    @Autowired
+    private CommunityService communityService;
+
+    @Autowired
+    private CommunityRepository communityRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PostCreatedAtBackfill createdAtBackfill;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void mergesJoinedCommunitiesNewestFirstAcrossPages() {
+        AuthenticatedUser reader = newUser();
+        AuthenticatedUser author = newUser();
+        List<UUID> communities = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            UUID id = communityRepository.save(new Community("Feed " + UUID.randomUUID(), null, null)).getId();
+            communityService.joinCommunity(author, id);
+            communityService.joinCommunity(reader, id);
+            communities.add(id);
+        }
+        UUID notJoined = communityRepository.save(new Community("Elsewhere " + UUID.randomUUID(), null, null)).getId();
+        communityService.joinCommunity(author, notJoined);
+        post(author, notJoined, "hidden");
+
+        // Warm the windows so later posts reach the feed through the commit event
+        assertEquals(0, homeFeedService.getHomeFeed(reader, null, 10).getItems().size());
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            String title = "post " + i;
+            post(author, communities.get(i % 3), title);
+            expected.add(0, title);
+        }
+
+        assertEquals(expected, readAll(reader, 3));
+    }
+
+    @Test
+    void postsSharingACreationTimeAreNeitherSkippedNorRepeated() {
+        AuthenticatedUser reader = newUser();
+        AuthenticatedUser author = newUser();
+        List<UUID> communities = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            UUID id = communityRepository.save(new Community("Ties " + UUID.randomUUID(), null, null)).getId();
+            communityService.joinCommunity(author, id);
+            communityService.joinCommunity(reader, id);
+            communities.add(id);
+        }
+        // Ids on both sides of the top bit, where signed and unsigned order disagree
+        Timestamp createdAt = Timestamp.from(Instant.now().truncatedTo(ChronoUnit.SECONDS));
+        List<String> ids = List.of("00000000-0000-0000-0000-000000000001", "7fffffff-0000-0000-0000-000000000002",
+                "80000000-0000-0000-0000-000000000003", "ffffffff-0000-0000-0000-000000000004");
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            UUID id = UUID.fromString(ids.get(i));
+            jdbcTemplate.update("insert into posts (id, community_id, author_id, title, content, image_url, likes_count, created_at) " +
+                    "values (?, ?, ?, ?, 'Body', null, 0, ?)", id, communities.get(i % 2), author.getId(), "tie " + i, createdAt);
+            expected.add(0, "tie " + i);
+        }
+
+        // Once read from the database, once from the windows that read seeded
+        assertEquals(expected, readAll(reader, 1));
+        assertEquals(expected, readAll(reader, 1));
+    }
+
+    @Test
+    void postsWithoutAUsableCreationTimeGetOne() {
+        AuthenticatedUser reader = newUser();
+        AuthenticatedUser author = newUser();
+        UUID communityId = communityRepository.save(new Community("Legacy " + UUID.randomUUID(), null, null)).getId();
+        communityService.joinCommunity(author, communityId);
+        communityService.joinCommunity(reader, communityId);
+        // Plain SQL without created_at, as rows written before the column look; the column default fills it
+        jdbcTemplate.update("insert into posts (id, community_id, author_id, title, content) values (?, ?, ?, 'defaulted', 'Body')",
+                UUID.randomUUID(), communityId, author.getId());
+        // H2 has no zero date; a date before the floor stands in for one
+        UUID zeroDated = UUID.randomUUID();
+        jdbcTemplate.update("insert into posts (id, community_id, author_id, title, content, created_at) " +
+                "values (?, ?, ?, 'zero-dated', 'Body', ?)", zeroDated, communityId, author.getId(), Timestamp.from(Instant.parse("0001-01-01T00:00:00Z")));
+
+        createdAtBackfill.backfillCreatedAt();
+        Instant createdAt = jdbcTemplate.queryForObject("select created_at from posts where id = ?", Instant.class, zeroDated);
+        assertTrue(createdAt.isAfter(Instant.EPOCH));
+        assertEquals(2, readAll(reader, 10).size());
+    }
+
+    @Test
+    void userWithoutCommunitiesGetsAnEmptyFeed() {
+        CursorPage<CommunityPostDto> page = homeFeedService.getHomeFeed(newUser(), null, null);
+        assertEquals(0, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    private List<String> readAll(AuthenticatedUser reader, int limit) {
+        List<String> titles = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<CommunityPostDto> page = homeFeedService.getHomeFeed(reader, cursor, limit);
+            page.getItems().forEach(p -> titles.add(p.getTitle()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return titles;
+    }
+
+    private void post(AuthenticatedUser author, UUID communityId, String title) {
+        PostCreateRequest request = new PostCreateRequest();
+        request.setTitle(title);
+        request.setContent("Body");
+        communityService.createPost(author, communityId, request);
+    }
+
+    private AuthenticatedUser newUser() {
+        String name = "feed-" + UUID.randomUUID();
+        User user = userRepository.save(new User(name + "@example.com", "x", name, User.UserRole.STUDENT));
+        return new AuthenticatedUser(user.getId(), user.getUsername(), user.getRole());
+    }
+}
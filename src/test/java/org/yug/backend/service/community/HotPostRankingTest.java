@@ -0,0 +1,115 @@
+package org.yug.backend.service.community;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.yug.backend.dto.CursorPage;
+import org.yug.backend.dto.community.CommunityPostDto;
+import org.yug.backend.dto.community.PostCreateRequest;
+import org.yug.backend.model.Community;
+import org.yug.backend.model.auth.AuthenticatedUser;
+import org.yug.backend.model.auth.User;
+import org.yug.backend.repository.CommunityRepository;
+import org.yug.backend.repository.UserRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class HotPostRankingTest {
+
+    @Autowired
+    private HotPostRanking hotPostRanking;
+
+    @Autowired
+    private CommunityService communityService;
+
+    @Autowired
+    private PostLikeService postLikeService;
+
+    @Autowired
+    private PostLikeCounter likeCounter;
+
+    @Autowired
+    private CommunityRepository communityRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void likesLiftAPostAndAgeBringsItDown() {
+        AuthenticatedUser author = newUser();
+        UUID communityId = communityRepository.save(new Community("Hot " + UUID.randomUUID(), null, null)).getId();
+        communityService.joinCommunity(author, communityId);
+        CommunityPostDto quiet = post(author, communityId, "quiet");
+        CommunityPostDto popular = post(author, communityId, "popular");
+        CommunityPostDto newest = post(author, communityId, "newest");
+        for (int i = 0; i < 3; i++) {
+            postLikeService.like(newUser(), popular.getId());
+        }
+        postLikeService.like(newUser(), quiet.getId());
+
+        // Ten likes two days ago: four half-lives have cut its weight to 11/16, below a fresh post's 1
+        UUID stale = UUID.randomUUID();
+        hotPostRanking.onPostCreated(new PostCreatedEvent(CommunityPostDto.builder()
+                .id(stale).communityId(communityId).likesCount(10).createdAt(Instant.now().minus(Duration.ofDays(2))).build()));
+
+        assertEquals(List.of(popular.getId(), quiet.getId(), newest.getId(), stale),
+                hotPostRanking.top(communityId, null, 10).stream().map(HotPostRanking.Entry::postId).toList());
+    }
+
+    @Test
+    void hotPagesCoverEveryPostOnce() {
+        AuthenticatedUser author = newUser();
+        UUID communityId = communityRepository.save(new Community("Paged " + UUID.randomUUID(), null, null)).getId();
+        communityService.joinCommunity(author, communityId);
+        List<UUID> created = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            created.add(0, post(author, communityId, "post " + i).getId());
+        }
+
+        List<UUID> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<CommunityPostDto> page = communityService.getHotPosts(communityId, cursor, 2);
+            page.getItems().forEach(p -> seen.add(p.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertEquals(created, seen); // no likes: newest first
+    }
+
+    @Test
+    void rebuildCountsFlushedPendingAndLaterLikesOnce() {
+        AuthenticatedUser author = newUser();
+        UUID communityId = communityRepository.save(new Community("Rebuilt " + UUID.randomUUID(), null, null)).getId();
+        communityService.joinCommunity(author, communityId);
+        CommunityPostDto post = post(author, communityId, "liked");
+
+        postLikeService.like(newUser(), post.getId());
+        postLikeService.like(newUser(), post.getId());
+        likeCounter.flush(); // two in the row
+        postLikeService.like(newUser(), post.getId()); // one pending
+        hotPostRanking.rebuild();
+        postLikeService.like(newUser(), post.getId()); // one after the rebuild
+
+        assertEquals(4, hotPostRanking.top(communityId, null, 1).get(0).likes());
+    }
+
+    private CommunityPostDto post(AuthenticatedUser author, UUID communityId, String title) {
+        PostCreateRequest request = new PostCreateRequest();
+        request.setTitle(title);
+        request.setContent("Body");
+        return communityService.createPost(author, communityId, request);
+    }
+
+    private AuthenticatedUser newUser() {
+        String name = "hot-" + UUID.randomUUID();
+        User user = userRepository.save(new User(name + "@example.com", "x", name, User.UserRole.STUDENT));
+        return new AuthenticatedUser(user.getId(), user.getUsername(), user.getRole());
+    }
+}
@@ -0,0 +1,102 @@
+package org.yug.backend.service.community;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.yug.backend.model.Community;
+import org.yug.backend.model.UserCommunity;
+import org.yug.backend.model.auth.AuthenticatedUser;
+import org.yug.backend.model.auth.User;
+import org.yug.backend.repository.CommunityRepository;
+import org.yug.backend.repository.UserCommunityRepository;
+import org.yug.backend.repository.UserRepository;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class MemberCountTest {
+
+    @Autowired
+    private CommunityService communityService;
+
+    @Autowired
+    private MemberCountReconciler reconciler;
+
+    @Autowired
+    private CommunityRepository communityRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserCommunityRepository userCommunityRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void joinAndLeaveMaintainTheCounter() {
+        Community community = communityRepository.save(new Community("Counted " + UUID.randomUUID(), null, null));
+        AuthenticatedUser alice = principal(newUser());
+        AuthenticatedUser bob = principal(newUser());
+
+        communityService.joinCommunity(alice, community.getId());
+        communityService.joinCommunity(bob, community.getId());
+        assertThrows(RuntimeException.class, () -> communityService.joinCommunity(alice, community.getId()));
+        assertEquals(2, memberCount(community));
+
+        communityService.leaveCommunity(alice, community.getId());
+        assertThrows(RuntimeException.class, () -> communityService.leaveCommunity(alice, community.getId()));
+        assertEquals(1, memberCount(community));
+    }
+
+    @Test
+    void reconcileRepairsDrift() {
+        Community community = communityRepository.save(new Community("Drifted " + UUID.randomUUID(), null, null));
+        User user = newUser();
+        // Written behind the service's back, as an import would
+        transactionTemplate.executeWithoutResult(status -> userCommunityRepository.save(new UserCommunity(user, community)));
+        assertEquals(0, memberCount(community));
+
+        reconciler.reconcile();
+        assertEquals(1, memberCount(community));
+    }
+
+    @Test
+    void membershipsInsertedWithoutJoinedAtGetOne() {
+        Community community = communityRepository.save(new Community("Imported " + UUID.randomUUID(), null, null));
+        User user = newUser();
+        // Plain SQL without joined_at, as rows from before the column (or an import) look
+        jdbcTemplate.update("insert into user_communities (user_id, community_id) values (?, ?)", user.getId(), community.getId());
+
+        reconciler.backfillJoinedAt();
+        Instant joinedAt = jdbcTemplate.queryForObject(
+                "select joined_at from user_communities where user_id = ? and community_id = ?", Instant.class,
+                user.getId(), community.getId());
+        assertNotNull(joinedAt);
+        assertEquals(1, communityService.getMemberPage(community.getId(), MemberSort.JOINED, null, null, null).getItems().size());
+    }
+
+    private int memberCount(Community community) {
+        return communityRepository.findById(community.getId()).orElseThrow().getMemberCount();
+    }
+
+    private User newUser() {
+        String name = "member-" + UUID.randomUUID();
+        return userRepository.save(new User(name + "@example.com", "x", name, User.UserRole.STUDENT));
+    }
+
+    private static AuthenticatedUser principal(User user) {
+        return new AuthenticatedUser(user.getId(), user.getUsername(), user.getRole());
+    }
+}
@@ -0,0 +1,133 @@
+package org.yug.backend.service.community;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.yug.backend.dto.community.PostCreateRequest;
+import org.yug.backend.model.Community;
+import org.yug.backend.model.UserCommunity;
+import org.yug.backend.model.auth.AuthenticatedUser;
+import org.yug.backend.model.auth.User;
+import org.yug.backend.repository.CommunityRepository;
+import org.yug.backend.repository.UserCommunityRepository;
+import org.yug.backend.repository.UserRepository;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class MembershipIndexTest {
+
+    @Autowired
+    private MembershipIndex membershipIndex;
+
+    @Autowired
+    private CommunityService communityService;
+
+    @Autowired
+    private CommunityRepository communityRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserCommunityRepository userCommunityRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void joinAndLeaveAreVisibleAfterCommit() {
+        Community first = newCommunity();
+        Community second = newCommunity();
+        User user = newUser();
+        AuthenticatedUser principal = principal(user);
+
+        communityService.joinCommunity(principal, first.getId());
+        communityService.joinCommunity(principal, second.getId());
+        assertTrue(membershipIndex.isMember(user.getId(), first.getId()));
+        assertEquals(List.of(second.getId()), membershipIndex.joinedAmong(user.getId(), List.of(second.getId(), UUID.randomUUID())));
+
+        communityService.leaveCommunity(principal, first.getId());
+        assertFalse(membershipIndex.isMember(user.getId(), first.getId()));
+        assertEquals(List.of(second.getId()), membershipIndex.joinedBy(user.getId()));
+    }
+
+    @Test
+    void membershipWrittenElsewhereIsConfirmedFromTheDatabase() {
+        Community community = newCommunity();
+        User user = newUser();
+        membershipIndex.joinedBy(user.getId()); // make sure the index is loaded before the row exists
+        // As if joined on another node: no event reaches this one
+        transactionTemplate.executeWithoutResult(status -> userCommunityRepository.save(new UserCommunity(user, community)));
+        assertTrue(membershipIndex.joinedBy(user.getId()).isEmpty());
+
+        assertTrue(membershipIndex.isMember(user.getId(), community.getId()));
+        assertEquals(List.of(community.getId()), membershipIndex.joinedBy(user.getId()));
+    }
+
+    @Test
+    void joinConfirmsAMembershipTheIndexStillHolds() {
+        Community community = newCommunity();
+        User user = newUser();
+        AuthenticatedUser principal = principal(user);
+        communityService.joinCommunity(principal, community.getId());
+        // As if left on another node: the row is gone but this node's index still lists the membership
+        transactionTemplate.executeWithoutResult(status -> userCommunityRepository.deleteMembership(user.getId(), community.getId()));
+        assertTrue(membershipIndex.holds(user.getId(), community.getId()));
+
+        communityService.joinCommunity(principal, community.getId()); // not "already a member"
+        assertTrue(userCommunityRepository.existsByUser_IdAndCommunity_Id(user.getId(), community.getId()));
+    }
+
+    @Test
+    void primaryKeyRejectsAMembershipTheIndexMisses() {
+        Community community = newCommunity();
+        User user = newUser();
+        membershipIndex.joinedBy(user.getId()); // make sure the index is loaded before the row exists
+        // As if joined on another node: no event reaches this one
+        transactionTemplate.executeWithoutResult(status -> userCommunityRepository.save(new UserCommunity(user, community)));
+        assertFalse(membershipIndex.holds(user.getId(), community.getId()));
+
+        RuntimeException rejected = assertThrows(RuntimeException.class,
+                () -> communityService.joinCommunity(principal(user), community.getId()));
+        assertTrue(rejected.getMessage().contains("already a member"));
+        assertEquals(0, communityRepository.findById(community.getId()).orElseThrow().getMemberCount()); // rolled back
+    }
+
+    @Test
+    void postingAfterALeaveElsewhereIsRejectedOnceTheIndexReloads() {
+        Community community = newCommunity();
+        User user = newUser();
+        AuthenticatedUser principal = principal(user);
+        communityService.joinCommunity(principal, community.getId());
+        transactionTemplate.executeWithoutResult(status -> userCommunityRepository.deleteMembership(user.getId(), community.getId()));
+
+        membershipIndex.refresh();
+        PostCreateRequest post = new PostCreateRequest();
+        post.setTitle("Still here?");
+        post.setContent("No");
+        RuntimeException rejected = assertThrows(RuntimeException.class,
+                () -> communityService.createPost(principal, community.getId(), post));
+        assertTrue(rejected.getMessage().contains("must be a member"));
+    }
+
+    private static AuthenticatedUser principal(User user) {
+        return new AuthenticatedUser(user.getId(), user.getUsername(), user.getRole());
+    }
+
+    private Community newCommunity() {
+        return communityRepository.save(new Community("Indexed " + UUID.randomUUID(), null, null));
+    }
+
+    private User newUser() {
+        String name = "indexed-" + UUID.randomUUID();
+        return userRepository.save(new User(name + "@example.com", "x", name, User.UserRole.STUDENT));
+    }
+}
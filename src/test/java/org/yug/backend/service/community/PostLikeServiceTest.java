@@ -0,0 +1,98 @@
+package org.yug.backend.service.community;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.yug.backend.model.Community;
+import org.yug.backend.model.Post;
+import org.yug.backend.model.auth.AuthenticatedUser;
+import org.yug.backend.model.auth.User;
+import org.yug.backend.repository.CommunityRepository;
+import org.yug.backend.repository.PostRepository;
+import org.yug.backend.repository.UserRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class PostLikeServiceTest {
+
+    @Autowired
+    private PostLikeService postLikeService;
+
+    @Autowired
+    private PostLikeCounter likeCounter;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private CommunityRepository communityRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void concurrentLikesAreCountedOnceEach() throws Exception {
+        User author = newUser();
+        Post post = newPost(author);
+        List<AuthenticatedUser> likers = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            likers.add(principal(newUser()));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (AuthenticatedUser liker : likers) {
+                results.add(pool.submit(() -> postLikeService.like(liker, post.getId())));
+            }
+            for (Future<Integer> result : results) {
+                result.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(40, postLikeService.getLikesCount(post.getId()));
+        likeCounter.flush();
+        assertEquals(0, likeCounter.pendingDelta(post.getId()));
+        assertEquals(40, postRepository.findLikesCountById(post.getId()).orElseThrow());
+    }
+
+    @Test
+    void likeIsPerUserAndCanBeTakenBack() {
+        Post post = newPost(newUser());
+        AuthenticatedUser user = principal(newUser());
+
+        assertEquals(1, postLikeService.like(user, post.getId()));
+        assertThrows(RuntimeException.class, () -> postLikeService.like(user, post.getId()));
+        assertEquals(0, postLikeService.unlike(user, post.getId()));
+        assertThrows(RuntimeException.class, () -> postLikeService.unlike(user, post.getId()));
+        assertThrows(RuntimeException.class, () -> postLikeService.like(user, UUID.randomUUID()));
+
+        likeCounter.flush();
+        assertEquals(0, postLikeService.getLikesCount(post.getId()));
+    }
+
+    private Post newPost(User author) {
+        Community community = communityRepository.save(new Community("Liked " + UUID.randomUUID(), null, null));
+        return postRepository.save(new Post(community, author, "Popular", "Like me", null));
+    }
+
+    private User newUser() {
+        String name = "liker-" + UUID.randomUUID();
+        return userRepository.save(new User(name + "@example.com", "x", name, User.UserRole.STUDENT));
+    }
+
+    private static AuthenticatedUser principal(User user) {
+        return new AuthenticatedUser(user.getId(), user.getUsername(), user.getRole());
+    }
+}
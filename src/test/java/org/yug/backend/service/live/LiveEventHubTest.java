@@ -0,0 +1,182 @@
+package org.yug.backend.service.live;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.yug.backend.dto.community.PostCreateRequest;
+import org.yug.backend.model.Community;
+import org.yug.backend.model.auth.AuthenticatedUser;
+import org.yug.backend.model.auth.User;
+import org.yug.backend.repository.CommunityRepository;
+import org.yug.backend.repository.UserRepository;
+import org.yug.backend.service.JwtService;
+import org.yug.backend.service.auth.TokenRevocationService;
+import org.yug.backend.service.community.CommunityService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class LiveEventHubTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private LiveEventHub hub;
+
+    @Autowired
+    private TokenRevocationService revocationService;
+
+    @Autowired
+    private CommunityService communityService;
+
+    @Autowired
+    private CommunityRepository communityRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void streamsPostsFromJoinedCommunities() throws Exception {
+        User user = newUser();
+        AuthenticatedUser principal = principal(user);
+        AuthenticatedUser poster = principal(newUser());
+        Community joined = communityRepository.save(new Community("Live " + UUID.randomUUID(), null, null));
+        Community other = communityRepository.save(new Community("Elsewhere " + UUID.randomUUID(), null, null));
+        communityService.joinCommunity(principal, other.getId());
+        communityService.joinCommunity(poster, other.getId());
+        int before = hub.connectionCount();
+
+        MvcResult stream = mockMvc.perform(get("/events").header("Authorization", "Bearer " + jwtService.generateToken(user)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(before + 1, hub.connectionCount());
+
+        communityService.joinCommunity(principal, joined.getId()); // followed while connected
+        communityService.leaveCommunity(principal, other.getId());
+        communityService.createPost(poster, other.getId(), post("Not for you"));
+        communityService.createPost(principal, joined.getId(), post("Fresh post"));
+
+        String body = awaitContent(stream, "Fresh post");
+        assertTrue(body.contains("event:post"), body);
+        assertTrue(!body.contains("Not for you"), body);
+    }
+
+    @Test
+    void fullBufferIsReplacedByResync() throws Exception {
+        List<String> sent = new ArrayList<>();
+        SseEmitter emitter = new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) {
+                builder.build().forEach(part -> sent.add(part.getData().toString()));
+            }
+        };
+        LiveSubscriber subscriber = new LiveSubscriber(UUID.randomUUID(), emitter, null, Set.of(), 2);
+        assertTrue(subscriber.offer(new LiveEvent("post", "1"), () -> { }));
+        subscriber.offer(new LiveEvent("post", "2"), () -> { });
+        int[] overflows = new int[1];
+        subscriber.offer(new LiveEvent("post", "3"), () -> overflows[0]++);
+        subscriber.offer(new LiveEvent("post", "4"), () -> overflows[0]++);
+        assertEquals(1, overflows[0]);
+
+        assertTrue(subscriber.drain(() -> { }));
+        String events = String.join("", sent);
+        assertTrue(events.contains("event:resync"), events);
+        assertTrue(!events.contains("data:1") && !events.contains("data:4"), events);
+    }
+
+    @Test
+    void revokedTokenEndsTheStream() throws Exception {
+        User user = newUser();
+        int before = hub.connectionCount();
+        MvcResult stream = mockMvc.perform(get("/events").header("Authorization", "Bearer " + jwtService.generateToken(user)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(before + 1, hub.connectionCount());
+
+        revocationService.revokeAll(user.getId()); // log out everywhere
+        hub.sweep();
+        assertEquals(before, hub.connectionCount());
+        stream.getAsyncResult(5000); // the response was completed, or this throws
+    }
+
+    @Test
+    void sendBlockedOnAClientIsReportedOnceAndReleased() throws Exception {
+        CountDownLatch unblock = new CountDownLatch(1);
+        SseEmitter emitter = new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) {
+                try {
+                    unblock.await(); // a client that stopped reading
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        LiveSubscriber subscriber = new LiveSubscriber(UUID.randomUUID(), emitter, null, Set.of(), 4);
+        subscriber.offer(new LiveEvent("post", "1"), () -> { });
+        AtomicInteger released = new AtomicInteger();
+        Thread sender = new Thread(() -> subscriber.drain(released::incrementAndGet));
+        sender.start();
+        while (!subscriber.isSending()) {
+            Thread.sleep(5);
+        }
+
+        long limit = TimeUnit.SECONDS.toNanos(10);
+        assertFalse(subscriber.markStuck(System.nanoTime(), limit));
+        long later = System.nanoTime() + limit + 1;
+        assertTrue(subscriber.markStuck(later, limit));
+        assertFalse(subscriber.markStuck(later, limit)); // reported once
+
+        unblock.countDown();
+        sender.join(5000);
+        assertEquals(1, released.get());
+        assertFalse(subscriber.isSending());
+    }
+
+    private User newUser() {
+        String name = "listener-" + UUID.randomUUID();
+        return userRepository.save(new User(name + "@example.com", "x", name, User.UserRole.STUDENT));
+    }
+
+    private static AuthenticatedUser principal(User user) {
+        return new AuthenticatedUser(user.getId(), user.getUsername(), user.getRole());
+    }
+
+    private static PostCreateRequest post(String title) {
+        PostCreateRequest request = new PostCreateRequest();
+        request.setTitle(title);
+        request.setContent("Pushed to subscribers");
+        return request;
+    }
+
+    private static String awaitContent(MvcResult stream, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        String body = stream.getResponse().getContentAsString();
+        while (!body.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            body = stream.getResponse().getContentAsString();
+        }
+        return body;
+    }
+}
@@ -0,0 +1,100 @@
+package org.yug.backend.service.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PostSearchIndexTest {
+
+    private static final UUID JAVA = UUID.randomUUID();
+    private static final UUID MUSIC = UUID.randomUUID();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void ranksByBm25AndFiltersByCommunity() {
+        PostSearchIndex index = new PostSearchIndex(dir, 100, 16);
+        UUID streams = add(index, JAVA, "Java streams", "Collectors and streams explained");
+        UUID records = add(index, JAVA, "Records in Java", "Records are compact data carriers");
+        UUID jazz = add(index, MUSIC, "Jazz night", "Bring your streams of consciousness");
+
+        assertEquals(List.of(streams, jazz), ids(index.search("streams", null, 10)));
+        assertEquals(List.of(streams), ids(index.search("streams", JAVA, 10)));
+        assertEquals(List.of(records, streams), ids(index.search("java records", null, 10)));
+        assertTrue(index.search("the and of", null, 10).isEmpty()); // stop words only
+    }
+
+    @Test
+    void sealedSegmentsSurviveARestartAndAreMerged() throws Exception {
+        PostSearchIndex index = new PostSearchIndex(dir, 2, 16);
+        UUID first = add(index, JAVA, "Garbage collection", "G1 and ZGC pauses");
+        add(index, JAVA, "Virtual threads", "Loom in practice");
+        add(index, JAVA, "Pattern matching", "Switch on sealed types");
+        UUID pending = add(index, JAVA, "Garbage in, garbage out", "Validation");
+        index.flush();
+        assertEquals(2, segmentFiles());
+
+        PostSearchIndex reopened = new PostSearchIndex(dir, 2, 1);
+        reopened.addSealed(reopened.loadSegments()); // more than one file: merged on load
+        assertEquals(1, segmentFiles());
+        assertEquals(4, reopened.docCount());
+        assertEquals(List.of(pending, first), ids(reopened.search("garbage", null, 10)));
+    }
+
+    @Test
+    void segmentsAreMergedInTheBackgroundAndDuplicatesDropped() throws Exception {
+        PostSearchIndex index = new PostSearchIndex(dir, 3, 2);
+        List<UUID> posts = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            posts.add(add(index, JAVA, "Tuning post " + i, "Heap sizing"));
+        }
+        // The same post again, as when the startup catch-up races a live insert
+        IndexedDoc again = IndexedDoc.of(posts.get(0), JAVA, "Tuning post 0", "Heap sizing");
+        index.addSealed(List.of(IndexSegment.build(List.of(again))));
+        index.flush();
+
+        assertTrue(index.segmentCount() <= 2, index.segmentCount() + " segments");
+        assertEquals(index.segmentCount(), segmentFiles());
+        assertEquals(20, index.docCount());
+        List<UUID> hits = ids(index.search("heap", null, 20));
+        assertEquals(20, hits.size());
+        assertEquals(20, Set.copyOf(hits).size());
+    }
+
+    @Test
+    void searchNeverReturnsAPostTwice() {
+        PostSearchIndex index = new PostSearchIndex(dir, 100, 16);
+        UUID post = add(index, JAVA, "Profiling", "Async profiler flame graphs");
+        UUID other = add(index, JAVA, "Profiling basics", "Sampling versus instrumentation");
+        index.addSealed(List.of(IndexSegment.build(List.of(IndexedDoc.of(post, JAVA, "Profiling", "Async profiler flame graphs")))));
+
+        assertEquals(List.of(post, other), ids(index.search("profiling", null, 2)));
+    }
+
+    private static UUID add(PostSearchIndex index, UUID community, String title, String content) {
+        UUID id = UUID.randomUUID();
+        index.add(IndexedDoc.of(id, community, title, content));
+        return id;
+    }
+
+    private static List<UUID> ids(List<PostSearchIndex.Hit> hits) {
+        return hits.stream().map(PostSearchIndex.Hit::postId).toList();
+    }
+
+    private long segmentFiles() throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.toString().endsWith(".pix")).count();
+        }
+    }
+}